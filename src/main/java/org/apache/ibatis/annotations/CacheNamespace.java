@@ -38,6 +38,11 @@ public @interface CacheNamespace {
 
   long flushInterval() default 0;
 
+  /**
+   * Milliseconds each entry is kept for, 0 to keep entries until they are flushed or evicted.
+   */
+  long timeToLive() default 0;
+
   int size() default 1024;
 
   boolean readWrite() default true;
@@ -33,4 +33,8 @@ public @interface Many {
 
   FetchType fetchType() default FetchType.DEFAULT;
 
+  String batchSelect() default "";
+
+  String batchKey() default "";
+
 }
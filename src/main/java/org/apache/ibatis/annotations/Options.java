@@ -63,4 +63,8 @@ public @interface Options {
   String keyColumn() default "";
   
   String resultSets() default "";
+
+  String tables() default "";
+
+  int multiRowSize() default 0;
 }
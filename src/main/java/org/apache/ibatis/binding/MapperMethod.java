@@ -17,7 +17,11 @@ package org.apache.ibatis.binding;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
+import org.apache.ibatis.annotations.ParallelQueries;
+import org.apache.ibatis.annotations.ParallelQuery;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ResultExtractor;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.reflection.MetaObject;
@@ -33,6 +37,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * @author Clinton Begin
@@ -69,7 +75,11 @@ public class MapperMethod {
         break;
       }
       case SELECT:
-        if (method.returnsVoid() && method.hasResultHandler()) {
+        if (command.isParallel()) {
+          result = executeParallel(sqlSession, args);
+        } else if (method.returnsFuture()) {
+          result = executeForFuture(sqlSession, args);
+        } else if (method.returnsVoid() && method.hasResultHandler()) {
           executeWithResultHandler(sqlSession, args);
           result = null;
         } else if (method.returnsMany()) {
@@ -148,6 +158,51 @@ public class MapperMethod {
     return result;
   }
 
+  private Future<?> executeForFuture(SqlSession sqlSession, Object[] args) {
+    Object param = method.convertArgsToSqlCommandParam(args);
+    if (!method.returnsMany()) {
+      return sqlSession.selectOneAsync(command.getName(), param);
+    } else if (method.hasRowBounds()) {
+      return sqlSession.selectListAsync(command.getName(), param, method.extractRowBounds(args));
+    } else {
+      return sqlSession.selectListAsync(command.getName(), param);
+    }
+  }
+
+  private Object executeParallel(SqlSession sqlSession, Object[] args) {
+    Object param = method.convertArgsToSqlCommandParam(args);
+    String[] selects = command.getParallelSelects();
+    List<Future<List<Object>>> futures = new ArrayList<Future<List<Object>>>(selects.length);
+    try {
+      //每个查询在各自的会话中并行执行
+      for (String select : selects) {
+        futures.add(sqlSession.<Object>selectListAsync(select, param));
+      }
+      Configuration config = sqlSession.getConfiguration();
+      Object result = config.getObjectFactory().create(method.getReturnType());
+      MetaObject metaResult = config.newMetaObject(result);
+      ResultExtractor resultExtractor = new ResultExtractor(config, config.getObjectFactory());
+      String[] properties = command.getParallelProperties();
+      for (int i = 0; i < properties.length; i++) {
+        List<Object> list = futures.get(i).get();
+        metaResult.setValue(properties[i], resultExtractor.extractObjectFromList(list, metaResult.getSetterType(properties[i])));
+      }
+      return result;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw ExceptionFactory.wrapException("Error executing parallel queries " + command.getName() + ".", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw ExceptionFactory.wrapException("Interrupted while executing parallel queries " + command.getName() + ".", e);
+    } finally {
+      for (Future<List<Object>> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
   private <T> Cursor<T> executeForCursor(SqlSession sqlSession, Object[] args) {
     Cursor<T> result;
     Object param = method.convertArgsToSqlCommandParam(args);
@@ -211,6 +266,8 @@ public class MapperMethod {
 
     private final String name;
     private final SqlCommandType type;
+    private final String[] parallelSelects;
+    private final String[] parallelProperties;
 
     public SqlCommand(Configuration configuration, Class<?> mapperInterface, Method method) {
       String statementName = mapperInterface.getName() + "." + method.getName();
@@ -223,6 +280,23 @@ public class MapperMethod {
           ms = configuration.getMappedStatement(parentStatementName);
         }
       }
+      ParallelQueries parallelQueries = method.getAnnotation(ParallelQueries.class);
+      if (ms == null && parallelQueries != null) {
+        name = statementName;
+        //并行查询没有对应的MappedStatement，按SELECT执行，由parallelSelects区分
+        type = SqlCommandType.SELECT;
+        ParallelQuery[] queries = parallelQueries.value();
+        parallelSelects = new String[queries.length];
+        parallelProperties = new String[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+          String select = queries[i].select();
+          parallelSelects[i] = select.contains(".") ? select : mapperInterface.getName() + "." + select;
+          parallelProperties[i] = queries[i].property();
+        }
+        return;
+      }
+      parallelSelects = null;
+      parallelProperties = null;
       if (ms == null) {
         if(method.getAnnotation(Flush.class) != null){
           name = null;
@@ -246,6 +320,18 @@ public class MapperMethod {
     public SqlCommandType getType() {
       return type;
     }
+
+    public boolean isParallel() {
+      return parallelSelects != null;
+    }
+
+    public String[] getParallelSelects() {
+      return parallelSelects;
+    }
+
+    public String[] getParallelProperties() {
+      return parallelProperties;
+    }
   }
 
   public static class MethodSignature {
@@ -254,6 +340,7 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsFuture;
     private final Class<?> returnType;
     private final String mapKey;
     private final Integer resultHandlerIndex;
@@ -262,12 +349,18 @@ public class MapperMethod {
 
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
+      // the result of an asynchronous select is described by the type argument of its Future
+      this.returnsFuture = Future.class.equals(method.getReturnType());
+      if (returnsFuture) {
+        resolvedReturnType = resolvedReturnType instanceof ParameterizedType
+            ? ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0] : Object.class;
+      }
       if (resolvedReturnType instanceof Class<?>) {
         this.returnType = (Class<?>) resolvedReturnType;
       } else if (resolvedReturnType instanceof ParameterizedType) {
         this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
       } else {
-        this.returnType = method.getReturnType();
+        this.returnType = returnsFuture ? Object.class : method.getReturnType();
       }
       this.returnsVoid = void.class.equals(this.returnType);
       this.returnsMany = (configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray());
@@ -277,6 +370,11 @@ public class MapperMethod {
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
       this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
       this.paramNameResolver = new ParamNameResolver(configuration, method);
+      if (returnsFuture && (returnsMap || returnsCursor || resultHandlerIndex != null
+          || returnsMany && !returnType.isAssignableFrom(ArrayList.class))) {
+        throw new BindingException("Mapper method '" + method.getName()
+            + "' returns a Future of an unsupported type, only single objects and lists can be selected asynchronously.");
+      }
     }
 
     public Object convertArgsToSqlCommandParam(Object[] args) {
@@ -323,6 +421,10 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    public boolean returnsFuture() {
+      return returnsFuture;
+    }
+
     private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
       Integer index = null;
       final Class<?>[] argTypes = method.getParameterTypes();
@@ -340,7 +442,7 @@ public class MapperMethod {
 
     private String getMapKey(Method method) {
       String mapKey = null;
-      if (Map.class.isAssignableFrom(method.getReturnType())) {
+      if (Map.class.isAssignableFrom(returnsFuture ? returnType : method.getReturnType())) {
         final MapKey mapKeyAnnotation = method.getAnnotation(MapKey.class);
         if (mapKeyAnnotation != null) {
           mapKey = mapKeyAnnotation.value();
@@ -33,6 +33,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
@@ -82,6 +83,7 @@ import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.parsing.PropertyParser;
 import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.defaults.MultiRowSqlSource;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -180,8 +182,9 @@ public class MapperAnnotationBuilder {
     if (cacheDomain != null) {
       Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
       Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
+      Long timeToLive = cacheDomain.timeToLive() == 0 ? null : cacheDomain.timeToLive();
       Properties props = convertToProperties(cacheDomain.properties());
-      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+      assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, timeToLive, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
     }
   }
 
@@ -330,6 +333,12 @@ public class MapperAnnotationBuilder {
         timeout = options.timeout() > -1 ? options.timeout() : null;
         statementType = options.statementType();
         resultSetType = options.resultSetType();
+        if (options.multiRowSize() > 0) {
+          if (sqlCommandType != SqlCommandType.INSERT) {
+            throw new BuilderException("Only inserts can be multi-row, found multiRowSize on " + mappedStatementId);
+          }
+          sqlSource = new MultiRowSqlSource(configuration, sqlSource, options.multiRowSize());
+        }
       }
 
       String resultMapId = null;
@@ -364,7 +373,7 @@ public class MapperAnnotationBuilder {
           flushCache,
           useCache,
           // TODO gcode issue #577
-          false,
+          isSelect && configuration.isDefaultResultOrdered(),
           keyGenerator,
           keyProperty,
           keyColumn,
@@ -372,7 +381,9 @@ public class MapperAnnotationBuilder {
           null,
           languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null);
+          options != null ? nullOrEmpty(options.resultSets()) : null,
+          // Tables
+          options != null ? nullOrEmpty(options.tables()) : null);
     }
   }
   
@@ -404,6 +415,14 @@ public class MapperAnnotationBuilder {
   private Class<?> getReturnType(Method method) {
     Class<?> returnType = method.getReturnType();
     Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
+    // the result of an asynchronous select is described by the type argument of its Future
+    if (resolvedReturnType instanceof ParameterizedType
+        && Future.class.equals(((ParameterizedType) resolvedReturnType).getRawType())) {
+      resolvedReturnType = ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0];
+      if (resolvedReturnType instanceof ParameterizedType) {
+        returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
+      }
+    }
     if (resolvedReturnType instanceof Class) {
       returnType = (Class<?>) resolvedReturnType;
       if (returnType.isArray()) {
@@ -547,7 +566,9 @@ public class MapperAnnotationBuilder {
           flags,
           null,
           null,
-          isLazy(result));
+          isLazy(result),
+          hasNestedSelect(result) ? nestedBatchSelectId(result) : null,
+          hasNestedSelect(result) ? nestedBatchKey(result) : null);
       resultMappings.add(resultMapping);
     }
   }
@@ -563,6 +584,22 @@ public class MapperAnnotationBuilder {
     return nestedSelect;
   }
 
+  private String nestedBatchSelectId(Result result) {
+    String batchSelect = result.one().select().length() > 0 ? result.one().batchSelect() : result.many().batchSelect();
+    if (batchSelect.length() < 1) {
+      return null;
+    }
+    if (!batchSelect.contains(".")) {
+      batchSelect = type.getName() + "." + batchSelect;
+    }
+    return batchSelect;
+  }
+
+  private String nestedBatchKey(Result result) {
+    String batchKey = result.one().select().length() > 0 ? result.one().batchKey() : result.many().batchKey();
+    return batchKey.length() < 1 ? null : batchKey;
+  }
+
   private boolean isLazy(Result result) {
     boolean isLazy = configuration.isLazyLoadingEnabled();
     if (result.one().select().length() > 0 && FetchType.DEFAULT != result.one().fetchType()) {
@@ -40,6 +40,8 @@ import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
+import org.apache.ibatis.session.BatchOrdering;
+import org.apache.ibatis.session.CacheInvalidation;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
@@ -235,19 +237,31 @@ public class XMLConfigBuilder extends BaseBuilder {
   private void settingsElement(Properties props) throws Exception {
     configuration.setAutoMappingBehavior(AutoMappingBehavior.valueOf(props.getProperty("autoMappingBehavior", "PARTIAL")));
     configuration.setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior.valueOf(props.getProperty("autoMappingUnknownColumnBehavior", "NONE")));
+    configuration.setGenerateRowMappers(booleanValueOf(props.getProperty("generateRowMappers"), false));
+    configuration.setInvokerGenerationEnabled(booleanValueOf(props.getProperty("invokerGenerationEnabled"), false));
+    configuration.setCompactNestedResultKeys(booleanValueOf(props.getProperty("compactNestedResultKeys"), false));
+    configuration.setDefaultResultOrdered(booleanValueOf(props.getProperty("defaultResultOrdered"), false));
     configuration.setCacheEnabled(booleanValueOf(props.getProperty("cacheEnabled"), true));
     configuration.setProxyFactory((ProxyFactory) createInstance(props.getProperty("proxyFactory")));
     configuration.setLazyLoadingEnabled(booleanValueOf(props.getProperty("lazyLoadingEnabled"), false));
     configuration.setAggressiveLazyLoading(booleanValueOf(props.getProperty("aggressiveLazyLoading"), false));
+    configuration.setNestedBatchSize(integerValueOf(props.getProperty("nestedBatchSize"), 100));
     configuration.setMultipleResultSetsEnabled(booleanValueOf(props.getProperty("multipleResultSetsEnabled"), true));
     configuration.setUseColumnLabel(booleanValueOf(props.getProperty("useColumnLabel"), true));
     configuration.setUseGeneratedKeys(booleanValueOf(props.getProperty("useGeneratedKeys"), false));
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
+    configuration.setBatchOrdering(BatchOrdering.valueOf(props.getProperty("batchOrdering", "STRICT")));
+    configuration.setBatchFlushSize(integerValueOf(props.getProperty("batchFlushSize"), null));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), null));
+    configuration.setAsyncPoolSize(integerValueOf(props.getProperty("asyncPoolSize"), 10));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
+    configuration.setLocalCacheSize(integerValueOf(props.getProperty("localCacheSize"), null));
+    configuration.setLocalCacheWeakValues(booleanValueOf(props.getProperty("localCacheWeakValues"), false));
+    configuration.setCacheInvalidation(CacheInvalidation.valueOf(props.getProperty("cacheInvalidation", "NAMESPACE")));
     configuration.setJdbcTypeForNull(JdbcType.valueOf(props.getProperty("jdbcTypeForNull", "OTHER")));
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
@@ -255,6 +269,9 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setCallSettersOnNulls(booleanValueOf(props.getProperty("callSettersOnNulls"), false));
     configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
     configuration.setReturnInstanceForEmptyRow(booleanValueOf(props.getProperty("returnInstanceForEmptyRow"), false));
+    configuration.setOmitUnusedCacheKeys(booleanValueOf(props.getProperty("omitUnusedCacheKeys"), false));
+    configuration.setCacheMetricsEnabled(booleanValueOf(props.getProperty("cacheMetricsEnabled"), false));
+    configuration.setCacheMetricsJmxEnabled(booleanValueOf(props.getProperty("cacheMetricsJmxEnabled"), false));
     configuration.setLogPrefix(props.getProperty("logPrefix"));
     @SuppressWarnings("unchecked")
     Class<? extends Log> logImpl = (Class<? extends Log>)resolveClass(props.getProperty("logImpl"));
@@ -206,6 +206,8 @@ public class XMLMapperBuilder extends BaseBuilder {
       Class<? extends Cache> evictionClass = typeAliasRegistry.resolveAlias(eviction);
       //缓存刷新间隔
       Long flushInterval = context.getLongAttribute("flushInterval");
+      //缓存项存活时间
+      Long timeToLive = context.getLongAttribute("timeToLive");
       //引用数量
       Integer size = context.getIntAttribute("size");
       //是否只读
@@ -214,7 +216,7 @@ public class XMLMapperBuilder extends BaseBuilder {
       //cache标签张配置的propertie属性
       Properties props = context.getChildrenAsProperties();
       //创建缓存对象MappedStatement
-      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+      builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, timeToLive, size, readWrite, blocking, props);
     }
   }
 
@@ -375,6 +377,8 @@ public class XMLMapperBuilder extends BaseBuilder {
     String javaType = context.getStringAttribute("javaType");
     String jdbcType = context.getStringAttribute("jdbcType");
     String nestedSelect = context.getStringAttribute("select");
+    String batchSelect = context.getStringAttribute("batchSelect");
+    String batchKey = context.getStringAttribute("batchKey");
     String nestedResultMap = context.getStringAttribute("resultMap",
         processNestedResultMappings(context, Collections.<ResultMapping> emptyList()));
     String notNullColumn = context.getStringAttribute("notNullColumn");
@@ -387,7 +391,7 @@ public class XMLMapperBuilder extends BaseBuilder {
     @SuppressWarnings("unchecked")
     Class<? extends TypeHandler<?>> typeHandlerClass = (Class<? extends TypeHandler<?>>) resolveClass(typeHandler);
     JdbcType jdbcTypeEnum = resolveJdbcType(jdbcType);
-    return builderAssistant.buildResultMapping(resultType, property, column, javaTypeClass, jdbcTypeEnum, nestedSelect, nestedResultMap, notNullColumn, columnPrefix, typeHandlerClass, flags, resultSet, foreignColumn, lazy);
+    return builderAssistant.buildResultMapping(resultType, property, column, javaTypeClass, jdbcTypeEnum, nestedSelect, nestedResultMap, notNullColumn, columnPrefix, typeHandlerClass, flags, resultSet, foreignColumn, lazy, batchSelect, batchKey);
   }
   
   private String processNestedResultMappings(XNode context, List<ResultMapping> resultMappings) throws Exception {
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Map;
+
+/**
+ * Cache that can store many entries in one call, for instance under a single lock acquisition.
+ *
+ * {@link org.apache.ibatis.cache.decorators.TransactionalCache} writes all the entries of a commit with
+ * {@link #putObjects(Map)} when its delegate implements this interface. Decorators that implement it pass the
+ * entries on to their own delegate in bulk too when it supports it, or one by one otherwise.
+ */
+public interface BulkCache extends Cache {
+
+  /**
+   * Same as calling {@link #putObject(Object, Object)} for each entry. Null values only release the keys, like
+   * a null {@code putObject} does.
+   *
+   * @param entries the entries to put, not modified
+   */
+  void putObjects(Map<Object, Object> entries);
+
+}
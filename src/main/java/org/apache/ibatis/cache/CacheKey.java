@@ -15,9 +15,15 @@
  */
 package org.apache.ibatis.cache;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,31 +33,63 @@ public class CacheKey implements Cloneable, Serializable {
 
   private static final long serialVersionUID = 1146682552656046210L;
 
+  // the serialized form of the versions that kept the components in a List, so keys stay readable across them
+  private static final ObjectStreamField[] serialPersistentFields = {
+      new ObjectStreamField("multiplier", int.class),
+      new ObjectStreamField("hashcode", int.class),
+      new ObjectStreamField("checksum", long.class),
+      new ObjectStreamField("count", int.class),
+      new ObjectStreamField("updateList", List.class)
+  };
+
   public static final CacheKey NULL_CACHE_KEY = new NullCacheKey();
 
   private static final int DEFAULT_MULTIPLYER = 37;
   private static final int DEFAULT_HASHCODE = 17;
+  private static final int DEFAULT_CAPACITY = 8;
 
   private int multiplier;
   private int hashcode;
   private long checksum;
   private int count;
-  private List<Object> updateList;
+  private Object[] updateList;
 
   public CacheKey() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param expectedUpdates number of {@link #update(Object)} calls expected, used to size the component array
+   */
+  public CacheKey(int expectedUpdates) {
     this.hashcode = DEFAULT_HASHCODE;
     this.multiplier = DEFAULT_MULTIPLYER;
     this.count = 0;
-    this.updateList = new ArrayList<Object>();
+    this.updateList = new Object[Math.max(expectedUpdates, 1)];
+  }
+
+  /**
+   * Starts a new key with all the components of another one, without hashing them again.
+   *
+   * @param prefix key holding the components shared by many keys (e.g. the statement id and its sql)
+   * @param additionalUpdates number of {@link #update(Object)} calls expected after the prefix
+   */
+  public CacheKey(CacheKey prefix, int additionalUpdates) {
+    this.hashcode = prefix.hashcode;
+    this.multiplier = prefix.multiplier;
+    this.checksum = prefix.checksum;
+    this.count = prefix.count;
+    this.updateList = new Object[Math.max(prefix.count + additionalUpdates, 1)];
+    System.arraycopy(prefix.updateList, 0, updateList, 0, prefix.count);
   }
 
   public CacheKey(Object[] objects) {
-    this();
+    this(objects.length);
     updateAll(objects);
   }
 
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
   }
 
   public void update(Object object) {
@@ -78,7 +116,10 @@ public class CacheKey implements Cloneable, Serializable {
     //CacheKey的hashCode变为原hashCode*扩展系数（默认37）+此对象的hashCode
     hashcode = multiplier * hashcode + baseHashCode;
 
-    updateList.add(object);
+    if (count > updateList.length) {
+      updateList = Arrays.copyOf(updateList, updateList.length << 1);
+    }
+    updateList[count - 1] = object;
   }
 
   public void updateAll(Object[] objects) {
@@ -108,17 +149,15 @@ public class CacheKey implements Cloneable, Serializable {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
-      if (thisObject == null) {
-        if (thatObject != null) {
-          return false;
-        }
-      } else {
-        if (!thisObject.equals(thatObject)) {
-          return false;
-        }
+    for (int i = 0; i < count; i++) {
+      Object thisObject = updateList[i];
+      Object thatObject = cacheKey.updateList[i];
+      // components copied from a shared prefix are the very same instances
+      if (thisObject == thatObject) {
+        continue;
+      }
+      if (thisObject == null || !thisObject.equals(thatObject)) {
+        return false;
       }
     }
     return true;
@@ -132,17 +171,40 @@ public class CacheKey implements Cloneable, Serializable {
   @Override
   public String toString() {
     StringBuilder returnValue = new StringBuilder().append(hashcode).append(':').append(checksum);
-    for (Object object : updateList) {
-      returnValue.append(':').append(object);
+    for (int i = 0; i < count; i++) {
+      returnValue.append(':').append(updateList[i]);
     }
 
     return returnValue.toString();
   }
 
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("multiplier", multiplier);
+    fields.put("hashcode", hashcode);
+    fields.put("checksum", checksum);
+    fields.put("count", count);
+    fields.put("updateList", new ArrayList<Object>(Arrays.asList(updateList).subList(0, count)));
+    out.writeFields();
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    ObjectInputStream.GetField fields = in.readFields();
+    multiplier = fields.get("multiplier", DEFAULT_MULTIPLYER);
+    hashcode = fields.get("hashcode", DEFAULT_HASHCODE);
+    checksum = fields.get("checksum", 0L);
+    count = fields.get("count", 0);
+    List<?> components = (List<?>) fields.get("updateList", null);
+    if (components == null || components.size() != count) {
+      throw new InvalidObjectException("CacheKey components do not match its update count");
+    }
+    updateList = components.toArray(new Object[Math.max(count, 1)]);
+  }
+
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.updateList = new ArrayList<Object>(updateList);
+    clonedCacheKey.updateList = updateList.clone();
     return clonedCacheKey;
   }
 
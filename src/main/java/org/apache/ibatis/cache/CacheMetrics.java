@@ -0,0 +1,163 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Usage statistics of a second level cache, collected by {@link org.apache.ibatis.cache.decorators.MetricsCache}
+ * when the {@code cacheMetricsEnabled} setting is on.
+ *
+ * Counters are striped so that recording a hit does not contend with other threads. Load times are the times
+ * spent running the statements of the queries that missed the cache.
+ */
+public class CacheMetrics implements CacheMetricsMBean {
+
+  /** Upper bounds, in microseconds, of the buckets of the load time histogram. The last bucket has no bound. */
+  private static final long[] LOAD_TIME_BUCKETS = { 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000,
+      250000, 500000, 1000000, 2500000, 5000000, 10000000 };
+
+  private final Cache cache;
+  private final StripedCounter hits = new StripedCounter();
+  private final StripedCounter misses = new StripedCounter();
+  private final StripedCounter puts = new StripedCounter();
+  private final StripedCounter clears = new StripedCounter();
+  private final StripedCounter clearedEntries = new StripedCounter();
+  private final StripedCounter loads = new StripedCounter();
+  private final StripedCounter loadTime = new StripedCounter();
+  private final AtomicLongArray loadTimeHistogram = new AtomicLongArray(LOAD_TIME_BUCKETS.length + 1);
+
+  /**
+   * @param cache the cache the metrics are collected for, used to read its size
+   */
+  public CacheMetrics(Cache cache) {
+    this.cache = cache;
+  }
+
+  public void recordHit() {
+    hits.increment();
+  }
+
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void recordPut() {
+    puts.increment();
+  }
+
+  public void recordClear(int entries) {
+    clears.increment();
+    clearedEntries.add(entries);
+  }
+
+  public void recordLoad(long nanos) {
+    loads.increment();
+    loadTime.add(nanos);
+    long micros = nanos / 1000;
+    int bucket = 0;
+    while (bucket < LOAD_TIME_BUCKETS.length && micros > LOAD_TIME_BUCKETS[bucket]) {
+      bucket++;
+    }
+    loadTimeHistogram.incrementAndGet(bucket);
+  }
+
+  @Override
+  public String getId() {
+    return cache.getId();
+  }
+
+  @Override
+  public long getHits() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hits = getHits();
+    long requests = hits + getMisses();
+    return requests == 0 ? 0 : (double) hits / requests;
+  }
+
+  @Override
+  public long getPuts() {
+    return puts.sum();
+  }
+
+  @Override
+  public long getClears() {
+    return clears.sum();
+  }
+
+  /**
+   * @return estimated number of entries that were put and are neither in the cache any more nor cleared
+   */
+  @Override
+  public long getEvictions() {
+    return Math.max(0, getPuts() - clearedEntries.sum() - getSize());
+  }
+
+  @Override
+  public int getSize() {
+    return cache.getSize();
+  }
+
+  @Override
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  /**
+   * @return average load time in milliseconds
+   */
+  @Override
+  public double getAverageLoadTime() {
+    long loads = getLoads();
+    return loads == 0 ? 0 : loadTime.sum() / 1000000d / loads;
+  }
+
+  /**
+   * @return number of loads in each bucket of {@link #getLoadTimeBuckets()}, plus the ones that took longer
+   */
+  @Override
+  public long[] getLoadTimeHistogram() {
+    long[] histogram = new long[loadTimeHistogram.length()];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = loadTimeHistogram.get(i);
+    }
+    return histogram;
+  }
+
+  /**
+   * @return upper bounds, in microseconds, of the buckets of the load time histogram
+   */
+  @Override
+  public long[] getLoadTimeBuckets() {
+    return LOAD_TIME_BUCKETS.clone();
+  }
+
+  @Override
+  public String toString() {
+    return "CacheMetrics [" + getId() + "] hits=" + getHits() + ", misses=" + getMisses() + ", puts=" + getPuts()
+        + ", clears=" + getClears() + ", size=" + getSize() + ", loads=" + getLoads();
+  }
+
+}
@@ -0,0 +1,28 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Marker for caches and cache decorators that keep some state for a key they missed, such as a lock or a claim
+ * to reload it, until that key is put or removed.
+ *
+ * {@link org.apache.ibatis.cache.decorators.TransactionalCache} only tracks the keys missed by a Session, to put
+ * them on commit or remove them on rollback, when a cache of the decorator chain implements this interface.
+ * The chain is followed through the decorators that implement {@link DelegatingCache}.
+ */
+public interface MissReleasingCache extends Cache {
+
+}
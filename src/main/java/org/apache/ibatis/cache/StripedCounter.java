@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter spread over several cells so that threads updating it do not fight for the same cache line.
+ * Works like java.util.concurrent.atomic.LongAdder, which is not available on all supported JDKs.
+ */
+final class StripedCounter {
+
+  // one cell every 64 bytes
+  private static final int PADDING = 8;
+  private static final int STRIPES = stripes();
+
+  private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+  void increment() {
+    add(1);
+  }
+
+  void add(long value) {
+    cells.getAndAdd(index(), value);
+  }
+
+  long sum() {
+    long sum = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      sum += cells.get(i * PADDING);
+    }
+    return sum;
+  }
+
+  private static int index() {
+    long id = Thread.currentThread().getId();
+    int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    return ((hash ^ (hash >>> 16)) & (STRIPES - 1)) * PADDING;
+  }
+
+  private static int stripes() {
+    int processors = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+    int stripes = 1;
+    while (stripes < processors) {
+      stripes <<= 1;
+    }
+    return stripes;
+  }
+
+}
@@ -0,0 +1,49 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+
+/**
+ * Value stored in the second level cache when {@link org.apache.ibatis.session.CacheInvalidation#TABLE} is used.
+ */
+public class TableCacheEntry implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private String[] tables;
+  private long[] versions;
+  private Object value;
+
+  private TableCacheEntry() {
+    // for serializers
+  }
+
+  public TableCacheEntry(String[] tables, long[] versions, Object value) {
+    this.tables = tables;
+    this.versions = versions;
+    this.value = value;
+  }
+
+  public boolean isCurrent(TableVersions tableVersions) {
+    return tableVersions.isCurrent(tables, versions);
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+}
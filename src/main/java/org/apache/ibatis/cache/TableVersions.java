@@ -0,0 +1,88 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the tables read by the second level cache entries when
+ * {@link org.apache.ibatis.session.CacheInvalidation#TABLE} is used.
+ *
+ * Entries keep the versions of their tables when they are loaded and are stale as soon as one of them changes.
+ * Entries that read unknown tables depend on any write, writes to unknown tables invalidate every entry.
+ */
+public class TableVersions {
+
+  private static final String ANY_TABLE = "*";
+
+  private final AtomicLong epoch = new AtomicLong();
+  private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<String, AtomicLong>();
+
+  /**
+   * @param tables normalized table names, empty if they are not known
+   */
+  public long[] snapshot(String[] tables) {
+    if (tables.length == 0) {
+      return new long[] { epoch.get(), version(ANY_TABLE).get() };
+    }
+    long[] snapshot = new long[tables.length + 1];
+    snapshot[0] = epoch.get();
+    for (int i = 0; i < tables.length; i++) {
+      snapshot[i + 1] = version(tables[i]).get();
+    }
+    return snapshot;
+  }
+
+  public boolean isCurrent(String[] tables, long[] snapshot) {
+    long[] current = snapshot(tables);
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] != snapshot[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param tables normalized table names, empty if they are not known
+   */
+  public void invalidate(Collection<String> tables) {
+    if (tables.isEmpty()) {
+      epoch.incrementAndGet();
+      return;
+    }
+    for (String table : tables) {
+      version(table).incrementAndGet();
+    }
+    version(ANY_TABLE).incrementAndGet();
+  }
+
+  private AtomicLong version(String table) {
+    AtomicLong version = versions.get(table);
+    if (version == null) {
+      version = new AtomicLong();
+      AtomicLong previous = versions.putIfAbsent(table, version);
+      if (previous != null) {
+        version = previous;
+      }
+    }
+    return version;
+  }
+
+}
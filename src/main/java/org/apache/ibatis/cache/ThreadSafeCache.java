@@ -0,0 +1,27 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Marker for caches and cache decorators that can be shared by many threads without any external locking.
+ *
+ * The {@link org.apache.ibatis.mapping.CacheBuilder} will not wrap a cache chain in a
+ * {@link org.apache.ibatis.cache.decorators.SynchronizedCache} when the base cache and all its decorators
+ * are thread safe.
+ */
+public interface ThreadSafeCache extends Cache {
+
+}
@@ -15,8 +15,11 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.ibatis.cache.decorators.TransactionalCache;
 
@@ -26,6 +29,9 @@ import org.apache.ibatis.cache.decorators.TransactionalCache;
 public class TransactionalCacheManager {
 
   private Map<Cache, TransactionalCache> transactionalCaches = new HashMap<Cache, TransactionalCache>();
+  private TableVersions tableVersions;
+  private Set<String> writtenTables = new HashSet<String>();
+  private boolean unknownTablesWritten;
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
@@ -39,18 +45,65 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  /**
+   * Invalidates the entries that read any of the tables when the transaction commits.
+   *
+   * @param tables normalized table names, empty if they are not known
+   */
+  public void invalidate(TableVersions tableVersions, String[] tables) {
+    this.tableVersions = tableVersions;
+    if (tables.length == 0) {
+      unknownTablesWritten = true;
+    } else {
+      Collections.addAll(writtenTables, tables);
+    }
+  }
+
+  /**
+   * @return true if this transaction wrote any of the tables
+   */
+  public boolean isWritten(String[] tables) {
+    if (unknownTablesWritten) {
+      return true;
+    }
+    if (tables.length == 0) {
+      return !writtenTables.isEmpty();
+    }
+    for (String table : tables) {
+      if (writtenTables.contains(table)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public void commit() {
+    if (tableVersions != null) {
+      if (unknownTablesWritten) {
+        tableVersions.invalidate(Collections.<String>emptySet());
+      }
+      if (!writtenTables.isEmpty()) {
+        tableVersions.invalidate(writtenTables);
+      }
+      resetWrittenTables();
+    }
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.commit();
     }
   }
 
   public void rollback() {
+    resetWrittenTables();
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.rollback();
     }
   }
 
+  private void resetWrittenTables() {
+    writtenTables.clear();
+    unknownTablesWritten = false;
+  }
+
   private TransactionalCache getTransactionalCache(Cache cache) {
     TransactionalCache txCache = transactionalCaches.get(cache);
     //如果此SqlSession的缓存集合中不包含cache，则创建cache的装饰类TransactionalCache并放入transactionalCaches中
@@ -15,14 +15,18 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.ibatis.cache.BulkCache;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.MissReleasingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
 
 /**
  * Simple blocking decorator 
@@ -30,19 +34,32 @@ import org.apache.ibatis.cache.CacheException;
  * Simple and inefficient version of EhCache's BlockingCache decorator.
  * It sets a lock over a cache key when the element is not found in cache.
  * This way, other threads will wait until this element is filled instead of hitting the database.
+ *
+ * Only the first thread that misses a key loads it (single flight). The others wait for it to put the value,
+ * or to give up, and then read the value it loaded. The pending load is forgotten as soon as it completes so
+ * nothing is retained for keys that are not being loaded.
+ *
+ * A waiting thread fails with a {@link CacheException} after {@code timeout} milliseconds, or goes to the
+ * database by itself after {@code maxWait} milliseconds.
  * 
  * @author Eduardo Macarron
  *
  */
-public class BlockingCache implements Cache {
+public class BlockingCache implements ThreadSafeCache, BulkCache, DelegatingCache, MissReleasingCache {
 
   private long timeout;
+  private long maxWait;
   private final Cache delegate;
-  private final ConcurrentHashMap<Object, ReentrantLock> locks;
+  private final ConcurrentHashMap<Object, Load> loads;
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
-    this.locks = new ConcurrentHashMap<Object, ReentrantLock>();
+    this.loads = new ConcurrentHashMap<Object, Load>();
+  }
+
+  @Override
+  public Cache getDelegate() {
+    return delegate;
   }
 
   @Override
@@ -64,13 +81,36 @@ public class BlockingCache implements Cache {
     }
   }
 
+  @Override
+  public void putObjects(Map<Object, Object> entries) {
+    try {
+      BulkPuts.putObjects(delegate, entries);
+    } finally {
+      for (Object key : entries.keySet()) {
+        releaseLock(key);
+      }
+    }
+  }
+
   @Override
   public Object getObject(Object key) {
-    acquireLock(key);
     Object value = delegate.getObject(key);
-    if (value != null) {
-      releaseLock(key);
-    }        
+    while (value == null) {
+      Load load = new Load();
+      Load pending = loads.putIfAbsent(key, load);
+      if (pending == null) {
+        // this thread loads the key, unless it has just been put
+        value = delegate.getObject(key);
+        if (value != null) {
+          releaseLock(key);
+        }
+        return value;
+      }
+      if (pending.owner == Thread.currentThread() || !await(key, pending)) {
+        return null;
+      }
+      value = delegate.getObject(key);
+    }
     return value;
   }
 
@@ -90,33 +130,41 @@ public class BlockingCache implements Cache {
   public ReadWriteLock getReadWriteLock() {
     return null;
   }
-  
-  private ReentrantLock getLockForKey(Object key) {
-    ReentrantLock lock = new ReentrantLock();
-    ReentrantLock previous = locks.putIfAbsent(key, lock);
-    return previous == null ? lock : previous;
-  }
-  
-  private void acquireLock(Object key) {
-    Lock lock = getLockForKey(key);
-    if (timeout > 0) {
-      try {
-        boolean acquired = lock.tryLock(timeout, TimeUnit.MILLISECONDS);
-        if (!acquired) {
-          throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());  
-        }
-      } catch (InterruptedException e) {
-        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+
+  /**
+   * @return number of keys being loaded right now
+   */
+  public int getPendingLoads() {
+    return loads.size();
+  }
+
+  /**
+   * @return false if the thread should stop waiting and load the key by itself
+   */
+  private boolean await(Object key, Load load) {
+    long wait = timeout > 0 && (maxWait <= 0 || timeout < maxWait) ? timeout : maxWait;
+    try {
+      if (wait <= 0) {
+        load.done.await();
+        return true;
       }
-    } else {
-      lock.lock();
+      if (load.done.await(wait, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+    } catch (InterruptedException e) {
+      throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+    }
+    if (wait == timeout) {
+      throw new CacheException("Couldn't get a lock in " + timeout + " for the key " +  key + " at the cache " + delegate.getId());
     }
+    return false;
   }
-  
+
   private void releaseLock(Object key) {
-    ReentrantLock lock = locks.get(key);
-    if (lock.isHeldByCurrentThread()) {
-      lock.unlock();
+    Load load = loads.get(key);
+    if (load != null && load.owner == Thread.currentThread()) {
+      loads.remove(key, load);
+      load.done.countDown();
     }
   }
 
@@ -126,5 +174,18 @@ public class BlockingCache implements Cache {
 
   public void setTimeout(long timeout) {
     this.timeout = timeout;
-  }  
+  }
+
+  public long getMaxWait() {
+    return maxWait;
+  }
+
+  public void setMaxWait(long maxWait) {
+    this.maxWait = maxWait;
+  }
+
+  private static class Load {
+    private final Thread owner = Thread.currentThread();
+    private final CountDownLatch done = new CountDownLatch(1);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Map;
+
+import org.apache.ibatis.cache.BulkCache;
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Puts many entries into any cache, in bulk when it is a {@link BulkCache}.
+ */
+final class BulkPuts {
+
+  private BulkPuts() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static void putObjects(Cache cache, Map<Object, Object> entries) {
+    if (cache instanceof BulkCache) {
+      ((BulkCache) cache).putObjects(entries);
+    } else {
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+        cache.putObject(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+}
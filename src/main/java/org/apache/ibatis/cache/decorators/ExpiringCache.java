@@ -0,0 +1,164 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.MissReleasingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
+
+/**
+ * Expires each entry on its own {@code timeToLive} milliseconds after it was put, instead of clearing the whole
+ * cache at once like {@link ScheduledCache}.
+ *
+ * The {@code jitter} property (0 to 1) shortens the life of each entry by a random part of the time to live so
+ * entries loaded together do not expire together. With {@code refreshAhead} milliseconds, the first read of an
+ * entry that will expire within that time is a miss, so its caller reloads it, while the other readers are still
+ * served the current value until the new one is put. The claim to reload lapses half of {@code refreshAhead} after
+ * it was taken, or when it is released by {@link #removeObject(Object)}, so a reader that never puts the new value
+ * does not hold it and another reader is asked to reload before the entry expires.
+ *
+ * Expired entries are removed from the delegate by the read that finds them expired.
+ */
+public class ExpiringCache implements ThreadSafeCache, DelegatingCache, MissReleasingCache {
+
+  private final Cache delegate;
+  private final Random random = new Random();
+  protected long timeToLive;
+  protected double jitter;
+  protected long refreshAhead;
+
+  public ExpiringCache(Cache delegate) {
+    this.delegate = delegate;
+    this.timeToLive = 60 * 60 * 1000; // 1 hour
+  }
+
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  public void setJitter(double jitter) {
+    this.jitter = jitter;
+  }
+
+  public void setRefreshAhead(long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+  }
+
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    // a null value only releases the key, see TransactionalCache
+    delegate.putObject(key, value == null ? null : new Entry(value, expiration()));
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object object = delegate.getObject(key);
+    if (!(object instanceof Entry)) {
+      return object;
+    }
+    Entry entry = (Entry) object;
+    long now = System.currentTimeMillis();
+    if (now >= entry.expiresAt) {
+      // another reader may have replaced the entry meanwhile, keep the new one
+      if (delegate.getObject(key) == entry) {
+        delegate.removeObject(key);
+      }
+      return null;
+    }
+    if (refreshAhead > 0 && now >= entry.expiresAt - refreshAhead) {
+      long claimedAt = entry.refreshClaimedAt.get();
+      if ((claimedAt == 0 || now - claimedAt >= refreshAhead / 2) && entry.refreshClaimedAt.compareAndSet(claimedAt, now)) {
+        return null;
+      }
+    }
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object object = delegate.getObject(key);
+    if (object instanceof Entry) {
+      Entry entry = (Entry) object;
+      long claimedAt = entry.refreshClaimedAt.get();
+      if (claimedAt != 0 && System.currentTimeMillis() < entry.expiresAt && entry.refreshClaimedAt.compareAndSet(claimedAt, 0)) {
+        // the refresh was given up, keep the current value and let the next reader try
+        return null;
+      }
+    }
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private long expiration() {
+    long life = timeToLive;
+    if (jitter > 0) {
+      life -= (long) (timeToLive * jitter * random.nextDouble());
+    }
+    return System.currentTimeMillis() + life;
+  }
+
+  private static class Entry {
+    private final Object value;
+    private final long expiresAt;
+    // when a reader was asked to reload the entry, 0 if no reader was
+    private final AtomicLong refreshClaimedAt = new AtomicLong();
+
+    Entry(Object value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
@@ -20,13 +20,14 @@ import java.util.LinkedList;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
 
 /**
  * FIFO (first in, first out) cache decorator
  *
  * @author Clinton Begin
  */
-public class FifoCache implements Cache {
+public class FifoCache implements DelegatingCache {
 
   private final Cache delegate;
   private Deque<Object> keyList;
@@ -38,6 +39,11 @@ public class FifoCache implements Cache {
     this.size = 1024;
   }
 
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
   @Override
   public String getId() {
     return delegate.getId();
@@ -15,21 +15,29 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.locks.ReadWriteLock;
 
+import org.apache.ibatis.cache.BulkCache;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
 /**
  * @author Clinton Begin
  */
-public class LoggingCache implements Cache {
+public class LoggingCache implements BulkCache, ThreadSafeCache, DelegatingCache {
+
+  private static final AtomicIntegerFieldUpdater<LoggingCache> REQUESTS = AtomicIntegerFieldUpdater.newUpdater(LoggingCache.class, "requests");
+  private static final AtomicIntegerFieldUpdater<LoggingCache> HITS = AtomicIntegerFieldUpdater.newUpdater(LoggingCache.class, "hits");
 
   private Log log;  
   private Cache delegate;
-  protected int requests = 0;
-  protected int hits = 0;
+  protected volatile int requests = 0;
+  protected volatile int hits = 0;
 
   public LoggingCache(Cache delegate) {
     this.delegate = delegate;
@@ -51,12 +59,17 @@ public class LoggingCache implements Cache {
     delegate.putObject(key, object);
   }
 
+  @Override
+  public void putObjects(Map<Object, Object> entries) {
+    BulkPuts.putObjects(delegate, entries);
+  }
+
   @Override
   public Object getObject(Object key) {
-    requests++;
+    REQUESTS.incrementAndGet(this);
     final Object value = delegate.getObject(key);
     if (value != null) {
-      hits++;
+      HITS.incrementAndGet(this);
     }
     if (log.isDebugEnabled()) {
       log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
@@ -89,6 +102,11 @@ public class LoggingCache implements Cache {
     return delegate.equals(obj);
   }
 
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
   private double getHitRatio() {
     return (double) hits / (double) requests;
   }
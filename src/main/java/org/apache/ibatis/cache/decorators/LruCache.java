@@ -20,13 +20,14 @@ import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
 
 /**
  * Lru (least recently used) cache decorator
  *
  * @author Clinton Begin
  */
-public class LruCache implements Cache {
+public class LruCache implements DelegatingCache {
 
   private final Cache delegate;
   private Map<Object, Object> keyMap;
@@ -37,6 +38,11 @@ public class LruCache implements Cache {
     setSize(1024);
   }
 
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
   @Override
   public String getId() {
     return delegate.getId();
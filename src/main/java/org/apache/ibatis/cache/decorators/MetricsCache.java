@@ -0,0 +1,116 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.BulkCache;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
+
+/**
+ * Collects the {@link CacheMetrics} of a cache. Replaces {@link LoggingCache} when the {@code cacheMetricsEnabled}
+ * setting is on.
+ */
+public class MetricsCache implements ThreadSafeCache, BulkCache, DelegatingCache {
+
+  private final Cache delegate;
+  private final CacheMetrics metrics;
+
+  public MetricsCache(Cache delegate) {
+    this.delegate = delegate;
+    this.metrics = new CacheMetrics(delegate);
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    delegate.putObject(key, value);
+    // null values only release locks
+    if (value != null) {
+      metrics.recordPut();
+    }
+  }
+
+  @Override
+  public void putObjects(Map<Object, Object> entries) {
+    BulkPuts.putObjects(delegate, entries);
+    for (Object value : entries.values()) {
+      if (value != null) {
+        metrics.recordPut();
+      }
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object value = delegate.getObject(key);
+    if (value == null) {
+      metrics.recordMiss();
+    } else {
+      metrics.recordHit();
+    }
+    return value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    metrics.recordClear(delegate.getSize());
+    delegate.clear();
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+}
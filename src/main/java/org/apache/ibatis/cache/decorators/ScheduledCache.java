@@ -15,18 +15,23 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
 
 /**
  * @author Clinton Begin
  */
-public class ScheduledCache implements Cache {
+public class ScheduledCache implements ThreadSafeCache, DelegatingCache {
+
+  private static final AtomicLongFieldUpdater<ScheduledCache> LAST_CLEAR = AtomicLongFieldUpdater.newUpdater(ScheduledCache.class, "lastClear");
 
   private Cache delegate;
-  protected long clearInterval;
-  protected long lastClear;
+  protected volatile long clearInterval;
+  protected volatile long lastClear;
 
   public ScheduledCache(Cache delegate) {
     this.delegate = delegate;
@@ -38,6 +43,11 @@ public class ScheduledCache implements Cache {
     this.clearInterval = clearInterval;
   }
 
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
   @Override
   public String getId() {
     return delegate.getId();
@@ -88,8 +98,13 @@ public class ScheduledCache implements Cache {
   }
 
   private boolean clearWhenStale() {
-    if (System.currentTimeMillis() - lastClear > clearInterval) {
-      clear();
+    long last = lastClear;
+    long now = System.currentTimeMillis();
+    if (now - last > clearInterval) {
+      // only one of the threads that find the cache stale clears it
+      if (LAST_CLEAR.compareAndSet(this, last, now)) {
+        delegate.clear();
+      }
       return true;
     }
     return false;
@@ -15,29 +15,64 @@
  */
 package org.apache.ibatis.cache.decorators;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.ObjectStreamClass;
 import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
+import org.apache.ibatis.cache.BulkCache;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
+import org.apache.ibatis.cache.serializer.CacheSerializer;
+import org.apache.ibatis.cache.serializer.JdkCacheSerializer;
+import org.apache.ibatis.cache.serializer.ObjectCopier;
 import org.apache.ibatis.io.Resources;
 
 /**
+ * Stores a copy of the cached objects so callers never share instances.
+ *
+ * By default values are copied with java serialization. The {@code serializer} property accepts any
+ * {@link CacheSerializer} and {@code copyOnRead} keeps the objects themselves and deep copies them on every read
+ * instead.
+ *
  * @author Clinton Begin
  */
-public class SerializedCache implements Cache {
+public class SerializedCache implements ThreadSafeCache, BulkCache, DelegatingCache {
 
   private Cache delegate;
+  private CacheSerializer serializer;
+  private ObjectCopier copier;
 
   public SerializedCache(Cache delegate) {
+    this(delegate, new JdkCacheSerializer());
+  }
+
+  public SerializedCache(Cache delegate, CacheSerializer serializer) {
     this.delegate = delegate;
+    this.serializer = serializer;
+  }
+
+  public void setSerializer(String serializer) {
+    try {
+      this.serializer = (CacheSerializer) Resources.classForName(serializer).newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Error creating cache serializer '" + serializer + "'.  Cause: " + e, e);
+    }
+  }
+
+  public void setCopyOnRead(boolean copyOnRead) {
+    this.copier = copyOnRead ? new ObjectCopier() : null;
+  }
+
+  @Override
+  public Cache getDelegate() {
+    return delegate;
   }
 
   @Override
@@ -52,8 +87,21 @@ public class SerializedCache implements Cache {
 
   @Override
   public void putObject(Object key, Object object) {
+    delegate.putObject(key, copy(object));
+  }
+
+  @Override
+  public void putObjects(Map<Object, Object> entries) {
+    Map<Object, Object> copies = new LinkedHashMap<Object, Object>(entries.size() * 4 / 3 + 1);
+    for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+      copies.put(entry.getKey(), copy(entry.getValue()));
+    }
+    BulkPuts.putObjects(delegate, copies);
+  }
+
+  private Object copy(Object object) {
     if (object == null || object instanceof Serializable) {
-      delegate.putObject(key, serialize((Serializable) object));
+      return copier != null ? copier.copy(object) : serializer.serialize(object);
     } else {
       throw new CacheException("SharedCache failed to make a copy of a non-serializable object: " + object);
     }
@@ -62,7 +110,10 @@ public class SerializedCache implements Cache {
   @Override
   public Object getObject(Object key) {
     Object object = delegate.getObject(key);
-    return object == null ? null : deserialize((byte[]) object);
+    if (object == null) {
+      return null;
+    }
+    return copier != null ? copier.copy(object) : serializer.deserialize((byte[]) object);
   }
 
   @Override
@@ -90,32 +141,6 @@ public class SerializedCache implements Cache {
     return delegate.equals(obj);
   }
 
-  private byte[] serialize(Serializable value) {
-    try {
-      ByteArrayOutputStream bos = new ByteArrayOutputStream();
-      ObjectOutputStream oos = new ObjectOutputStream(bos);
-      oos.writeObject(value);
-      oos.flush();
-      oos.close();
-      return bos.toByteArray();
-    } catch (Exception e) {
-      throw new CacheException("Error serializing object.  Cause: " + e, e);
-    }
-  }
-
-  private Serializable deserialize(byte[] value) {
-    Serializable result;
-    try {
-      ByteArrayInputStream bis = new ByteArrayInputStream(value);
-      ObjectInputStream ois = new CustomObjectInputStream(bis);
-      result = (Serializable) ois.readObject();
-      ois.close();
-    } catch (Exception e) {
-      throw new CacheException("Error deserializing object.  Cause: " + e, e);
-    }
-    return result;
-  }
-
   public static class CustomObjectInputStream extends ObjectInputStream {
 
     public CustomObjectInputStream(InputStream in) throws IOException {
@@ -15,14 +15,18 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
+import org.apache.ibatis.cache.BulkCache;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
 
 /**
  * @author Clinton Begin
  */
-public class SynchronizedCache implements Cache {
+public class SynchronizedCache implements ThreadSafeCache, BulkCache, DelegatingCache {
 
   private Cache delegate;
   
@@ -30,6 +34,11 @@ public class SynchronizedCache implements Cache {
     this.delegate = delegate;
   }
 
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
   @Override
   public String getId() {
     return delegate.getId();
@@ -45,6 +54,11 @@ public class SynchronizedCache implements Cache {
     delegate.putObject(key, object);
   }
 
+  @Override
+  public synchronized void putObjects(Map<Object, Object> entries) {
+    BulkPuts.putObjects(delegate, entries);
+  }
+
   @Override
   public synchronized Object getObject(Object key) {
     return delegate.getObject(key);
@@ -0,0 +1,310 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.BulkCache;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
+
+/**
+ * W-TinyLFU (window TinyLFU) cache decorator.
+ *
+ * New entries go to a small LRU window. Entries leaving the window compete for a place in the main segmented LRU
+ * against its next victim and the one with the higher estimated access frequency (a count-min sketch that also
+ * remembers misses and evicted keys) is kept. This keeps frequently used keys when scans go through the cache.
+ *
+ * Reads do not take any lock: they are recorded in a lossy buffer that is replayed against the policy by whichever
+ * thread manages to get the eviction lock. Writes do take that lock, so the delegate should be thread safe
+ * (e.g. {@link org.apache.ibatis.cache.impl.ConcurrentCache}) or the chain will be synchronized by the builder.
+ */
+public class TinyLfuCache implements ThreadSafeCache, BulkCache, DelegatingCache {
+
+  private static final int READ_BUFFER_SIZE = 128;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+  private static final int READ_DRAIN_THRESHOLD = 32;
+
+  private final Cache delegate;
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final AtomicReferenceArray<Object> readBuffer = new AtomicReferenceArray<Object>(READ_BUFFER_SIZE);
+  private final AtomicLong readCount = new AtomicLong();
+
+  private int size;
+  private int windowSize;
+  private int protectedSize;
+  private FrequencySketch sketch;
+  private LinkedHashMap<Object, Object> window;
+  private LinkedHashMap<Object, Object> probation;
+  private LinkedHashMap<Object, Object> protectedSegment;
+
+  public TinyLfuCache(Cache delegate) {
+    this.delegate = delegate;
+    setSize(1024);
+  }
+
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  public void setSize(int size) {
+    evictionLock.lock();
+    try {
+      this.size = Math.max(size, 2);
+      this.windowSize = Math.max(1, this.size / 100);
+      this.protectedSize = (this.size - windowSize) * 8 / 10;
+      this.sketch = new FrequencySketch(this.size);
+      this.window = new LinkedHashMap<Object, Object>(16, .75F, true);
+      this.probation = new LinkedHashMap<Object, Object>(16, .75F, true);
+      this.protectedSegment = new LinkedHashMap<Object, Object>(16, .75F, true);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      if (!onAccess(key)) {
+        onInsert(key);
+      }
+      delegate.putObject(key, value);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putObjects(Map<Object, Object> entries) {
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+        if (!onAccess(entry.getKey())) {
+          onInsert(entry.getKey());
+        }
+        delegate.putObject(entry.getKey(), entry.getValue());
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object value = delegate.getObject(key);
+    long count = readCount.getAndIncrement();
+    readBuffer.lazySet((int) (count & READ_BUFFER_MASK), key);
+    if ((count + 1) % READ_DRAIN_THRESHOLD == 0 && evictionLock.tryLock()) {
+      try {
+        drainReadBuffer();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    evictionLock.lock();
+    try {
+      if (window.remove(key) == null && probation.remove(key) == null) {
+        protectedSegment.remove(key);
+      }
+      return delegate.removeObject(key);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+        readBuffer.lazySet(i, null);
+      }
+      window.clear();
+      probation.clear();
+      protectedSegment.clear();
+      delegate.clear();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  private void drainReadBuffer() {
+    for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+      Object key = readBuffer.getAndSet(i, null);
+      if (key != null) {
+        sketch.increment(key);
+        onAccess(key);
+      }
+    }
+  }
+
+  /**
+   * Moves an already tracked key to the most recently used position of its segment, promoting it from probation to
+   * protected.
+   *
+   * @return false if the key is not tracked by the policy
+   */
+  private boolean onAccess(Object key) {
+    if (window.get(key) != null || protectedSegment.get(key) != null) {
+      return true;
+    }
+    if (probation.remove(key) == null) {
+      return false;
+    }
+    protectedSegment.put(key, key);
+    if (protectedSegment.size() > protectedSize) {
+      Object demoted = eldest(protectedSegment);
+      protectedSegment.remove(demoted);
+      probation.put(demoted, demoted);
+    }
+    return true;
+  }
+
+  private void onInsert(Object key) {
+    sketch.increment(key);
+    window.put(key, key);
+    if (window.size() <= windowSize) {
+      return;
+    }
+    Object candidate = eldest(window);
+    window.remove(candidate);
+    if (probation.size() + protectedSegment.size() < size - windowSize) {
+      probation.put(candidate, candidate);
+      return;
+    }
+    LinkedHashMap<Object, Object> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+    Object victim = eldest(victimSegment);
+    if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+      victimSegment.remove(victim);
+      delegate.removeObject(victim);
+      probation.put(candidate, candidate);
+    } else {
+      delegate.removeObject(candidate);
+    }
+  }
+
+  private static Object eldest(LinkedHashMap<Object, Object> segment) {
+    Iterator<Object> iterator = segment.keySet().iterator();
+    return iterator.next();
+  }
+
+  /**
+   * Count-min sketch of 4-bit counters, 16 of them packed in each long. Counters are halved once the number of
+   * increments reaches ten times the cache size so that old popularity fades away.
+   */
+  private static class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+      int length = Integer.highestOneBit(Math.max(maximumSize, 16) - 1) << 1;
+      this.table = new long[length];
+      this.tableMask = length - 1;
+      this.sampleSize = 10 * maximumSize;
+    }
+
+    int frequency(Object key) {
+      int hash = spread(key.hashCode());
+      int frequency = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+        int index = indexOf(hash, i);
+        int offset = counterOffset(hash, i);
+        frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xfL));
+      }
+      return frequency;
+    }
+
+    void increment(Object key) {
+      int hash = spread(key.hashCode());
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        int index = indexOf(hash, i);
+        int offset = counterOffset(hash, i);
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+          table[index] += 1L << offset;
+          added = true;
+        }
+      }
+      if (added && ++additions == sampleSize) {
+        reset();
+      }
+    }
+
+    private void reset() {
+      for (int i = 0; i < table.length; i++) {
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      additions /= 2;
+    }
+
+    private int indexOf(int hash, int i) {
+      long h = (hash + SEEDS[i]) * SEEDS[i];
+      h += h >>> 32;
+      return ((int) h) & tableMask;
+    }
+
+    private int counterOffset(int hash, int i) {
+      // each hash function uses a different one of the 16 counters of the slot
+      return (((hash >>> (i << 3)) & 3) + (i << 2)) << 2;
+    }
+
+    private static int spread(int hash) {
+      hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+      hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+      return (hash >>> 16) ^ hash;
+    }
+  }
+
+}
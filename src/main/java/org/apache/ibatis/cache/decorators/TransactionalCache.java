@@ -16,12 +16,12 @@
 package org.apache.ibatis.cache.decorators;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.MissReleasingCache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -32,6 +32,14 @@ import org.apache.ibatis.logging.LogFactory;
  * Entries are sent to the cache when commit is called or discarded if the Session is rolled back. 
  * Blocking cache support has been added. Therefore any get() that returns a cache miss 
  * will be followed by a put() so any lock associated with the key can be released. 
+ *
+ * Misses are tracked in the same map that stages the entries. Tracking is only skipped when the delegate chain
+ * is made entirely of MyBatis caches, followed through {@link DelegatingCache}, and none of them is a
+ * {@link MissReleasingCache} such as {@link BlockingCache}. Custom caches may hold locks for misses the way
+ * {@link BlockingCache} does, so they always get the put or remove of their missed keys. At most {@code maxStagedEntries} entries are
+ * staged; further entries of the Session are not cached at all, so nothing reaches the delegate before commit.
+ * On commit the staged entries are sent in one {@link org.apache.ibatis.cache.BulkCache#putObjects(Map)}
+ * call when the delegate supports it.
  * 
  * @author Clinton Begin
  * @author Eduardo Macarron
@@ -40,16 +48,27 @@ public class TransactionalCache implements Cache {
 
   private static final Log log = LogFactory.getLog(TransactionalCache.class);
 
-  private Cache delegate;
+  public static final int DEFAULT_MAX_STAGED_ENTRIES = 1024;
+
+  // staged value of a key that was missed but not put yet
+  private static final Object MISSED = new Object();
+
+  private final Cache delegate;
+  private final boolean trackMisses;
+  private final int maxStagedEntries;
   private boolean clearOnCommit;
-  private Map<Object, Object> entriesToAddOnCommit;
-  private Set<Object> entriesMissedInCache;
+  private Map<Object, Object> stagedEntries;
+  private int stagedValues;
 
   public TransactionalCache(Cache delegate) {
+    this(delegate, DEFAULT_MAX_STAGED_ENTRIES);
+  }
+
+  public TransactionalCache(Cache delegate, int maxStagedEntries) {
     this.delegate = delegate;
+    this.trackMisses = isMissTrackingRequired(delegate);
+    this.maxStagedEntries = maxStagedEntries;
     this.clearOnCommit = false;
-    this.entriesToAddOnCommit = new HashMap<Object, Object>();
-    this.entriesMissedInCache = new HashSet<Object>();
   }
 
   @Override
@@ -66,9 +85,12 @@ public class TransactionalCache implements Cache {
   public Object getObject(Object key) {
     // 此处实际调用的是默认实现PerpetualCache的getObject方法
     Object object = delegate.getObject(key);
-    if (object == null) {
+    if (object == null && trackMisses) {
       //此处是将缓存缓存的key放入缓存队列中，并没有直接放入二级缓存，只有调用commit方法才会将队列中的key依次放入二级缓存
-      entriesMissedInCache.add(key);
+      Object previous = stagedEntries().put(key, MISSED);
+      if (previous != null && previous != MISSED) {
+        stagedValues--;
+      }
     }
     // issue #146
     if (clearOnCommit) {
@@ -85,7 +107,15 @@ public class TransactionalCache implements Cache {
 
   @Override
   public void putObject(Object key, Object object) {
-    entriesToAddOnCommit.put(key, object);
+    Map<Object, Object> entries = stagedEntries();
+    Object previous = entries.get(key);
+    if (previous != null && previous != MISSED) {
+      entries.put(key, object);
+    } else if (stagedValues < maxStagedEntries) {
+      entries.put(key, object);
+      stagedValues++;
+    }
+    // else the staging is full, the entry is not cached and a missed key stays staged to be released on commit
   }
 
   @Override
@@ -96,7 +126,17 @@ public class TransactionalCache implements Cache {
   @Override
   public void clear() {
     clearOnCommit = true;
-    entriesToAddOnCommit.clear();
+    if (stagedEntries != null) {
+      if (trackMisses) {
+        // keep the keys so their locks are released on commit
+        for (Map.Entry<Object, Object> entry : stagedEntries.entrySet()) {
+          entry.setValue(MISSED);
+        }
+      } else {
+        stagedEntries.clear();
+      }
+    }
+    stagedValues = 0;
   }
 
   public void commit() {
@@ -114,23 +154,36 @@ public class TransactionalCache implements Cache {
 
   private void reset() {
     clearOnCommit = false;
-    entriesToAddOnCommit.clear();
-    entriesMissedInCache.clear();
+    stagedEntries = null;
+    stagedValues = 0;
+  }
+
+  private Map<Object, Object> stagedEntries() {
+    if (stagedEntries == null) {
+      stagedEntries = new HashMap<Object, Object>();
+    }
+    return stagedEntries;
   }
 
   private void flushPendingEntries() {
-    for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-      delegate.putObject(entry.getKey(), entry.getValue());
+    if (stagedEntries == null || stagedEntries.isEmpty()) {
+      return;
     }
-    for (Object entry : entriesMissedInCache) {
-      if (!entriesToAddOnCommit.containsKey(entry)) {
-        delegate.putObject(entry, null);
+    if (trackMisses) {
+      for (Map.Entry<Object, Object> entry : stagedEntries.entrySet()) {
+        if (entry.getValue() == MISSED) {
+          entry.setValue(null);
+        }
       }
     }
+    BulkPuts.putObjects(delegate, stagedEntries);
   }
 
   private void unlockMissedEntries() {
-    for (Object entry : entriesMissedInCache) {
+    if (!trackMisses || stagedEntries == null) {
+      return;
+    }
+    for (Object entry : stagedEntries.keySet()) {
       try {
         delegate.removeObject(entry);
       } catch (Exception e) {
@@ -140,4 +193,15 @@ public class TransactionalCache implements Cache {
     }
   }
 
+  private static boolean isMissTrackingRequired(Cache cache) {
+    while (cache != null) {
+      // custom caches may hold locks for misses like BlockingCache does
+      if (cache instanceof MissReleasingCache || !cache.getClass().getName().startsWith("org.apache.ibatis.cache.")) {
+        return true;
+      }
+      cache = cache instanceof DelegatingCache ? ((DelegatingCache) cache).getDelegate() : null;
+    }
+    return false;
+  }
+
 }
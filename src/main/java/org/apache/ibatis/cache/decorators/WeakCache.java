@@ -22,6 +22,7 @@ import java.util.LinkedList;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.DelegatingCache;
 
 /**
  * Weak Reference cache decorator.
@@ -29,7 +30,7 @@ import org.apache.ibatis.cache.Cache;
  * 
  * @author Clinton Begin
  */
-public class WeakCache implements Cache {
+public class WeakCache implements DelegatingCache {
   private final Deque<Object> hardLinksToAvoidGarbageCollection;
   private final ReferenceQueue<Object> queueOfGarbageCollectedEntries;
   private final Cache delegate;
@@ -42,6 +43,11 @@ public class WeakCache implements Cache {
     this.queueOfGarbageCollectedEntries = new ReferenceQueue<Object>();
   }
 
+  @Override
+  public Cache getDelegate() {
+    return delegate;
+  }
+
   @Override
   public String getId() {
     return delegate.getId();
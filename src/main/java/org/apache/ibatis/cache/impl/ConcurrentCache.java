@@ -0,0 +1,192 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.ThreadSafeCache;
+
+/**
+ * Size bounded cache that can be read and written by many threads without a global lock.
+ *
+ * Entries are kept in a {@link ConcurrentHashMap} and evicted with a CLOCK (second chance) policy, an
+ * approximation of LRU that only flips a flag on reads. Since it bounds its own size it is not decorated with an
+ * eviction decorator nor with a {@link org.apache.ibatis.cache.decorators.SynchronizedCache}.
+ *
+ * Removed entries are only marked as such and skipped when the clock reaches them, so a removal does not scan the
+ * clock. The clock is purged of them once they outnumber the size of the cache.
+ */
+public class ConcurrentCache implements ThreadSafeCache {
+
+  private static final int MIN_PURGE_THRESHOLD = 64;
+
+  private final String id;
+
+  private final ConcurrentHashMap<Object, Entry> cache = new ConcurrentHashMap<Object, Entry>();
+  private final ConcurrentLinkedQueue<Entry> clock = new ConcurrentLinkedQueue<Entry>();
+  private final AtomicInteger count = new AtomicInteger();
+  // approximate number of removed entries still in the clock
+  private final AtomicInteger removedEntries = new AtomicInteger();
+  private volatile int size = 1024;
+
+  public ConcurrentCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return cache.size();
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+    evictWhenFull();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    Entry entry = cache.get(key);
+    if (entry == null) {
+      entry = new Entry(key, value);
+      Entry previous = cache.putIfAbsent(key, entry);
+      if (previous == null) {
+        clock.offer(entry);
+        count.incrementAndGet();
+        evictWhenFull();
+        return;
+      }
+      entry = previous;
+    }
+    entry.value = value;
+    entry.referenced = true;
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Entry entry = cache.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (!entry.referenced) {
+      entry.referenced = true;
+    }
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Entry entry = cache.remove(key);
+    if (entry == null) {
+      return null;
+    }
+    entry.removed = true;
+    count.decrementAndGet();
+    if (removedEntries.incrementAndGet() > Math.max(size, MIN_PURGE_THRESHOLD)) {
+      purgeRemovedEntries();
+    }
+    return entry.value;
+  }
+
+  @Override
+  public void clear() {
+    cache.clear();
+    clock.clear();
+    count.set(0);
+    removedEntries.set(0);
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  private void evictWhenFull() {
+    int secondChances = 0;
+    while (count.get() > size) {
+      Entry candidate = clock.poll();
+      if (candidate == null) {
+        // raced with a clear, resync the counter with the real content
+        count.set(cache.size());
+        return;
+      }
+      if (candidate.removed) {
+        removedEntries.decrementAndGet();
+      } else if (candidate.referenced && secondChances++ < size) {
+        candidate.referenced = false;
+        clock.offer(candidate);
+      } else if (cache.remove(candidate.key, candidate)) {
+        count.decrementAndGet();
+      }
+    }
+  }
+
+  private void purgeRemovedEntries() {
+    removedEntries.set(0);
+    for (Iterator<Entry> iterator = clock.iterator(); iterator.hasNext();) {
+      if (iterator.next().removed) {
+        iterator.remove();
+      }
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static class Entry {
+    private final Object key;
+    private volatile Object value;
+    private volatile boolean referenced;
+    private volatile boolean removed;
+
+    Entry(Object key, Object value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+}
@@ -0,0 +1,331 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.ThreadSafeCache;
+import org.apache.ibatis.cache.serializer.CacheSerializer;
+import org.apache.ibatis.cache.serializer.JdkCacheSerializer;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * Cache that keeps serialized values out of the java heap, in direct buffers or in a memory mapped file.
+ *
+ * The memory budget ({@code maxBytes}) is split in {@code segments} that are written one after the other like a
+ * log. When the last free segment is full the oldest one is recycled and all the entries it holds are evicted.
+ * Only the keys stay in the heap. Values are written with the {@code serializer}, java serialization by default, and
+ * copied on every read, so this cache is always read/write.
+ *
+ * <pre>
+ * &lt;cache type="OFFHEAP"&gt;
+ *   &lt;property name="maxBytes" value="268435456"/&gt;
+ *   &lt;property name="file" value="/var/cache/app/lookups.bin"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ */
+public class OffHeapCache implements ThreadSafeCache, InitializingObject {
+
+  private final String id;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Object, Slot> slots = new HashMap<Object, Slot>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  private long maxBytes = 64L * 1024 * 1024;
+  private int segmentCount = 16;
+  private String file;
+  private CacheSerializer serializer = new JdkCacheSerializer();
+
+  private int segmentSize;
+  private ByteBuffer[] segments;
+  private List<List<Object>> segmentKeys;
+  private int currentSegment;
+  private int writeOffset;
+  private long bytesUsed;
+  private long evictions;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public void initialize() throws Exception {
+    if (segmentCount <= 0 || maxBytes / segmentCount <= 0 || maxBytes / segmentCount > Integer.MAX_VALUE) {
+      throw new CacheException("Invalid off heap cache budget of " + maxBytes + " bytes in " + segmentCount + " segments");
+    }
+    segmentSize = (int) (maxBytes / segmentCount);
+    segments = new ByteBuffer[segmentCount];
+    segmentKeys = new ArrayList<List<Object>>(segmentCount);
+    if (file == null) {
+      for (int i = 0; i < segmentCount; i++) {
+        segments[i] = ByteBuffer.allocateDirect(segmentSize);
+      }
+    } else {
+      RandomAccessFile mappedFile = new RandomAccessFile(new File(file), "rw");
+      try {
+        mappedFile.setLength((long) segmentSize * segmentCount);
+        FileChannel channel = mappedFile.getChannel();
+        for (int i = 0; i < segmentCount; i++) {
+          segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) segmentSize * i, segmentSize);
+        }
+      } finally {
+        // mappings stay valid once the channel is closed
+        mappedFile.close();
+      }
+    }
+    for (int i = 0; i < segmentCount; i++) {
+      segmentKeys.add(new ArrayList<Object>());
+    }
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    lock.readLock().lock();
+    try {
+      return slots.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value == null) {
+      removeObject(key);
+      return;
+    }
+    if (!(value instanceof Serializable)) {
+      throw new CacheException("OffHeapCache failed to store a non-serializable object: " + value);
+    }
+    byte[] bytes = serializer.serialize(value);
+    lock.writeLock().lock();
+    try {
+      ensureInitialized();
+      if (bytes.length > segmentSize) {
+        // too big for a segment, forget any older value
+        release(slots.remove(key));
+        return;
+      }
+      if (writeOffset + bytes.length > segmentSize) {
+        currentSegment = (currentSegment + 1) % segments.length;
+        recycle(currentSegment);
+        writeOffset = 0;
+      }
+      ByteBuffer buffer = segments[currentSegment].duplicate();
+      buffer.position(writeOffset);
+      buffer.put(bytes);
+      release(slots.put(key, new Slot(currentSegment, writeOffset, bytes.length)));
+      segmentKeys.get(currentSegment).add(key);
+      writeOffset += bytes.length;
+      bytesUsed += bytes.length;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    byte[] bytes;
+    lock.readLock().lock();
+    try {
+      Slot slot = slots.get(key);
+      if (slot == null) {
+        misses.incrementAndGet();
+        return null;
+      }
+      bytes = new byte[slot.length];
+      ByteBuffer buffer = segments[slot.segment].duplicate();
+      buffer.position(slot.offset);
+      buffer.get(bytes);
+    } finally {
+      lock.readLock().unlock();
+    }
+    hits.incrementAndGet();
+    return serializer.deserialize(bytes);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    lock.writeLock().lock();
+    try {
+      release(slots.remove(key));
+      return null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      slots.clear();
+      if (segmentKeys != null) {
+        for (List<Object> keys : segmentKeys) {
+          keys.clear();
+        }
+      }
+      currentSegment = 0;
+      writeOffset = 0;
+      bytesUsed = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  public void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public void setSegments(int segments) {
+    this.segmentCount = segments;
+  }
+
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  public void setSerializer(String serializer) {
+    try {
+      this.serializer = (CacheSerializer) Resources.classForName(serializer).newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Error creating cache serializer '" + serializer + "'.  Cause: " + e, e);
+    }
+  }
+
+  /**
+   * @return bytes taken by the values currently in the cache
+   */
+  public long getBytesUsed() {
+    lock.readLock().lock();
+    try {
+      return bytesUsed;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    lock.readLock().lock();
+    try {
+      return evictions;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void ensureInitialized() {
+    if (segments == null) {
+      try {
+        initialize();
+      } catch (Exception e) {
+        throw new CacheException("Error allocating off heap cache " + id + ".  Cause: " + e, e);
+      }
+    }
+  }
+
+  private void recycle(int segment) {
+    for (Object key : segmentKeys.get(segment)) {
+      Slot slot = slots.get(key);
+      if (slot != null && slot.segment == segment) {
+        slots.remove(key);
+        bytesUsed -= slot.length;
+        evictions++;
+      }
+    }
+    segmentKeys.get(segment).clear();
+  }
+
+  private void release(Slot slot) {
+    if (slot != null) {
+      bytesUsed -= slot.length;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static class Slot {
+    private final int segment;
+    private final int offset;
+    private final int length;
+
+    Slot(int segment, int offset, int length) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+}
@@ -0,0 +1,175 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * Per class list of the properties that are copied by {@link ReflectorCacheSerializer} and {@link ObjectCopier}.
+ *
+ * Only plain beans are supported: serializable, with a default constructor and no custom serialization hooks.
+ * Any other class gets no metadata and is handled by java serialization.
+ */
+final class BeanMetadata {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private static final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+  private static final ConcurrentMap<Class<?>, BeanMetadata> metadata = new ConcurrentHashMap<Class<?>, BeanMetadata>();
+  private static final BeanMetadata UNSUPPORTED = new BeanMetadata(new String[0], new Invoker[0], new Invoker[0]);
+
+  private static final List<Class<?>> IMMUTABLE_TYPES = Arrays.<Class<?>>asList(String.class, Boolean.class,
+      Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+      BigDecimal.class, BigInteger.class, Class.class);
+  private static final List<Class<?>> COLLECTION_TYPES = Arrays.<Class<?>>asList(ArrayList.class, LinkedList.class,
+      HashSet.class, LinkedHashSet.class);
+  private static final List<Class<?>> MAP_TYPES = Arrays.<Class<?>>asList(HashMap.class, LinkedHashMap.class);
+
+  private final String[] names;
+  private final Invoker[] getters;
+  private final Invoker[] setters;
+
+  private BeanMetadata(String[] names, Invoker[] getters, Invoker[] setters) {
+    this.names = names;
+    this.getters = getters;
+    this.setters = setters;
+  }
+
+  /**
+   * @return the metadata of the class or null if it is not a plain bean
+   */
+  static BeanMetadata forClass(Class<?> type) {
+    BeanMetadata bean = metadata.get(type);
+    if (bean == null) {
+      bean = isPlainBean(type) ? build(reflectorFactory.findForClass(type)) : UNSUPPORTED;
+      metadata.putIfAbsent(type, bean);
+    }
+    return bean == UNSUPPORTED ? null : bean;
+  }
+
+  static boolean isImmutable(Class<?> type) {
+    return IMMUTABLE_TYPES.contains(type) || type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum());
+  }
+
+  static boolean isSupportedCollection(Class<?> type) {
+    return COLLECTION_TYPES.contains(type);
+  }
+
+  static boolean isSupportedMap(Class<?> type) {
+    return MAP_TYPES.contains(type);
+  }
+
+  int size() {
+    return names.length;
+  }
+
+  Object get(Object bean, int property) {
+    try {
+      return getters[property].invoke(bean, NO_ARGUMENTS);
+    } catch (Exception e) {
+      throw new CacheException("Could not read property '" + names[property] + "' of " + bean.getClass() + ".  Cause: " + e, e);
+    }
+  }
+
+  void set(Object bean, int property, Object value) {
+    try {
+      setters[property].invoke(bean, new Object[] { value });
+    } catch (Exception e) {
+      throw new CacheException("Could not set property '" + names[property] + "' of " + bean.getClass() + ".  Cause: " + e, e);
+    }
+  }
+
+  private static BeanMetadata build(Reflector reflector) {
+    List<String> names = new ArrayList<String>();
+    for (String name : reflector.getGetablePropertyNames()) {
+      if (reflector.hasSetter(name) && !isStaticOrTransient(reflector.getType(), name)) {
+        names.add(name);
+      }
+    }
+    String[] sorted = names.toArray(new String[names.size()]);
+    // the order of the properties is part of the serialized form
+    Arrays.sort(sorted);
+    Invoker[] getters = new Invoker[sorted.length];
+    Invoker[] setters = new Invoker[sorted.length];
+    for (int i = 0; i < sorted.length; i++) {
+      getters[i] = reflector.getGetInvoker(sorted[i]);
+      setters[i] = reflector.getSetInvoker(sorted[i]);
+    }
+    return new BeanMetadata(sorted, getters, setters);
+  }
+
+  private static boolean isPlainBean(Class<?> type) {
+    if (type.isArray() || type.isPrimitive() || type.isInterface() || Modifier.isAbstract(type.getModifiers())
+        || !Serializable.class.isAssignableFrom(type) || Externalizable.class.isAssignableFrom(type)
+        || WriteReplaceInterface.class.isAssignableFrom(type)) {
+      return false;
+    }
+    String name = type.getName();
+    if (name.startsWith("java.") || name.startsWith("javax.")) {
+      return false;
+    }
+    for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Method method : c.getDeclaredMethods()) {
+        String methodName = method.getName();
+        if ("writeObject".equals(methodName) || "readObject".equals(methodName)
+            || "writeReplace".equals(methodName) || "readResolve".equals(methodName)) {
+          return false;
+        }
+      }
+    }
+    try {
+      return reflectorFactory.findForClass(type).hasDefaultConstructor();
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  private static boolean isStaticOrTransient(Class<?> type, String property) {
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (field.getName().equals(property)) {
+          int modifiers = field.getModifiers();
+          return Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers);
+        }
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,30 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+/**
+ * Turns cached values into bytes and back.
+ *
+ * Implementations must be thread safe and must have a no-arg constructor to be usable from the
+ * {@code serializer} property of a cache.
+ */
+public interface CacheSerializer {
+
+  byte[] serialize(Object value);
+
+  Object deserialize(byte[] bytes);
+
+}
@@ -0,0 +1,71 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+
+/**
+ * Standard java serialization. This is the default serializer, it supports any {@link java.io.Serializable} graph.
+ */
+public class JdkCacheSerializer implements CacheSerializer {
+
+  private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+  private static final ThreadLocal<ByteArrayOutputStream> BUFFER = new ThreadLocal<ByteArrayOutputStream>() {
+    @Override
+    protected ByteArrayOutputStream initialValue() {
+      return new ByteArrayOutputStream(512);
+    }
+  };
+
+  @Override
+  public byte[] serialize(Object value) {
+    ByteArrayOutputStream bos = BUFFER.get();
+    bos.reset();
+    try {
+      ObjectOutputStream oos = new ObjectOutputStream(bos);
+      oos.writeObject(value);
+      oos.flush();
+      oos.close();
+      return bos.toByteArray();
+    } catch (Exception e) {
+      throw new CacheException("Error serializing object.  Cause: " + e, e);
+    } finally {
+      if (bos.size() > MAX_RETAINED_BUFFER) {
+        BUFFER.remove();
+      }
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    try {
+      ObjectInputStream ois = new SerializedCache.CustomObjectInputStream(new ByteArrayInputStream(bytes));
+      Object result = ois.readObject();
+      ois.close();
+      return result;
+    } catch (Exception e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+}
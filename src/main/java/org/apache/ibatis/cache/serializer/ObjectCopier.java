@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+
+/**
+ * Deep copies result objects without going through a byte stream.
+ *
+ * Supports the same types as {@link ReflectorCacheSerializer}: immutable values are shared, plain beans, arrays
+ * and the common collections are copied property by property and any other object is copied with java
+ * serialization. Shared references and cycles are preserved.
+ */
+public class ObjectCopier {
+
+  private final ObjectFactory objectFactory;
+  private final CacheSerializer fallback = new JdkCacheSerializer();
+
+  public ObjectCopier() {
+    this(new DefaultObjectFactory());
+  }
+
+  public ObjectCopier(ObjectFactory objectFactory) {
+    this.objectFactory = objectFactory;
+  }
+
+  public Object copy(Object value) {
+    return copy(value, new IdentityHashMap<Object, Object>());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object copy(Object value, Map<Object, Object> copies) {
+    if (value == null) {
+      return null;
+    }
+    Class<?> type = value.getClass();
+    if (BeanMetadata.isImmutable(type)) {
+      return value;
+    }
+    Object copy = copies.get(value);
+    if (copy != null) {
+      return copy;
+    }
+    BeanMetadata bean;
+    if (value instanceof Date) {
+      copy = ((Date) value).clone();
+      copies.put(value, copy);
+    } else if (type.isArray()) {
+      int length = Array.getLength(value);
+      copy = Array.newInstance(type.getComponentType(), length);
+      copies.put(value, copy);
+      for (int i = 0; i < length; i++) {
+        Array.set(copy, i, copy(Array.get(value, i), copies));
+      }
+    } else if (BeanMetadata.isSupportedCollection(type)) {
+      Collection<Object> collection = (Collection<Object>) objectFactory.create(type);
+      copies.put(value, collection);
+      for (Object element : (Collection<?>) value) {
+        collection.add(copy(element, copies));
+      }
+      copy = collection;
+    } else if (BeanMetadata.isSupportedMap(type)) {
+      Map<Object, Object> map = (Map<Object, Object>) objectFactory.create(type);
+      copies.put(value, map);
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        map.put(copy(entry.getKey(), copies), copy(entry.getValue(), copies));
+      }
+      copy = map;
+    } else if ((bean = BeanMetadata.forClass(type)) != null) {
+      copy = objectFactory.create(type);
+      copies.put(value, copy);
+      for (int i = 0; i < bean.size(); i++) {
+        bean.set(copy, i, copy(bean.get(value, i), copies));
+      }
+    } else {
+      copy = fallback.deserialize(fallback.serialize(value));
+      copies.put(value, copy);
+    }
+    return copy;
+  }
+
+}
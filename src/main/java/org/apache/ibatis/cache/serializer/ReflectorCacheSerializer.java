@@ -0,0 +1,450 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+
+/**
+ * Compact serializer for result objects.
+ *
+ * Plain beans are written property by property using the cached {@link org.apache.ibatis.reflection.Reflector}
+ * metadata, so there is no class descriptor in the stream and no reflection lookup per value. Strings, numbers,
+ * dates, enums, arrays and the common {@link java.util} collections and maps have their own compact encoding,
+ * with variable length integers. Shared references, including repeated strings, and cycles are preserved.
+ * Any other object is written with java serialization.
+ *
+ * The format is not meant to be stored: it depends on the properties of the classes in the current class path.
+ */
+public class ReflectorCacheSerializer implements CacheSerializer {
+
+  private static final byte NULL = 0;
+  private static final byte REFERENCE = 1;
+  private static final byte STRING = 2;
+  private static final byte BOOLEAN = 3;
+  private static final byte BYTE = 4;
+  private static final byte SHORT = 5;
+  private static final byte CHAR = 6;
+  private static final byte INT = 7;
+  private static final byte LONG = 8;
+  private static final byte FLOAT = 9;
+  private static final byte DOUBLE = 10;
+  private static final byte BIG_DECIMAL = 11;
+  private static final byte BIG_INTEGER = 12;
+  private static final byte DATE = 13;
+  private static final byte SQL_DATE = 14;
+  private static final byte SQL_TIME = 15;
+  private static final byte SQL_TIMESTAMP = 16;
+  private static final byte ENUM = 17;
+  private static final byte BYTES = 18;
+  private static final byte ARRAY = 19;
+  private static final byte COLLECTION = 20;
+  private static final byte MAP = 21;
+  private static final byte BEAN = 22;
+  private static final byte JAVA = 23;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+  private static final Map<String, Class<?>> PRIMITIVES = new HashMap<String, Class<?>>();
+
+  static {
+    for (Class<?> type : new Class<?>[] { boolean.class, byte.class, short.class, char.class, int.class, long.class,
+        float.class, double.class }) {
+      PRIMITIVES.put(type.getName(), type);
+    }
+  }
+
+  private static final ThreadLocal<ByteArrayOutputStream> BUFFER = new ThreadLocal<ByteArrayOutputStream>() {
+    @Override
+    protected ByteArrayOutputStream initialValue() {
+      return new ByteArrayOutputStream(512);
+    }
+  };
+
+  private final ConcurrentMap<String, Class<?>> classes = new ConcurrentHashMap<String, Class<?>>();
+  private final ObjectFactory objectFactory = new DefaultObjectFactory();
+  private final CacheSerializer fallback = new JdkCacheSerializer();
+
+  @Override
+  public byte[] serialize(Object value) {
+    ByteArrayOutputStream bos = BUFFER.get();
+    bos.reset();
+    try {
+      new Writer(new DataOutputStream(bos)).write(value);
+      return bos.toByteArray();
+    } catch (IOException e) {
+      throw new CacheException("Error serializing object.  Cause: " + e, e);
+    } finally {
+      if (bos.size() > MAX_RETAINED_BUFFER) {
+        BUFFER.remove();
+      }
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    try {
+      return new Reader(new DataInputStream(new ByteArrayInputStream(bytes))).read();
+    } catch (IOException e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  private Class<?> resolveClass(String name) {
+    Class<?> type = classes.get(name);
+    if (type == null) {
+      type = PRIMITIVES.get(name);
+      if (type == null) {
+        try {
+          type = Resources.classForName(name);
+        } catch (ClassNotFoundException e) {
+          throw new CacheException("Error deserializing object.  Cause: " + e, e);
+        }
+      }
+      classes.putIfAbsent(name, type);
+    }
+    return type;
+  }
+
+  private class Writer {
+
+    private final DataOutputStream out;
+    private final Map<Object, Integer> handles = new IdentityHashMap<Object, Integer>();
+    private final Map<Class<?>, Integer> classIds = new HashMap<Class<?>, Integer>();
+
+    Writer(DataOutputStream out) {
+      this.out = out;
+    }
+
+    void write(Object value) throws IOException {
+      if (value == null) {
+        out.writeByte(NULL);
+        return;
+      }
+      Class<?> type = value.getClass();
+      if (type == Integer.class) {
+        out.writeByte(INT);
+        writeVarLong((Integer) value);
+      } else if (type == Long.class) {
+        out.writeByte(LONG);
+        writeVarLong((Long) value);
+      } else if (type == Boolean.class) {
+        out.writeByte(BOOLEAN);
+        out.writeBoolean((Boolean) value);
+      } else if (type == Double.class) {
+        out.writeByte(DOUBLE);
+        out.writeDouble((Double) value);
+      } else if (type == Float.class) {
+        out.writeByte(FLOAT);
+        out.writeFloat((Float) value);
+      } else if (type == Short.class) {
+        out.writeByte(SHORT);
+        out.writeShort((Short) value);
+      } else if (type == Byte.class) {
+        out.writeByte(BYTE);
+        out.writeByte((Byte) value);
+      } else if (type == Character.class) {
+        out.writeByte(CHAR);
+        out.writeChar((Character) value);
+      } else if (type == BigDecimal.class) {
+        out.writeByte(BIG_DECIMAL);
+        writeString(value.toString());
+      } else if (type == BigInteger.class) {
+        out.writeByte(BIG_INTEGER);
+        writeBytes(((BigInteger) value).toByteArray());
+      } else if (type == Date.class) {
+        out.writeByte(DATE);
+        out.writeLong(((Date) value).getTime());
+      } else if (type == java.sql.Date.class) {
+        out.writeByte(SQL_DATE);
+        out.writeLong(((Date) value).getTime());
+      } else if (type == Time.class) {
+        out.writeByte(SQL_TIME);
+        out.writeLong(((Date) value).getTime());
+      } else if (type == Timestamp.class) {
+        out.writeByte(SQL_TIMESTAMP);
+        out.writeLong(((Timestamp) value).getTime());
+        out.writeInt(((Timestamp) value).getNanos());
+      } else if (value instanceof Enum) {
+        out.writeByte(ENUM);
+        writeClass(((Enum<?>) value).getDeclaringClass());
+        writeString(((Enum<?>) value).name());
+      } else if (type == byte[].class) {
+        out.writeByte(BYTES);
+        writeBytes((byte[]) value);
+      } else {
+        writeReference(value, type);
+      }
+    }
+
+    private void writeReference(Object value, Class<?> type) throws IOException {
+      Integer handle = handles.get(value);
+      if (handle != null) {
+        out.writeByte(REFERENCE);
+        writeVarInt(handle);
+        return;
+      }
+      handles.put(value, handles.size());
+      BeanMetadata bean;
+      if (type == String.class) {
+        out.writeByte(STRING);
+        writeString((String) value);
+      } else if (type.isArray()) {
+        out.writeByte(ARRAY);
+        writeClass(type.getComponentType());
+        int length = Array.getLength(value);
+        writeVarInt(length);
+        for (int i = 0; i < length; i++) {
+          write(Array.get(value, i));
+        }
+      } else if (BeanMetadata.isSupportedCollection(type)) {
+        out.writeByte(COLLECTION);
+        writeClass(type);
+        Collection<?> collection = (Collection<?>) value;
+        writeVarInt(collection.size());
+        for (Object element : collection) {
+          write(element);
+        }
+      } else if (BeanMetadata.isSupportedMap(type)) {
+        out.writeByte(MAP);
+        writeClass(type);
+        Map<?, ?> map = (Map<?, ?>) value;
+        writeVarInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          write(entry.getKey());
+          write(entry.getValue());
+        }
+      } else if ((bean = BeanMetadata.forClass(type)) != null) {
+        out.writeByte(BEAN);
+        writeClass(type);
+        for (int i = 0; i < bean.size(); i++) {
+          write(bean.get(value, i));
+        }
+      } else {
+        out.writeByte(JAVA);
+        writeBytes(fallback.serialize(value));
+      }
+    }
+
+    private void writeClass(Class<?> type) throws IOException {
+      // 0 introduces a new class, known classes are written as their index + 1
+      Integer id = classIds.get(type);
+      if (id != null) {
+        writeVarInt(id + 1);
+      } else {
+        writeVarInt(0);
+        classIds.put(type, classIds.size());
+        writeString(type.getName());
+      }
+    }
+
+    private void writeString(String value) throws IOException {
+      writeBytes(value.getBytes(UTF8));
+    }
+
+    private void writeBytes(byte[] value) throws IOException {
+      writeVarInt(value.length);
+      out.write(value);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+        out.writeByte((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      out.writeByte(value);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+      // zig-zag encoding keeps small negative numbers short
+      long zigZag = (value << 1) ^ (value >> 63);
+      while ((zigZag & ~0x7FL) != 0) {
+        out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+        zigZag >>>= 7;
+      }
+      out.writeByte((int) zigZag);
+    }
+
+  }
+
+  private class Reader {
+
+    private final DataInputStream in;
+    private final List<Object> handles = new ArrayList<Object>();
+    private final List<Class<?>> classTable = new ArrayList<Class<?>>();
+
+    Reader(DataInputStream in) {
+      this.in = in;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    Object read() throws IOException {
+      byte tag = in.readByte();
+      switch (tag) {
+        case NULL:
+          return null;
+        case REFERENCE:
+          return handles.get(readVarInt());
+        case STRING:
+          String string = readString();
+          handles.add(string);
+          return string;
+        case BOOLEAN:
+          return in.readBoolean();
+        case BYTE:
+          return in.readByte();
+        case SHORT:
+          return in.readShort();
+        case CHAR:
+          return in.readChar();
+        case INT:
+          return (int) readVarLong();
+        case LONG:
+          return readVarLong();
+        case FLOAT:
+          return in.readFloat();
+        case DOUBLE:
+          return in.readDouble();
+        case BIG_DECIMAL:
+          return new BigDecimal(readString());
+        case BIG_INTEGER:
+          return new BigInteger(readBytes());
+        case DATE:
+          return new Date(in.readLong());
+        case SQL_DATE:
+          return new java.sql.Date(in.readLong());
+        case SQL_TIME:
+          return new Time(in.readLong());
+        case SQL_TIMESTAMP:
+          Timestamp timestamp = new Timestamp(in.readLong());
+          timestamp.setNanos(in.readInt());
+          return timestamp;
+        case ENUM:
+          return Enum.valueOf((Class<Enum>) readClass(), readString());
+        case BYTES:
+          return readBytes();
+        case ARRAY:
+          Class<?> componentType = readClass();
+          Object array = Array.newInstance(componentType, readVarInt());
+          handles.add(array);
+          for (int i = 0; i < Array.getLength(array); i++) {
+            Array.set(array, i, read());
+          }
+          return array;
+        case COLLECTION:
+          Collection<Object> collection = (Collection<Object>) objectFactory.create(readClass());
+          handles.add(collection);
+          for (int i = readVarInt(); i > 0; i--) {
+            collection.add(read());
+          }
+          return collection;
+        case MAP:
+          Map<Object, Object> map = (Map<Object, Object>) objectFactory.create(readClass());
+          handles.add(map);
+          for (int i = readVarInt(); i > 0; i--) {
+            map.put(read(), read());
+          }
+          return map;
+        case BEAN:
+          Class<?> type = readClass();
+          BeanMetadata bean = BeanMetadata.forClass(type);
+          if (bean == null) {
+            throw new CacheException("Error deserializing object.  Cause: " + type + " is not a supported bean.");
+          }
+          Object object = objectFactory.create(type);
+          handles.add(object);
+          for (int i = 0; i < bean.size(); i++) {
+            bean.set(object, i, read());
+          }
+          return object;
+        case JAVA:
+          Object value = fallback.deserialize(readBytes());
+          handles.add(value);
+          return value;
+        default:
+          throw new CacheException("Error deserializing object.  Cause: unknown tag " + tag + ".");
+      }
+    }
+
+    private Class<?> readClass() throws IOException {
+      int id = readVarInt();
+      if (id > 0) {
+        return classTable.get(id - 1);
+      }
+      Class<?> type = resolveClass(readString());
+      classTable.add(type);
+      return type;
+    }
+
+    private String readString() throws IOException {
+      return new String(readBytes(), UTF8);
+    }
+
+    private byte[] readBytes() throws IOException {
+      byte[] bytes = new byte[readVarInt()];
+      in.readFully(bytes);
+      return bytes;
+    }
+
+    private int readVarInt() throws IOException {
+      int value = 0;
+      for (int shift = 0;; shift += 7) {
+        int b = in.readUnsignedByte();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+    }
+
+    private long readVarLong() throws IOException {
+      long zigZag = 0;
+      for (int shift = 0;; shift += 7) {
+        int b = in.readUnsignedByte();
+        zigZag |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Delivers the items of a cursor in lists of a fixed size, the last one possibly shorter.
+ * Combined with the <code>cursorPrefetchSize</code> setting, a list is usually filled from rows
+ * that were already fetched and mapped while the previous one was being processed.
+ */
+public final class CursorBatches<T> implements Iterable<List<T>> {
+
+    private final Cursor<T> cursor;
+    private final int batchSize;
+
+    private CursorBatches(Cursor<T> cursor, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, found " + batchSize);
+        }
+        this.cursor = cursor;
+        this.batchSize = batchSize;
+    }
+
+    public static <T> CursorBatches<T> of(Cursor<T> cursor, int batchSize) {
+        return new CursorBatches<T>(cursor, batchSize);
+    }
+
+    @Override
+    public Iterator<List<T>> iterator() {
+        final Iterator<T> items = cursor.iterator();
+        return new Iterator<List<T>>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!items.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> batch = new ArrayList<T>(batchSize);
+                while (batch.size() < batchSize && items.hasNext()) {
+                    batch.add(items.next());
+                }
+                return batch;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Cannot remove element from Cursor");
+            }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cursor that fetches and maps rows on a background thread of its own into a bounded buffer,
+ * so the consumer works on mapped objects while the next rows are being fetched.
+ * The producer waits when the buffer is full, so at most <code>prefetchSize</code> objects are held.
+ * The thread is not taken from a shared pool, so open cursors never starve other tasks nor wait for them.
+ * The session must not be used by other statements until the cursor is consumed or closed.
+ */
+public class PrefetchingCursor<T> extends DefaultCursor<T> {
+
+    private static final Object END = new Object();
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final BlockingQueue<Object> buffer;
+
+    private volatile boolean stopped;
+    private Thread producer;
+    // same states as DefaultCursor: open once fetching has started, until consumed or closed
+    private boolean opened;
+    private boolean consumed;
+    private boolean closed;
+
+    public PrefetchingCursor(DefaultResultSetHandler resultSetHandler, ResultMap resultMap, ResultSetWrapper rsw, RowBounds rowBounds,
+                             int prefetchSize) {
+        super(resultSetHandler, resultMap, rsw, rowBounds);
+        this.buffer = new ArrayBlockingQueue<Object>(prefetchSize);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return opened && !closed && !consumed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    @Override
+    public void close() {
+        if (Thread.currentThread() == producer) {
+            // the producer reached the end of the rows
+            super.close();
+            return;
+        }
+        if (closed) {
+            return;
+        }
+        closed = true;
+        stopped = true;
+        if (producer != null) {
+            buffer.clear();
+            awaitProducer();
+        }
+        super.close();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T fetchNextUsingRowBound() {
+        if (closed || consumed) {
+            return null;
+        }
+        opened = true;
+        if (producer == null) {
+            producer = new Thread(new Producer(), "mybatis-cursor-prefetch-" + THREAD_COUNT.incrementAndGet());
+            producer.setDaemon(true);
+            producer.start();
+        }
+        Object next;
+        try {
+            next = buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the next row of the cursor", e);
+        }
+        if (next == END) {
+            consumed = true;
+            awaitProducer();
+            return null;
+        }
+        if (next instanceof Failure) {
+            close();
+            Throwable exception = ((Failure) next).exception;
+            if (exception instanceof Error) {
+                throw (Error) exception;
+            } else if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            throw new RuntimeException("Error fetching the next row of the cursor", exception);
+        }
+        return (T) next;
+    }
+
+    private T fetchNextFromDatabase() {
+        return super.fetchNextUsingRowBound();
+    }
+
+    private void awaitProducer() {
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Failure {
+        private final Throwable exception;
+
+        Failure(Throwable exception) {
+            this.exception = exception;
+        }
+    }
+
+    private class Producer implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                T next;
+                do {
+                    next = fetchNextFromDatabase();
+                } while (hand(next != null ? next : END) && next != null);
+            } catch (Throwable e) {
+                // errors too, otherwise the consumer would wait forever for the next row
+                hand(new Failure(e));
+            }
+        }
+
+        // waits for room in the buffer, gives up when the cursor is closed
+        private boolean hand(Object object) {
+            try {
+                while (!stopped) {
+                    if (buffer.offer(object, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Clinton Begin
@@ -38,6 +39,9 @@ public class PoolState {
   protected long accumulatedWaitTime = 0;
   protected long hadToWaitCount = 0;
   protected long badConnectionCount = 0;
+  //语句缓存的命中次数与未命中次数
+  protected final AtomicLong statementCacheHitCount = new AtomicLong();
+  protected final AtomicLong statementCacheMissCount = new AtomicLong();
 
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
@@ -77,6 +81,14 @@ public class PoolState {
   }
 
 
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount.get();
+  }
+
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount.get();
+  }
+
   public synchronized int getIdleConnectionCount() {
     return idleConnections.size();
   }
@@ -100,6 +112,7 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolMaxCachedStatements        ").append(dataSource.poolMaximumCachedStatements);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
@@ -111,6 +124,8 @@ public class PoolState {
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n statementCacheHits             ").append(getStatementCacheHitCount());
+    builder.append("\n statementCacheMisses           ").append(getStatementCacheMissCount());
     builder.append("\n===============================================================");
     return builder.toString();
   }
@@ -29,6 +29,7 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String PREPARE_STATEMENT = "prepareStatement";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
   private int hashCode = 0;
@@ -40,6 +41,7 @@ class PooledConnection implements InvocationHandler {
   private long lastUsedTimestamp;
   private int connectionTypeCode;
   private boolean valid;
+  private PooledStatementCache statementCache;
 
   /*
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in
@@ -62,6 +64,29 @@ class PooledConnection implements InvocationHandler {
    */
   public void invalidate() {
     valid = false;
+    if (statementCache != null) {
+      statementCache.closeAll();
+      statementCache = null;
+    }
+  }
+
+  /*
+   * Moves the prepared statement cache of another wrapper of the same real connection to this one
+   *
+   * @param connection - the wrapper that is being replaced
+   */
+  public void takeStatementCache(PooledConnection connection) {
+    this.statementCache = connection.statementCache;
+    connection.statementCache = null;
+  }
+
+  /*
+   * Getter for the prepared statement cache of the real connection
+   *
+   * @return The cache, or null if no statement has been cached
+   */
+  public PooledStatementCache getStatementCache() {
+    return statementCache;
   }
 
   /*
@@ -242,6 +267,13 @@ class PooledConnection implements InvocationHandler {
           //检查连接是否可用
           checkConnection();
         }
+        //开启语句缓存时，复用物理连接上已经预编译的语句
+        if (PREPARE_STATEMENT.equals(methodName) && dataSource.getPoolMaximumCachedStatements() > 0) {
+          if (statementCache == null) {
+            statementCache = new PooledStatementCache(dataSource.getPoolState(), dataSource.getPoolMaximumCachedStatements());
+          }
+          return statementCache.prepareStatement(proxyConnection, realConnection, method, args);
+        }
         return method.invoke(realConnection, args);
       } catch (Throwable t) {
         throw ExceptionUtil.unwrapThrowable(t);
@@ -59,6 +59,8 @@ public class PooledDataSource implements DataSource {
   protected boolean poolPingEnabled;
   //如果一个连接超过此时间没有被使用，尝试ping这个数据源查看是否可用
   protected int poolPingConnectionsNotUsedFor;
+  //每个物理连接缓存的PreparedStatement数量，0表示不缓存
+  protected int poolMaximumCachedStatements;
   //连接的唯一code码
   private int expectedConnectionTypeCode;
 
@@ -227,6 +229,17 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /*
+   * The number of prepared statements cached per physical connection and reused across
+   * sessions. Zero (the default) disables the cache.
+   *
+   * @param poolMaximumCachedStatements The number of statements
+   */
+  public void setPoolMaximumCachedStatements(int poolMaximumCachedStatements) {
+    this.poolMaximumCachedStatements = poolMaximumCachedStatements;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -283,6 +296,10 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolMaximumCachedStatements() {
+    return poolMaximumCachedStatements;
+  }
+
   /**
    * 强制关闭所有连接
    */
@@ -353,6 +370,8 @@ public class PooledDataSource implements DataSource {
           }
           //创建新的代理类，并放入空闲连接队列
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          //语句缓存属于物理连接，交给新的代理类继续使用
+          newConn.takeStatementCache(conn);
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
@@ -0,0 +1,284 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * LRU cache of the prepared statements of one physical connection.
+ * It outlives the {@link PooledConnection} wrappers so statements are reused across sessions.
+ */
+class PooledStatementCache {
+
+  private static final String CLOSE = "close";
+  private static final Class<?>[] IFACES = new Class<?>[] { PreparedStatement.class };
+  private static final Class<?>[] RESULT_SET_IFACES = new Class<?>[] { ResultSet.class };
+  //会改变语句状态的设置方法，归还时需要恢复
+  private static final Set<String> SETTINGS = new HashSet<String>(Arrays.asList(
+      "setFetchSize", "setFetchDirection", "setMaxRows", "setMaxFieldSize", "setQueryTimeout"));
+
+  private final PoolState state;
+  private final int size;
+  //按访问顺序排列，最久未使用的语句最先淘汰
+  private final Map<StatementKey, CachedStatement> statements;
+
+  PooledStatementCache(PoolState state, final int size) {
+    this.state = state;
+    this.size = size;
+    this.statements = new LinkedHashMap<StatementKey, CachedStatement>(size, .75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+        if (size() > PooledStatementCache.this.size) {
+          eldest.getValue().evict();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /*
+   * Returns a cached statement for the arguments of a Connection.prepareStatement call,
+   * preparing and caching a new one on a miss
+   */
+  public synchronized PreparedStatement prepareStatement(Connection proxyConnection, Connection realConnection, Method method, Object[] args) throws Throwable {
+    StatementKey key = new StatementKey(args);
+    CachedStatement cached = statements.get(key);
+    if (cached != null && !cached.inUse) {
+      state.statementCacheHitCount.incrementAndGet();
+      return cached.checkout(proxyConnection);
+    }
+    state.statementCacheMissCount.incrementAndGet();
+    PreparedStatement statement = invoke(realConnection, method, args);
+    if (cached != null) {
+      //同一条语句正在被使用（例如嵌套查询），此时返回一个不缓存的语句
+      return statement;
+    }
+    cached = new CachedStatement(statement);
+    statements.put(key, cached);
+    return cached.checkout(proxyConnection);
+  }
+
+  /*
+   * Closes every cached statement, used when the physical connection is invalidated or closed
+   */
+  public synchronized void closeAll() {
+    List<CachedStatement> values = new ArrayList<CachedStatement>(statements.values());
+    statements.clear();
+    for (CachedStatement cached : values) {
+      cached.evict();
+    }
+  }
+
+  public synchronized int getSize() {
+    return statements.size();
+  }
+
+  private synchronized void release(CachedStatement cached) {
+    cached.inUse = false;
+  }
+
+  private static PreparedStatement invoke(Connection realConnection, Method method, Object[] args) throws Throwable {
+    try {
+      return (PreparedStatement) method.invoke(realConnection, args);
+    } catch (Throwable t) {
+      throw ExceptionUtil.unwrapThrowable(t);
+    }
+  }
+
+  private static class StatementKey {
+
+    private final Object[] args;
+    private final int hashCode;
+
+    StatementKey(Object[] args) {
+      this.args = args == null ? new Object[0] : args.clone();
+      this.hashCode = Arrays.deepHashCode(this.args);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof StatementKey && Arrays.deepEquals(args, ((StatementKey) o).args);
+    }
+  }
+
+  private class CachedStatement implements InvocationHandler {
+
+    private final PreparedStatement statement;
+    private final PreparedStatement proxyStatement;
+    private final int fetchSize;
+    private final int fetchDirection;
+    private final int maxRows;
+    private final int maxFieldSize;
+    private final int queryTimeout;
+    private Connection proxyConnection;
+    private boolean inUse;
+    private boolean evicted;
+    private boolean changed;
+    private boolean batched;
+
+    CachedStatement(PreparedStatement statement) throws SQLException {
+      this.statement = statement;
+      this.fetchSize = statement.getFetchSize();
+      this.fetchDirection = statement.getFetchDirection();
+      this.maxRows = statement.getMaxRows();
+      this.maxFieldSize = statement.getMaxFieldSize();
+      this.queryTimeout = statement.getQueryTimeout();
+      this.proxyStatement = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), IFACES, this);
+    }
+
+    PreparedStatement checkout(Connection proxyConnection) {
+      this.proxyConnection = proxyConnection;
+      this.inUse = true;
+      return proxyStatement;
+    }
+
+    //被淘汰的语句如果仍在使用，则等到归还时再关闭
+    void evict() {
+      evicted = true;
+      if (!inUse) {
+        closeQuietly();
+      }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String methodName = method.getName();
+      if (CLOSE.equals(methodName)) {
+        if (inUse) {
+          checkin();
+        }
+        return null;
+      } else if ("isClosed".equals(methodName)) {
+        return !inUse || statement.isClosed();
+      } else if ("getConnection".equals(methodName)) {
+        return proxyConnection;
+      } else if (Object.class.equals(method.getDeclaringClass())) {
+        return method.invoke(this, args);
+      }
+      if (!inUse) {
+        throw new SQLException("Error accessing cached PreparedStatement. Statement is closed.");
+      }
+      if (SETTINGS.contains(methodName)) {
+        changed = true;
+      } else if ("addBatch".equals(methodName)) {
+        batched = true;
+      }
+      Object result;
+      try {
+        result = method.invoke(statement, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+      if (result instanceof ResultSet) {
+        //结果集的getStatement需返回代理语句，否则关闭时会直接关闭缓存的语句而不归还
+        return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), RESULT_SET_IFACES, new CachedResultSet((ResultSet) result, proxyStatement));
+      }
+      return result;
+    }
+
+    private void checkin() {
+      if (!evicted) {
+        try {
+          statement.clearParameters();
+          if (batched) {
+            statement.clearBatch();
+            batched = false;
+          }
+          if (changed) {
+            statement.setFetchSize(fetchSize);
+            statement.setFetchDirection(fetchDirection);
+            statement.setMaxRows(maxRows);
+            statement.setMaxFieldSize(maxFieldSize);
+            statement.setQueryTimeout(queryTimeout);
+            changed = false;
+          }
+        } catch (SQLException e) {
+          //无法恢复状态的语句不能再复用
+          synchronized (PooledStatementCache.this) {
+            for (Iterator<CachedStatement> it = statements.values().iterator(); it.hasNext();) {
+              if (it.next() == this) {
+                it.remove();
+              }
+            }
+          }
+          evicted = true;
+        }
+      }
+      release(this);
+      if (evicted) {
+        closeQuietly();
+      }
+    }
+
+    private void closeQuietly() {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+  }
+
+  private static class CachedResultSet implements InvocationHandler {
+
+    private final ResultSet resultSet;
+    private final PreparedStatement proxyStatement;
+
+    CachedResultSet(ResultSet resultSet, PreparedStatement proxyStatement) {
+      this.resultSet = resultSet;
+      this.proxyStatement = proxyStatement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if ("getStatement".equals(method.getName())) {
+        return proxyStatement;
+      } else if (Object.class.equals(method.getDeclaringClass())) {
+        return method.invoke(this, args);
+      }
+      try {
+        return method.invoke(resultSet, args);
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+  }
+
+}
@@ -20,6 +20,7 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -34,9 +35,11 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.scripting.defaults.MultiRowSqlSource;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.ResultHandler;
@@ -65,6 +68,9 @@ public abstract class BaseExecutor implements Executor {
   //配置上下文
   protected Configuration configuration;
 
+  //批处理结果回调，仅BATCH执行器使用
+  protected BatchResultHandler batchResultHandler;
+
   //查询堆栈
   protected int queryStack;
   //是否已关闭
@@ -73,8 +79,8 @@ public abstract class BaseExecutor implements Executor {
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
     this.deferredLoads = new ConcurrentLinkedQueue<DeferredLoad>();
-    this.localCache = new PerpetualCache("LocalCache");
-    this.localOutputParameterCache = new PerpetualCache("LocalOutputParameterCache");
+    this.localCache = newLocalCache(configuration, "LocalCache");
+    this.localOutputParameterCache = newLocalCache(configuration, "LocalOutputParameterCache");
     this.closed = false;
     this.configuration = configuration;
     this.wrapper = this;
@@ -123,10 +129,31 @@ public abstract class BaseExecutor implements Executor {
     }
     //执行更新操作会清空一级缓存
     clearLocalCache();
+    int multiRowSize = ms.getMultiRowSize();
+    if (multiRowSize > 0) {
+      return doMultiRowUpdate(ms, parameter, multiRowSize);
+    }
     //由子类做差异化实现
     return doUpdate(ms, parameter);
   }
 
+  //多行插入，每multiRowSize行执行一次
+  private int doMultiRowUpdate(MappedStatement ms, Object parameter, int multiRowSize) throws SQLException {
+    List<?> rows = MultiRowSqlSource.getRows(parameter);
+    int updateCount = 0;
+    for (int from = 0; from < rows.size(); from += multiRowSize) {
+      //复制每一段行数据，BatchExecutor会保留参数直到flush，调用者此时可能已清空原集合
+      List<Object> chunk = new ArrayList<Object>(rows.subList(from, Math.min(from + multiRowSize, rows.size())));
+      int count = doUpdate(ms, chunk);
+      if (count == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+        updateCount = count;
+      } else {
+        updateCount += count;
+      }
+    }
+    return updateCount;
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return flushStatements(false);
@@ -164,7 +191,7 @@ public abstract class BaseExecutor implements Executor {
     try {
       queryStack++;
       //根据参数中的resultHandler来判断是否从一级缓存中获取结果集，selectList方法传入的resultHandler默认为null
-      list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      list = resultHandler == null && key != CacheKey.NULL_CACHE_KEY ? (List<E>) localCache.getObject(key) : null;
       if (list != null) {//缓存中存在结果集时
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
       } else {
@@ -184,6 +211,9 @@ public abstract class BaseExecutor implements Executor {
       //如果设置的本地缓存等级为statement，则清空一级缓存
       if (configuration.getLocalCacheScope() == LocalCacheScope.STATEMENT) {
         clearLocalCache();
+      } else {
+        //有大小限制时，淘汰超出的缓存项
+        trimLocalCache();
       }
     }
     return list;
@@ -214,12 +244,11 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
-    CacheKey cacheKey = new CacheKey();
-    cacheKey.update(ms.getId());
-    cacheKey.update(rowBounds.getOffset());
-    cacheKey.update(rowBounds.getLimit());
-    cacheKey.update(boundSql.getSql());
+    if (isCacheKeyUnused(ms)) {
+      return CacheKey.NULL_CACHE_KEY;
+    }
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    CacheKey cacheKey = newCacheKey(ms, rowBounds, boundSql.getSql(), parameterMappings.size() + 1);
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
     // mimic DefaultParameterHandler logic
     for (ParameterMapping parameterMapping : parameterMappings) {
@@ -246,6 +275,42 @@ public abstract class BaseExecutor implements Executor {
     return cacheKey;
   }
 
+  private CacheKey newCacheKey(MappedStatement ms, RowBounds rowBounds, String sql, int additionalUpdates) {
+    if (rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT) {
+      CacheKey prefix = ms.getCacheKeyPrefix(sql);
+      if (prefix != null) {
+        return new CacheKey(prefix, additionalUpdates);
+      }
+    }
+    CacheKey cacheKey = new CacheKey(4 + additionalUpdates);
+    cacheKey.update(ms.getId());
+    cacheKey.update(rowBounds.getOffset());
+    cacheKey.update(rowBounds.getLimit());
+    cacheKey.update(sql);
+    return cacheKey;
+  }
+
+  /**
+   * A top level query of a statement scoped local cache is only looked up by itself, so its key is only needed when
+   * it has to detect circular references of nested queries, cache output parameters or use the second level cache.
+   */
+  private boolean isCacheKeyUnused(MappedStatement ms) {
+    if (!configuration.isOmitUnusedCacheKeys()
+        || configuration.getLocalCacheScope() != LocalCacheScope.STATEMENT
+        || queryStack > 0
+        || ms.getStatementType() == StatementType.CALLABLE
+        || ms.hasNestedResultMaps()
+        || (ms.getCache() != null && ms.isUseCache())) {
+      return false;
+    }
+    for (ResultMap resultMap : ms.getResultMaps()) {
+      if (resultMap.hasNestedQueries() || resultMap.getDiscriminator() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public boolean isCached(MappedStatement ms, CacheKey key) {
     return localCache.getObject(key) != null;
@@ -285,6 +350,22 @@ public abstract class BaseExecutor implements Executor {
     }
   }
 
+  private static PerpetualCache newLocalCache(Configuration configuration, String id) {
+    // the executor of deserialized lazy loaders has no configuration
+    final Integer size = configuration == null ? null : configuration.getLocalCacheSize();
+    if (size == null && (configuration == null || !configuration.isLocalCacheWeakValues())) {
+      return new PerpetualCache(id);
+    }
+    return new LocalCache(id, size == null ? 0 : size, configuration.isLocalCacheWeakValues());
+  }
+
+  private void trimLocalCache() {
+    if (localCache instanceof LocalCache) {
+      ((LocalCache) localCache).trim();
+      ((LocalCache) localOutputParameterCache).trim();
+    }
+  }
+
   protected abstract int doUpdate(MappedStatement ms, Object parameter)
       throws SQLException;
 
@@ -339,6 +420,9 @@ public abstract class BaseExecutor implements Executor {
    * 从数据库中查询数据
    */
   private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+    if (key == CacheKey.NULL_CACHE_KEY) {
+      return doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+    }
     List<E> list;
     //执行查询前用占位符在一级缓存中占位
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
@@ -370,6 +454,10 @@ public abstract class BaseExecutor implements Executor {
   public void setExecutorWrapper(Executor wrapper) {
     this.wrapper = wrapper;
   }
+
+  public void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+    this.batchResultHandler = batchResultHandler;
+  }
   
   private static class DeferredLoad {
 
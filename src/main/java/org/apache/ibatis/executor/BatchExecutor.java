@@ -30,12 +30,17 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.BatchOrdering;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
+ * Executions of the same statement with the same sql share a JDBC batch. Only consecutive executions do with
+ * the default {@link BatchOrdering#STRICT} ordering; otherwise an execution is added to the batch of an earlier one
+ * when the {@link BatchOrdering} allows it to run before the statements executed in between.
+ *
  * @author Jeff Butler 
  */
 public class BatchExecutor extends BaseExecutor {
@@ -46,13 +51,15 @@ public class BatchExecutor extends BaseExecutor {
   private final List<Statement> statementList = new ArrayList<Statement>();
   //结果集队列
   private final List<BatchResult> batchResultList = new ArrayList<BatchResult>();
-  //上次执行sql
-  private String currentSql;
-  //上次执行MappedStatement
-  private MappedStatement currentStatement;
+  //各statement所用的表，仅在batchOrdering为TABLE时记录
+  private final List<String[]> tablesList = new ArrayList<String[]>();
+  private final BatchOrdering ordering;
+  //上次刷新后累积的执行次数
+  private int batchedRows;
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
+    this.ordering = configuration.getBatchOrdering();
   }
 
   @Override
@@ -64,18 +71,19 @@ public class BatchExecutor extends BaseExecutor {
     //从MappedStatement中获取sql对象
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
+    final String[] tables = ordering == BatchOrdering.TABLE ? ms.getTables(boundSql) : null;
     final Statement stmt;
-    //判断本次执行sql是否与上次执行sql相同
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      //获取上次使用的Statement实例
-      stmt = statementList.get(last);
+    //查找可以加入的相同sql的批处理
+    int batch = findBatch(ms, sql, tables);
+    if (batch >= 0) {
+      //获取该批处理使用的Statement实例
+      stmt = statementList.get(batch);
       //刷新事务过期时间
       applyTransactionTimeout(stmt);
       //为Statement绑定新参数
       handler.parameterize(stmt);
       //将参数对象添加至BatchResult对象中（BatchResult中维护了一个参数List）
-      BatchResult batchResult = batchResultList.get(last);
+      BatchResult batchResult = batchResultList.get(batch);
       batchResult.addParameterObject(parameterObject);
     } else {
       //获取新的数据库连接实例
@@ -84,18 +92,59 @@ public class BatchExecutor extends BaseExecutor {
       stmt = handler.prepare(connection, transaction.getTimeout());
       //为Statement绑定参数
       handler.parameterize(stmt); 
-      //刷新上次执行sql以及Statement，为下次判断做准备
-      currentSql = sql;
-      currentStatement = ms;
       statementList.add(stmt);
+      tablesList.add(tables);
       //在结果集队列中添加BatchResult对象实例
       batchResultList.add(new BatchResult(ms, sql, parameterObject));
     }
     handler.batch(stmt);
+    //达到batchFlushSize时自动刷新，结果只传给batchResultHandler
+    Integer batchFlushSize = configuration.getBatchFlushSize();
+    if (batchFlushSize != null && ++batchedRows >= batchFlushSize) {
+      flushStatements();
+    }
     //批处理执行器的更新操作不会返回修改行数，而是返回一个固定的数字，此处需要注意！
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  //多行插入的每个参数对象是一组行
+  private static List<Object> rowsOf(List<Object> parameterObjects) {
+    List<Object> rows = new ArrayList<Object>();
+    for (Object parameterObject : parameterObjects) {
+      rows.addAll((List<?>) parameterObject);
+    }
+    return rows;
+  }
+
+  private int findBatch(MappedStatement ms, String sql, String[] tables) {
+    for (int i = statementList.size() - 1; i >= 0; i--) {
+      BatchResult batchResult = batchResultList.get(i);
+      if (sql.equals(batchResult.getSql()) && ms.equals(batchResult.getMappedStatement())) {
+        return i;
+      }
+      if (ordering == BatchOrdering.STRICT
+          || ordering == BatchOrdering.TABLE && sharesTable(tables, tablesList.get(i))) {
+        break;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean sharesTable(String[] tables, String[] otherTables) {
+    // statements with unknown tables are never reordered
+    if (tables.length == 0 || otherTables.length == 0) {
+      return true;
+    }
+    for (String table : tables) {
+      for (String otherTable : otherTables) {
+        if (table.equals(otherTable)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -148,7 +197,7 @@ public class BatchExecutor extends BaseExecutor {
           //此处是回写字段逻辑，如果在xml中配置了需要回写的字段，则会调用KeyGenerator进行回写，具体逻辑在KeyGenerator讲解
           if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
             Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+            jdbc3KeyGenerator.processBatch(ms, stmt, ms.getMultiRowSize() > 0 ? rowsOf(parameterObjects) : parameterObjects);
           } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { 
             for (Object parameter : parameterObjects) {
               keyGenerator.processAfter(this, ms, stmt, parameter);
@@ -169,6 +218,9 @@ public class BatchExecutor extends BaseExecutor {
           throw new BatchExecutorException(message.toString(), e, results, batchResult);
         }
         results.add(batchResult);
+        if (batchResultHandler != null) {
+          batchResultHandler.handleBatchResult(batchResult);
+        }
       }
       return results;
     } finally {
@@ -176,8 +228,9 @@ public class BatchExecutor extends BaseExecutor {
       for (Statement stmt : statementList) {
         closeStatement(stmt);
       }
-      currentSql = null;
       statementList.clear();
+      tablesList.clear();
+      batchedRows = 0;
       batchResultList.clear();
     }
   }
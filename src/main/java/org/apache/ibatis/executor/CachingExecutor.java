@@ -16,11 +16,18 @@
 package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.TableCacheEntry;
+import org.apache.ibatis.cache.TableVersions;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.MetricsCache;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -28,6 +35,7 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.CacheInvalidation;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
@@ -74,7 +82,11 @@ public class CachingExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-    flushCacheIfRequired(ms);
+    if (ms.getConfiguration().getCacheInvalidation() == CacheInvalidation.TABLE) {
+      invalidateTablesIfRequired(ms, parameterObject);
+    } else {
+      flushCacheIfRequired(ms);
+    }
     return delegate.update(ms, parameterObject);
   }
 
@@ -101,12 +113,17 @@ public class CachingExecutor implements Executor {
       if (ms.isUseCache() && resultHandler == null) {
     	//校验boundSql中的绑定参数列表是否包含输出参数，如果包含则抛出异常，Mybatis不支持存储过程结果缓存
         ensureNoOutParams(ms, parameterObject, boundSql);
+        if (ms.getConfiguration().getCacheInvalidation() == CacheInvalidation.TABLE) {
+          return queryByTables(cache, ms, parameterObject, rowBounds, key, boundSql);
+        }
         @SuppressWarnings("unchecked")
         //从缓存中获取MappedStatement对应的查询结果
         List<E> list = (List<E>) tcm.getObject(cache, key);
         if (list == null) {
           //如果没有缓存实例，则调用delegate执行query，并将结果放入缓存区
+          long start = System.nanoTime();
           list = delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          recordLoad(cache, start);
           tcm.putObject(cache, key, list); // issue #578 and #116
         }
         return list;
@@ -116,6 +133,46 @@ public class CachingExecutor implements Executor {
     return delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
 
+  private <E> List<E> queryByTables(Cache cache, MappedStatement ms, Object parameterObject, RowBounds rowBounds, CacheKey key, BoundSql boundSql)
+      throws SQLException {
+    String[] tables = getReadTables(ms, boundSql);
+    if (tcm.isWritten(tables)) {
+      // uncommitted changes of this session, do not read or cache them
+      return delegate.<E> query(ms, parameterObject, rowBounds, null, key, boundSql);
+    }
+    TableVersions tableVersions = ms.getConfiguration().getTableVersions();
+    long[] versions = tableVersions.snapshot(tables);
+    Object cached = tcm.getObject(cache, key);
+    if (cached instanceof TableCacheEntry && ((TableCacheEntry) cached).isCurrent(tableVersions)) {
+      @SuppressWarnings("unchecked")
+      List<E> list = (List<E>) ((TableCacheEntry) cached).getValue();
+      return list;
+    }
+    long start = System.nanoTime();
+    List<E> list = delegate.<E> query(ms, parameterObject, rowBounds, null, key, boundSql);
+    recordLoad(cache, start);
+    tcm.putObject(cache, key, new TableCacheEntry(tables, versions, list));
+    return list;
+  }
+
+  /*
+   * The tables of the statement and of its nested selects, whose rows are cached along with its results
+   */
+  private static String[] getReadTables(MappedStatement ms, BoundSql boundSql) {
+    String[] tables = ms.getTables(boundSql);
+    String[] nestedTables = ms.getNestedQueryTables();
+    if (nestedTables == null || tables.length == 0) {
+      return tables;
+    }
+    if (nestedTables.length == 0) {
+      // the tables of a nested select are not known, the entry depends on any write
+      return nestedTables;
+    }
+    Set<String> readTables = new LinkedHashSet<String>(Arrays.asList(tables));
+    Collections.addAll(readTables, nestedTables);
+    return readTables.toArray(new String[readTables.size()]);
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return delegate.flushStatements();
@@ -175,6 +232,29 @@ public class CachingExecutor implements Executor {
     }
   }
 
+  private void recordLoad(Cache cache, long start) {
+    if (cache instanceof MetricsCache) {
+      ((MetricsCache) cache).getMetrics().recordLoad(System.nanoTime() - start);
+    }
+  }
+
+  private void invalidateTablesIfRequired(MappedStatement ms, Object parameterObject) {
+    if (ms.isFlushCacheRequired()) {
+      String[] tables = ms.getTables();
+      if (tables == null) {
+        tables = ms.getTables(ms.getBoundSql(parameterObject));
+      }
+      tcm.invalidate(ms.getConfiguration().getTableVersions(), tables);
+    }
+  }
+
+  public void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+    if (!(delegate instanceof BaseExecutor)) {
+      throw new ExecutorException("Executor " + delegate.getClass().getName() + " does not support batch result handlers.");
+    }
+    ((BaseExecutor) delegate).setBatchResultHandler(batchResultHandler);
+  }
+
   @Override
   public void setExecutorWrapper(Executor executor) {
     throw new UnsupportedOperationException("This method should not be called");
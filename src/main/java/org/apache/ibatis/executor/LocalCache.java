@@ -0,0 +1,101 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.impl.PerpetualCache;
+
+/**
+ * Session local cache bounded by the <code>localCacheSize</code> and <code>localCacheWeakValues</code> settings.
+ * Entries are only evicted or released between top level queries ({@link #trim()}), so execution
+ * placeholders and the lists that deferred loads read stay in place while a query runs.
+ */
+class LocalCache extends PerpetualCache {
+
+  private final int size;
+  private final boolean weakValues;
+  //按访问顺序排列，最久未使用的缓存项最先淘汰
+  private final Map<Object, Object> cache = new LinkedHashMap<Object, Object>(16, .75F, true);
+  //弱引用模式下，查询执行期间放入的值需要保持强引用
+  private final List<Object> pinnedValues = new ArrayList<Object>();
+
+  LocalCache(String id, int size, boolean weakValues) {
+    super(id);
+    this.size = size;
+    this.weakValues = weakValues;
+  }
+
+  @Override
+  public int getSize() {
+    return cache.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (weakValues && !(value instanceof ExecutionPlaceholder)) {
+      pinnedValues.add(value);
+      cache.put(key, new WeakReference<Object>(value));
+    } else {
+      cache.put(key, value);
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Object value = cache.get(key);
+    if (value instanceof WeakReference) {
+      value = ((WeakReference<?>) value).get();
+      if (value == null) {
+        cache.remove(key);
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Object value = cache.remove(key);
+    return value instanceof WeakReference ? ((WeakReference<?>) value).get() : value;
+  }
+
+  @Override
+  public void clear() {
+    cache.clear();
+    pinnedValues.clear();
+  }
+
+  /*
+   * Evicts the least recently used entries above the size and lets weak values be collected.
+   * Must only be called when no query is running.
+   */
+  public void trim() {
+    pinnedValues.clear();
+    if (size > 0 && cache.size() > size) {
+      Iterator<Object> values = cache.values().iterator();
+      for (int excess = cache.size() - size; excess > 0 && values.hasNext(); excess--) {
+        values.next();
+        values.remove();
+      }
+    }
+  }
+
+}
@@ -28,7 +28,11 @@ import java.util.Map;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -73,11 +77,24 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
       TypeHandler<?>[] typeHandlers = null;
       //如果xml中没有配置返回字段或者实际返回的字段数少于配置字段数则不会进行绑定
       if (keyProperties != null && rsmd.getColumnCount() >= keyProperties.length) {
+        //简单属性名可以直接通过setter写入，setter按参数类型只解析一次
+        final boolean simpleKeyProperties = isSimpleProperties(keyProperties);
+        KeySetters keySetters = null;
         for (Object parameter : parameters) {
           //通常每个statement都有一条结果数据
           if (!rs.next()) {
             break;
           }
+          if (simpleKeyProperties && isBean(configuration, parameter)) {
+            if (keySetters == null || keySetters.type != parameter.getClass()) {
+              keySetters = new KeySetters(configuration.getReflectorFactory().findForClass(parameter.getClass()), keyProperties);
+            }
+            if (typeHandlers == null) {
+              typeHandlers = keySetters.getTypeHandlers(typeHandlerRegistry, rsmd);
+            }
+            keySetters.populateKeys(rs, parameter, typeHandlers);
+            continue;
+          }
           //创建参数对象的元对象实例，此处是关键，因为实际上后面是将返回的字段信息写入这个metaParam对象中，而metaParam对象持有parameter对象的引用
           //所以实际上数据是写入到了BatchResult的参数对象中
           final MetaObject metaParam = configuration.newMetaObject(parameter);
@@ -123,6 +140,24 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
     return parameters;
   }
 
+  private boolean isSimpleProperties(String[] properties) {
+    for (String property : properties) {
+      if (property.indexOf('.') > -1 || property.indexOf('[') > -1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  //Map、集合、数组及有自定义包装器的对象仍通过MetaObject赋值
+  private boolean isBean(Configuration configuration, Object parameter) {
+    return parameter != null
+        && !(parameter instanceof Map)
+        && !(parameter instanceof Collection)
+        && !parameter.getClass().isArray()
+        && !configuration.getObjectWrapperFactory().hasWrapperFor(parameter);
+  }
+
   private TypeHandler<?>[] getTypeHandlers(TypeHandlerRegistry typeHandlerRegistry, MetaObject metaParam, String[] keyProperties, ResultSetMetaData rsmd) throws SQLException {
     TypeHandler<?>[] typeHandlers = new TypeHandler<?>[keyProperties.length];
     for (int i = 0; i < keyProperties.length; i++) {
@@ -149,4 +184,55 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
     }
   }
 
+  /**
+   * The key property setters of one parameter class.
+   */
+  private static class KeySetters {
+    private final Class<?> type;
+    private final String[] keyProperties;
+    private final Class<?>[] setterTypes;
+    private final Invoker[] setters;
+
+    KeySetters(Reflector reflector, String[] keyProperties) {
+      this.type = reflector.getType();
+      this.keyProperties = keyProperties;
+      this.setterTypes = new Class<?>[keyProperties.length];
+      this.setters = new Invoker[keyProperties.length];
+      for (int i = 0; i < keyProperties.length; i++) {
+        if (reflector.hasSetter(keyProperties[i])) {
+          setterTypes[i] = reflector.getSetterType(keyProperties[i]);
+          setters[i] = reflector.getSetInvoker(keyProperties[i]);
+        }
+      }
+    }
+
+    TypeHandler<?>[] getTypeHandlers(TypeHandlerRegistry typeHandlerRegistry, ResultSetMetaData rsmd) throws SQLException {
+      TypeHandler<?>[] typeHandlers = new TypeHandler<?>[keyProperties.length];
+      for (int i = 0; i < keyProperties.length; i++) {
+        if (setterTypes[i] != null) {
+          typeHandlers[i] = typeHandlerRegistry.getTypeHandler(setterTypes[i], JdbcType.forCode(rsmd.getColumnType(i + 1)));
+        }
+      }
+      return typeHandlers;
+    }
+
+    void populateKeys(ResultSet rs, Object parameter, TypeHandler<?>[] typeHandlers) throws SQLException {
+      for (int i = 0; i < keyProperties.length; i++) {
+        if (setters[i] == null) {
+          throw new ExecutorException("No setter found for the keyProperty '" + keyProperties[i] + "' in " + type.getName() + ".");
+        }
+        TypeHandler<?> th = typeHandlers[i];
+        if (th != null) {
+          Object value = th.getResult(rs, i + 1);
+          try {
+            setters[i].invoke(parameter, new Object[] { value });
+          } catch (Throwable t) {
+            t = ExceptionUtil.unwrapThrowable(t);
+            throw new ReflectionException("Could not set property '" + keyProperties[i] + "' of '" + type + "' with value '" + value + "' Cause: " + t.toString(), t);
+          }
+        }
+      }
+    }
+  }
+
 }
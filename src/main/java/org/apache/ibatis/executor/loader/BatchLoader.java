@@ -0,0 +1,197 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.defaults.DefaultSqlSession.StrictMap;
+
+/**
+ * Collects the keys of the nested selects of one result mapping and loads them with
+ * one batch select per chunk, so N parent rows do not cost N queries.
+ * The batch select receives the keys as its <code>list</code> parameter and the
+ * loaded objects are given back to their parents by their <code>batchKey</code> property.
+ */
+public class BatchLoader {
+
+  private static final BigDecimal MIN_LONG = BigDecimal.valueOf(Long.MIN_VALUE);
+  private static final BigDecimal MAX_LONG = BigDecimal.valueOf(Long.MAX_VALUE);
+
+  private final Configuration configuration;
+  private final Executor executor;
+  private final MappedStatement batchQuery;
+  private final String batchKey;
+  private final int batchSize;
+  //等待加载的键，规范化后的键 -> 原始参数值
+  private final Map<Object, Object> pendingKeys = new LinkedHashMap<Object, Object>();
+  private final Map<Object, List<Object>> results = new HashMap<Object, List<Object>>();
+
+  public BatchLoader(Configuration configuration, Executor executor, MappedStatement batchQuery, String batchKey) {
+    this.configuration = configuration;
+    this.executor = executor;
+    this.batchQuery = batchQuery;
+    this.batchKey = batchKey;
+    this.batchSize = Math.max(1, configuration.getNestedBatchSize());
+  }
+
+  public synchronized void addKey(Object key) {
+    Object normalizedKey = normalize(key);
+    if (!results.containsKey(normalizedKey)) {
+      pendingKeys.put(normalizedKey, key);
+    }
+  }
+
+  public synchronized boolean isLoaded(Object key) {
+    return results.containsKey(normalize(key));
+  }
+
+  public synchronized List<Object> getResults(Object key) {
+    List<Object> list = results.get(normalize(key));
+    return list == null ? new ArrayList<Object>() : list;
+  }
+
+  /*
+   * Loads every pending key with the executor of the result set handler. Stops and returns false
+   * when a batch select is already in the local cache, which happens with circular nested selects;
+   * the keys left pending must then be loaded one by one.
+   */
+  public synchronized boolean loadPending() throws SQLException {
+    while (!pendingKeys.isEmpty()) {
+      List<Object> chunk = nextChunk(null);
+      Object parameterObject = wrapKeys(chunk);
+      BoundSql boundSql = batchQuery.getBoundSql(parameterObject);
+      CacheKey cacheKey = executor.createCacheKey(batchQuery, parameterObject, RowBounds.DEFAULT, boundSql);
+      if (executor.isCached(batchQuery, cacheKey)) {
+        return false;
+      }
+      List<Object> list = executor.query(batchQuery, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
+      distribute(chunk, list);
+    }
+    return true;
+  }
+
+  /*
+   * Returns the objects loaded for a key, loading it together with up to one chunk of its pending
+   * siblings through the given lazy loader when it is not loaded yet.
+   */
+  public synchronized List<Object> load(Object key, ResultLoader resultLoader) throws SQLException {
+    if (!isLoaded(key)) {
+      List<Object> chunk = nextChunk(key);
+      Object parameterObject = wrapKeys(chunk);
+      List<Object> list = resultLoader.selectList(batchQuery, parameterObject, null, batchQuery.getBoundSql(parameterObject));
+      distribute(chunk, list);
+    }
+    return getResults(key);
+  }
+
+  private List<Object> nextChunk(Object key) {
+    List<Object> chunk = new ArrayList<Object>();
+    if (key != null) {
+      Object normalizedKey = normalize(key);
+      if (!pendingKeys.containsKey(normalizedKey)) {
+        pendingKeys.put(normalizedKey, key);
+      }
+      chunk.add(normalizedKey);
+    }
+    for (Object normalizedKey : pendingKeys.keySet()) {
+      if (chunk.size() >= batchSize) {
+        break;
+      }
+      if (!chunk.contains(normalizedKey)) {
+        chunk.add(normalizedKey);
+      }
+    }
+    return chunk;
+  }
+
+  private Object wrapKeys(List<Object> chunk) {
+    List<Object> keys = new ArrayList<Object>(chunk.size());
+    for (Object normalizedKey : chunk) {
+      keys.add(pendingKeys.get(normalizedKey));
+    }
+    StrictMap<Object> map = new StrictMap<Object>();
+    map.put("collection", keys);
+    map.put("list", keys);
+    return map;
+  }
+
+  private void distribute(List<Object> chunk, List<Object> list) {
+    for (Object normalizedKey : chunk) {
+      pendingKeys.remove(normalizedKey);
+      results.put(normalizedKey, new ArrayList<Object>());
+    }
+    for (Object object : list) {
+      Object key = configuration.newMetaObject(object).getValue(batchKey);
+      List<Object> values = results.get(normalize(key));
+      if (values == null) {
+        throw new ExecutorException("The batch select '" + batchQuery.getId() + "' returned an object whose batchKey property '"
+            + batchKey + "' has the value '" + key + "', which matches none of the requested keys " + chunk
+            + ". Check that the batch select only returns rows for the keys in its list parameter.");
+      }
+      values.add(object);
+    }
+  }
+
+  // the keys are read from the parent column and from the child property, so their number types may differ
+  static Object normalize(Object key) {
+    if (!(key instanceof Number)) {
+      return key;
+    }
+    if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte
+        || key instanceof AtomicInteger || key instanceof AtomicLong) {
+      return Long.valueOf(((Number) key).longValue());
+    }
+    final BigDecimal decimal;
+    try {
+      if (key instanceof BigDecimal) {
+        decimal = (BigDecimal) key;
+      } else if (key instanceof BigInteger) {
+        decimal = new BigDecimal((BigInteger) key);
+      } else {
+        // Float, Double and other number types, by their decimal representation
+        decimal = new BigDecimal(key.toString());
+      }
+    } catch (NumberFormatException e) {
+      // NaN, infinity or a custom number type
+      return key;
+    }
+    if (decimal.signum() == 0) {
+      return Long.valueOf(0L);
+    }
+    final BigDecimal stripped = decimal.stripTrailingZeros();
+    if (stripped.scale() <= 0 && stripped.compareTo(MIN_LONG) >= 0 && stripped.compareTo(MAX_LONG) <= 0) {
+      return Long.valueOf(stripped.longValue());
+    }
+    return stripped;
+  }
+
+}
@@ -0,0 +1,46 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.sql.SQLException;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Lazy loader of a nested select that has a batch select. The first one of a result set to be
+ * triggered loads its siblings too, the others then find their value already loaded.
+ * The nested select and its parameter are kept for loading after deserialization.
+ */
+public class BatchResultLoader extends ResultLoader {
+
+  private final BatchLoader batchLoader;
+
+  public BatchResultLoader(Configuration config, Executor executor, MappedStatement mappedStatement, Object parameterObject, Class<?> targetType, CacheKey cacheKey, BoundSql boundSql, BatchLoader batchLoader) {
+    super(config, executor, mappedStatement, parameterObject, targetType, cacheKey, boundSql);
+    this.batchLoader = batchLoader;
+  }
+
+  @Override
+  public Object loadResult() throws SQLException {
+    resultObject = resultExtractor.extractObjectFromList(batchLoader.load(parameterObject, this), targetType);
+    return resultObject;
+  }
+
+}
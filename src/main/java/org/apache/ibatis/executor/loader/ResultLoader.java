@@ -73,11 +73,23 @@ public class ResultLoader {
   }
 
   private <E> List<E> selectList() throws SQLException {
+    return selectList(mappedStatement, parameterObject, cacheKey, boundSql);
+  }
+
+  /*
+   * Runs a query with the executor of this loader, or with a new one when the session
+   * that created the loader is closed or used from another thread.
+   * The cache key is created by that executor when it is null and a bound sql is given.
+   */
+  protected <E> List<E> selectList(MappedStatement mappedStatement, Object parameterObject, CacheKey cacheKey, BoundSql boundSql) throws SQLException {
     Executor localExecutor = executor;
     if (Thread.currentThread().getId() != this.creatorThreadId || localExecutor.isClosed()) {
       localExecutor = newExecutor();
     }
     try {
+      if (cacheKey == null && boundSql != null) {
+        cacheKey = localExecutor.createCacheKey(mappedStatement, parameterObject, RowBounds.DEFAULT, boundSql);
+      }
       return localExecutor.<E> query(mappedStatement, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, boundSql);
     } finally {
       if (localExecutor != executor) {
@@ -21,8 +21,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -32,9 +35,13 @@ import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.executor.loader.BatchLoader;
+import org.apache.ibatis.executor.loader.BatchResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -83,7 +90,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   // nested resultmaps
   //嵌套的结果集
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<CacheKey, Object>();
+  //key为CacheKey，或紧凑模式下的RowKey
+  private final Map<Object, Object> nestedResultObjects = new HashMap<Object, Object>();
+  //构建嵌套结果集行key的可复用缓冲区
+  private final RowKeyBuilder rowKeyBuilder;
   private final Map<String, Object> ancestorObjects = new HashMap<String, Object>();
   private Object previousRowValue;
 
@@ -92,8 +102,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<String, ResultMapping>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<CacheKey, List<PendingRelation>>();
 
+  // batched nested selects
+  //合并执行的嵌套查询，按结果映射区分
+  private final Map<ResultMapping, BatchLoader> batchLoaders = new IdentityHashMap<ResultMapping, BatchLoader>();
+  private final List<PendingBatchLoad> pendingBatchLoads = new ArrayList<PendingBatchLoad>();
+  //只有结果全部返回给调用者之前才能合并非延迟加载的嵌套查询
+  private boolean batchEagerNestedQueries;
+
   // Cached Automappings
+  //自动映射保存了列序号，只对当前结果集的列布局有效
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<String, List<UnMappedColumnAutoMapping>>();
+  private ResultSetWrapper autoMappingsResultSet;
+
+  // generated row mappers
+  //生成的行映射类实例，只对当前结果集的列布局有效，值为null表示该结果映射不能使用生成的映射类
+  private final Map<String, RowMapper> rowMappers = new HashMap<String, RowMapper>();
+  private ResultSetWrapper rowMappersResultSet;
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   //使用构造函数映射指示的临时标记标志（使用字段以减少内存使用）
@@ -104,13 +128,79 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
+  private static class PendingBatchLoad {
+    public MetaObject metaObject;
+    public ResultMapping propertyMapping;
+    public MappedStatement nestedQuery;
+    public Object parameterObject;
+    public CacheKey cacheKey;
+  }
+
+  private static final class RowKeyBuilder {
+    private final boolean compact;
+    private CacheKey cacheKey;
+    private Object[] values = new Object[8];
+    private int size;
+    private int keyColumns;
+
+    RowKeyBuilder(boolean compact) {
+      this.compact = compact;
+    }
+
+    // the compact key has no column names, the prefix tells apart the same result map nested under different prefixes
+    void start(String resultMapId, String columnPrefix) {
+      keyColumns = 0;
+      if (compact) {
+        size = 0;
+        append(resultMapId);
+        append(columnPrefix);
+      } else {
+        cacheKey = new CacheKey();
+        cacheKey.update(resultMapId);
+      }
+    }
+
+    void update(String column, Object value) {
+      keyColumns++;
+      if (compact) {
+        append(value);
+      } else {
+        cacheKey.update(column);
+        cacheKey.update(value);
+      }
+    }
+
+    // a key column without value, the compact key keeps its position so the values of different columns never match
+    void skip() {
+      if (compact) {
+        append(null);
+      }
+    }
+
+    Object build() {
+      if (keyColumns == 0) {
+        return CacheKey.NULL_CACHE_KEY;
+      }
+      return compact ? new RowKey(Arrays.copyOf(values, size)) : cacheKey;
+    }
+
+    private void append(Object value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size << 1);
+      }
+      values[size++] = value;
+    }
+  }
+
   private static class UnMappedColumnAutoMapping {
     private final String column;   
+    private final int columnIndex;
     private final String property;    
     private final TypeHandler<?> typeHandler;
     private final boolean primitive;
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    public UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive) {
       this.column = column;
+      this.columnIndex = columnIndex;
       this.property = property;
       this.typeHandler = typeHandler;
       this.primitive = primitive;
@@ -129,6 +219,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     this.objectFactory = configuration.getObjectFactory();
     this.reflectorFactory = configuration.getReflectorFactory();
     this.resultHandler = resultHandler;
+    this.rowKeyBuilder = new RowKeyBuilder(configuration.isCompactNestedResultKeys());
   }
 
   //
@@ -189,6 +280,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     int resultMapCount = resultMaps.size();
     //判断是否有结果集，没有则抛出异常
     validateResultMapsCount(rsw, resultMapCount);
+    batchEagerNestedQueries = resultHandler == null;
     while (rsw != null && resultMapCount > resultSetCount) {
       ResultMap resultMap = resultMaps.get(resultSetCount);
       //映射结果集
@@ -221,6 +313,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    //所有结果集处理完后，合并执行收集到的嵌套查询
+    loadPendingBatches();
     return collapseSingleResultList(multipleResults);
   }
 
@@ -239,6 +333,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
+    Integer prefetchSize = configuration.getCursorPrefetchSize();
+    if (prefetchSize != null && prefetchSize > 0) {
+      return new PrefetchingCursor<E>(this, resultMap, rsw, rowBounds, prefetchSize);
+    }
     return new DefaultCursor<E>(this, resultMap, rsw, rowBounds);
   }
 
@@ -366,20 +464,20 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     //跳过rowBounds指定offset行偏移量
     skipRows(rsw.getResultSet(), rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
-      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
+      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw, resultMap, null);
       //获取一行数据
       Object rowValue = getRowValue(rsw, discriminatedResultMap);
       //存储数据对象
-      storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
+      storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw);
     }
   }
 
   /**
    * 存储数据对象
    */
-  private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
+  private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSetWrapper rsw) throws SQLException {
     if (parentMapping != null) {
-      linkToParents(rs, parentMapping, rowValue);
+      linkToParents(rsw, parentMapping, rowValue);
     } else {
       callResultHandler(resultHandler, resultContext, rowValue);
     }
@@ -421,18 +519,101 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, null);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
-      final MetaObject metaObject = configuration.newMetaObject(rowValue);
       boolean foundValues = this.useConstructorMappings;
-      if (shouldApplyAutomaticMappings(resultMap, false)) {
-        foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, null) || foundValues;
+      final RowMapper rowMapper = getRowMapper(rsw, resultMap, rowValue);
+      if (rowMapper != null) {
+        foundValues = rowMapper.map(rsw.getResultSet(), rowValue) || foundValues;
+      } else {
+        final MetaObject metaObject = configuration.newMetaObject(rowValue);
+        if (shouldApplyAutomaticMappings(resultMap, false)) {
+          foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, null) || foundValues;
+        }
+        foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, null) || foundValues;
+        foundValues = lazyLoader.size() > 0 || foundValues;
       }
-      foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, null) || foundValues;
-      foundValues = lazyLoader.size() > 0 || foundValues;
       rowValue = (foundValues || configuration.isReturnInstanceForEmptyRow()) ? rowValue : null;
     }
     return rowValue;
   }
 
+  //
+  // GENERATED ROW MAPPERS
+  //
+
+  private RowMapper getRowMapper(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue) throws SQLException {
+    if (!configuration.isGenerateRowMappers()) {
+      return null;
+    }
+    if (rowMappersResultSet != rsw) {
+      rowMappers.clear();
+      rowMappersResultSet = rsw;
+    }
+    RowMapper rowMapper = rowMappers.get(resultMap.getId());
+    if (rowMapper == null && !rowMappers.containsKey(resultMap.getId())) {
+      rowMapper = createRowMapper(rsw, resultMap, rowValue);
+      rowMappers.put(resultMap.getId(), rowMapper);
+    }
+    if (rowMapper == null || useConstructorMappings || !resultMap.getType().isInstance(rowValue)
+        || configuration.getObjectWrapperFactory().hasWrapperFor(rowValue)) {
+      return null;
+    }
+    return rowMapper;
+  }
+
+  /**
+   * 按自动映射和属性映射的顺序收集要设置的属性，包含嵌套查询、多结果集或复杂属性路径等不支持的映射时返回null
+   */
+  private RowMapper createRowMapper(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue) throws SQLException {
+    final Class<?> type = resultMap.getType();
+    if (useConstructorMappings || !resultMap.getConstructorResultMappings().isEmpty()
+        || !type.isInstance(rowValue) || rowValue instanceof Map || rowValue instanceof Collection
+        || configuration.getObjectWrapperFactory().hasWrapperFor(rowValue)) {
+      return null;
+    }
+    final MetaObject metaObject = configuration.newMetaObject(rowValue);
+    final List<String> properties = new ArrayList<String>();
+    final List<String> columns = new ArrayList<String>();
+    final List<TypeHandler<?>> typeHandlers = new ArrayList<TypeHandler<?>>();
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, metaObject, null)) {
+        properties.add(mapping.property);
+        columns.add(mapping.column);
+        typeHandlers.add(mapping.typeHandler);
+      }
+    }
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, null);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.getNestedQueryId() != null || propertyMapping.getNestedResultMapId() != null
+          || propertyMapping.getResultSet() != null || propertyMapping.isCompositeResult()) {
+        return null;
+      }
+      final String column = propertyMapping.getColumn();
+      if (propertyMapping.getProperty() != null && column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+        properties.add(propertyMapping.getProperty());
+        columns.add(column);
+        typeHandlers.add(propertyMapping.getTypeHandler());
+      }
+    }
+    final int size = properties.size();
+    final Class<?>[] propertyTypes = new Class<?>[size];
+    final int[] columnIndexes = new int[size];
+    final boolean[] callSettersOnNulls = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      final String property = properties.get(i);
+      if (property.indexOf('.') > -1 || property.indexOf('[') > -1 || !metaObject.hasSetter(property)) {
+        return null;
+      }
+      propertyTypes[i] = metaObject.getSetterType(property);
+      columnIndexes[i] = rsw.getColumnIndex(columns.get(i));
+      if (columnIndexes[i] < 1) {
+        return null;
+      }
+      callSettersOnNulls[i] = configuration.isCallSettersOnNulls() && !propertyTypes[i].isPrimitive();
+    }
+    return configuration.getRowMapperGenerator().newRowMapper(type, properties.toArray(new String[size]), propertyTypes,
+        columnIndexes, callSettersOnNulls, typeHandlers.toArray(new TypeHandler<?>[size]));
+  }
+
   private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
     if (resultMap.getAutoMapping() != null) {
       return resultMap.getAutoMapping();
@@ -451,19 +632,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
-    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
     boolean foundValues = false;
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
-      String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      if (propertyMapping.getNestedResultMapId() != null) {
-        // the user added a column attribute to a nested result map, ignore it
-        column = null;
-      }
+    // a column attribute added to a nested result map is ignored, see ResultSetWrapper#getMappedColumnIndexes
+    final int[] columnIndexes = rsw.getMappedColumnIndexes(resultMap, propertyMappings, columnPrefix);
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
       if (propertyMapping.isCompositeResult()
-          || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+          || columnIndexes[i] != 0
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, lazyLoader, columnPrefix, columnIndexes[i]);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -477,28 +655,36 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
         if (value != null || (configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive())) {
           // gcode issue #377, call setter on nulls (value is not 'found')
-          metaObject.setValue(property, value);
+          propertyMapping.getPropertyPath().setValue(metaObject.getOriginalObject(), value, configuration.getObjectFactory(),
+              configuration.getObjectWrapperFactory(), configuration.getReflectorFactory());
         }
       }
     }
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
-      throws SQLException {
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix,
+      int columnIndex) throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
-      return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
+      return getNestedQueryMappingValue(rsw, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
-      addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
+      addPendingChildRelation(rsw, metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERED;
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
+      if (columnIndex > 0) {
+        return typeHandler.getResult(rsw.getResultSet(), columnIndex);
+      }
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return typeHandler.getResult(rsw.getResultSet(), column);
     }
   }
 
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
+    if (autoMappingsResultSet != rsw) {
+      autoMappingsCache.clear();
+      autoMappingsResultSet = rsw;
+    }
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
     if (autoMapping == null) {
@@ -523,7 +709,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final Class<?> propertyType = metaObject.getSetterType(property);
           if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
             final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+            autoMapping.add(new UnMappedColumnAutoMapping(columnName, rsw.getColumnIndex(columnName), property, typeHandler,
+                propertyType.isPrimitive()));
           } else {
             configuration.getAutoMappingUnknownColumnBehavior()
                     .doAction(mappedStatement, columnName, property, propertyType);
@@ -543,7 +730,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     boolean foundValues = false;
     if (autoMapping.size() > 0) {
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        final Object value = mapping.columnIndex > 0
+            ? mapping.typeHandler.getResult(rsw.getResultSet(), mapping.columnIndex)
+            : mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -558,8 +747,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   // MULTIPLE RESULT SETS
 
-  private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
-    CacheKey parentKey = createKeyForMultipleResults(rs, parentMapping, parentMapping.getColumn(), parentMapping.getForeignColumn());
+  private void linkToParents(ResultSetWrapper rsw, ResultMapping parentMapping, Object rowValue) throws SQLException {
+    CacheKey parentKey = createKeyForMultipleResults(rsw, parentMapping, parentMapping.getColumn(), parentMapping.getForeignColumn());
     List<PendingRelation> parents = pendingRelations.get(parentKey);
     if (parents != null) {
       for (PendingRelation parent : parents) {
@@ -570,8 +759,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
-  private void addPendingChildRelation(ResultSet rs, MetaObject metaResultObject, ResultMapping parentMapping) throws SQLException {
-    CacheKey cacheKey = createKeyForMultipleResults(rs, parentMapping, parentMapping.getColumn(), parentMapping.getColumn());
+  private void addPendingChildRelation(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping parentMapping) throws SQLException {
+    CacheKey cacheKey = createKeyForMultipleResults(rsw, parentMapping, parentMapping.getColumn(), parentMapping.getColumn());
     PendingRelation deferLoad = new PendingRelation();
     deferLoad.metaObject = metaResultObject;
     deferLoad.propertyMapping = parentMapping;
@@ -592,14 +781,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
-  private CacheKey createKeyForMultipleResults(ResultSet rs, ResultMapping resultMapping, String names, String columns) throws SQLException {
+  private CacheKey createKeyForMultipleResults(ResultSetWrapper rsw, ResultMapping resultMapping, String names, String columns) throws SQLException {
     CacheKey cacheKey = new CacheKey();
     cacheKey.update(resultMapping);
     if (columns != null && names != null) {
       String[] columnsArray = columns.split(",");
       String[] namesArray = names.split(",");
       for (int i = 0 ; i < columnsArray.length ; i++) {
-        Object value = rs.getString(columnsArray[i]);
+        Object value = getColumnString(rsw, columnsArray[i]);
         if (value != null) {
           cacheKey.update(namesArray[i]);
           cacheKey.update(value);
@@ -658,13 +847,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final Object value;
       try {
         if (constructorMapping.getNestedQueryId() != null) {
-          value = getNestedQueryConstructorValue(rsw.getResultSet(), constructorMapping, columnPrefix);
+          value = getNestedQueryConstructorValue(rsw, constructorMapping, columnPrefix);
         } else if (constructorMapping.getNestedResultMapId() != null) {
           final ResultMap resultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
           value = getRowValue(rsw, resultMap);
         } else {
           final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          value = getColumnValue(rsw, typeHandler, prependPrefix(column, columnPrefix));
         }
       } catch (ResultMapException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -687,7 +876,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           Class<?> parameterType = constructor.getParameterTypes()[i];
           String columnName = rsw.getColumnNames().get(i);
           TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-          Object value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(columnName, columnPrefix));
+          Object value = getColumnValue(rsw, typeHandler, prependPrefix(columnName, columnPrefix));
           constructorArgTypes.add(parameterType);
           constructorArgs.add(value);
           foundValues = value != null || foundValues;
@@ -717,18 +906,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       columnName = rsw.getColumnNames().get(0);
     }
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    return getColumnValue(rsw, typeHandler, columnName);
   }
 
   //
   // NESTED QUERY
   //
 
-  private Object getNestedQueryConstructorValue(ResultSet rs, ResultMapping constructorMapping, String columnPrefix) throws SQLException {
+  private Object getNestedQueryConstructorValue(ResultSetWrapper rsw, ResultMapping constructorMapping, String columnPrefix) throws SQLException {
     final String nestedQueryId = constructorMapping.getNestedQueryId();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, constructorMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rsw, constructorMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
     if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
@@ -740,13 +929,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
-  private Object getNestedQueryMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  private Object getNestedQueryMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
     final String nestedQueryId = propertyMapping.getNestedQueryId();
     final String property = propertyMapping.getProperty();
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rsw, propertyMapping, nestedQueryParameterType, columnPrefix);
     Object value = null;
     if (nestedQueryParameterObject != null) {
       final BoundSql nestedBoundSql = nestedQuery.getBoundSql(nestedQueryParameterObject);
@@ -755,6 +944,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (executor.isCached(nestedQuery, key)) {
         executor.deferLoad(nestedQuery, metaResultObject, property, key, targetType);
         value = DEFERED;
+      } else if (propertyMapping.getNestedBatchQueryId() != null && (propertyMapping.isLazy() || batchEagerNestedQueries)) {
+        final BatchLoader batchLoader = getBatchLoader(propertyMapping);
+        batchLoader.addKey(nestedQueryParameterObject);
+        if (propertyMapping.isLazy()) {
+          lazyLoader.addLoader(property, metaResultObject,
+              new BatchResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql, batchLoader));
+        } else {
+          PendingBatchLoad pending = new PendingBatchLoad();
+          pending.metaObject = metaResultObject;
+          pending.propertyMapping = propertyMapping;
+          pending.nestedQuery = nestedQuery;
+          pending.parameterObject = nestedQueryParameterObject;
+          pending.cacheKey = key;
+          pendingBatchLoads.add(pending);
+        }
+        value = DEFERED;
       } else {
         final ResultLoader resultLoader = new ResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql);
         if (propertyMapping.isLazy()) {
@@ -768,32 +973,73 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
-  private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private BatchLoader getBatchLoader(ResultMapping propertyMapping) {
+    BatchLoader batchLoader = batchLoaders.get(propertyMapping);
+    if (batchLoader == null) {
+      final MappedStatement batchQuery = configuration.getMappedStatement(propertyMapping.getNestedBatchQueryId());
+      batchLoader = new BatchLoader(configuration, executor, batchQuery, propertyMapping.getBatchKey());
+      batchLoaders.put(propertyMapping, batchLoader);
+    }
+    return batchLoader;
+  }
+
+  private void loadPendingBatches() throws SQLException {
+    if (pendingBatchLoads.isEmpty()) {
+      return;
+    }
+    final ResultExtractor resultExtractor = new ResultExtractor(configuration, objectFactory);
+    final Set<BatchLoader> incompleteLoaders = new HashSet<BatchLoader>();
+    for (PendingBatchLoad pending : pendingBatchLoads) {
+      final BatchLoader batchLoader = batchLoaders.get(pending.propertyMapping);
+      if (!incompleteLoaders.contains(batchLoader) && !batchLoader.loadPending()) {
+        incompleteLoaders.add(batchLoader);
+      }
+      final String property = pending.propertyMapping.getProperty();
+      final Class<?> targetType = pending.propertyMapping.getJavaType();
+      final Object value;
+      if (batchLoader.isLoaded(pending.parameterObject)) {
+        value = resultExtractor.extractObjectFromList(batchLoader.getResults(pending.parameterObject), targetType);
+      } else if (executor.isCached(pending.nestedQuery, pending.cacheKey)) {
+        // circular nested selects, same as a single nested select
+        executor.deferLoad(pending.nestedQuery, pending.metaObject, property, pending.cacheKey, targetType);
+        continue;
+      } else {
+        final BoundSql nestedBoundSql = pending.nestedQuery.getBoundSql(pending.parameterObject);
+        value = new ResultLoader(configuration, executor, pending.nestedQuery, pending.parameterObject, targetType, pending.cacheKey, nestedBoundSql).loadResult();
+      }
+      if (value != null || (configuration.isCallSettersOnNulls() && !pending.metaObject.getSetterType(property).isPrimitive())) {
+        pending.metaObject.setValue(property, value);
+      }
+    }
+    pendingBatchLoads.clear();
+  }
+
+  private Object prepareParameterForNestedQuery(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
-      return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
+      return prepareCompositeKeyParameter(rsw, resultMapping, parameterType, columnPrefix);
     } else {
-      return prepareSimpleKeyParameter(rs, resultMapping, parameterType, columnPrefix);
+      return prepareSimpleKeyParameter(rsw, resultMapping, parameterType, columnPrefix);
     }
   }
 
-  private Object prepareSimpleKeyParameter(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private Object prepareSimpleKeyParameter(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     final TypeHandler<?> typeHandler;
     if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
       typeHandler = typeHandlerRegistry.getTypeHandler(parameterType);
     } else {
       typeHandler = typeHandlerRegistry.getUnknownTypeHandler();
     }
-    return typeHandler.getResult(rs, prependPrefix(resultMapping.getColumn(), columnPrefix));
+    return getColumnValue(rsw, typeHandler, prependPrefix(resultMapping.getColumn(), columnPrefix));
   }
 
-  private Object prepareCompositeKeyParameter(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
+  private Object prepareCompositeKeyParameter(ResultSetWrapper rsw, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     final Object parameterObject = instantiateParameterObject(parameterType);
     final MetaObject metaObject = configuration.newMetaObject(parameterObject);
     boolean foundValues = false;
     for (ResultMapping innerResultMapping : resultMapping.getComposites()) {
       final Class<?> propType = metaObject.getSetterType(innerResultMapping.getProperty());
       final TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(propType);
-      final Object propValue = typeHandler.getResult(rs, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
+      final Object propValue = getColumnValue(rsw, typeHandler, prependPrefix(innerResultMapping.getColumn(), columnPrefix));
       // issue #353 & #560 do not execute nested query if key is null
       if (propValue != null) {
         metaObject.setValue(innerResultMapping.getProperty(), propValue);
@@ -818,10 +1064,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public ResultMap resolveDiscriminatedResultMap(ResultSet rs, ResultMap resultMap, String columnPrefix) throws SQLException {
+    return resolveDiscriminatedResultMap(new ResultSetWrapper(rs, configuration), resultMap, columnPrefix);
+  }
+
+  public ResultMap resolveDiscriminatedResultMap(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
     Set<String> pastDiscriminators = new HashSet<String>();
     Discriminator discriminator = resultMap.getDiscriminator();
     while (discriminator != null) {
-      final Object value = getDiscriminatorValue(rs, discriminator, columnPrefix);
+      final Object value = getDiscriminatorValue(rsw, discriminator, columnPrefix);
       final String discriminatedMapId = discriminator.getMapIdFor(String.valueOf(value));
       if (configuration.hasResultMap(discriminatedMapId)) {
         resultMap = configuration.getResultMap(discriminatedMapId);
@@ -837,10 +1087,23 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMap;
   }
 
-  private Object getDiscriminatorValue(ResultSet rs, Discriminator discriminator, String columnPrefix) throws SQLException {
+  private Object getDiscriminatorValue(ResultSetWrapper rsw, Discriminator discriminator, String columnPrefix) throws SQLException {
     final ResultMapping resultMapping = discriminator.getResultMapping();
     final TypeHandler<?> typeHandler = resultMapping.getTypeHandler();
-    return typeHandler.getResult(rs, prependPrefix(resultMapping.getColumn(), columnPrefix));
+    return getColumnValue(rsw, typeHandler, prependPrefix(resultMapping.getColumn(), columnPrefix));
+  }
+
+  /**
+   * 按ResultSetWrapper解析出的列序号读取，结果集中没有该列标签时仍按名称读取
+   */
+  private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column) throws SQLException {
+    final int index = rsw.getColumnIndex(column);
+    return index > 0 ? typeHandler.getResult(rsw.getResultSet(), index) : typeHandler.getResult(rsw.getResultSet(), column);
+  }
+
+  private String getColumnString(ResultSetWrapper rsw, String column) throws SQLException {
+    final int index = rsw.getColumnIndex(column);
+    return index > 0 ? rsw.getResultSet().getString(index) : rsw.getResultSet().getString(column);
   }
 
   private String prependPrefix(String columnName, String prefix) {
@@ -862,9 +1125,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
       //鉴别器通过制定字段获取另一个结果的映射
-      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
+      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw, resultMap, null);
       //获取结果集的唯一key
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+      final Object rowKey = createRowKey(discriminatedResultMap, rsw, null);
       //从缓存中获取key对应的结果对象
       Object partialObject = nestedResultObjects.get(rowKey);
       //获取配置项resultOrdered，是否为嵌套结果集。
@@ -872,19 +1135,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (partialObject == null && rowValue != null) {
           nestedResultObjects.clear();
           //存储结果对象
-          storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
+          storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw);
         }
         //获取行值
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
       } else {
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
         if (partialObject == null) {
-          storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
+          storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw);
         }
       }
     }
     if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
-      storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
+      storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw);
       previousRowValue = null;
     } else if (rowValue != null) {
       previousRowValue = rowValue;
@@ -895,7 +1158,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, Object combinedKey, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object rowValue = partialObject;
     if (rowValue != null) {
@@ -934,14 +1197,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, Object parentRowKey, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
       if (nestedResultMapId != null && resultMapping.getResultSet() == null) {
         try {
           final String columnPrefix = getColumnPrefix(parentPrefix, resultMapping);
-          final ResultMap nestedResultMap = getNestedResultMap(rsw.getResultSet(), nestedResultMapId, columnPrefix);
+          final ResultMap nestedResultMap = getNestedResultMap(rsw, nestedResultMapId, columnPrefix);
           if (resultMapping.getColumnPrefix() == null) {
             // try to fill circular reference only when columnPrefix
             // is not specified for the nested result map (issue #215)
@@ -953,8 +1216,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           } 
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          final Object rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
+          final Object combinedKey = combineKeys(rowKey, parentRowKey);
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = (rowValue != null);
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -989,7 +1252,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (notNullColumns != null && !notNullColumns.isEmpty()) {
       ResultSet rs = rsw.getResultSet();
       for (String column: notNullColumns) {
-        rs.getObject(prependPrefix(column, columnPrefix));
+        final String prefixedColumn = prependPrefix(column, columnPrefix);
+        final int index = rsw.getColumnIndex(prefixedColumn);
+        if (index > 0) {
+          rs.getObject(index);
+        } else {
+          rs.getObject(prefixedColumn);
+        }
         if (!rs.wasNull()) {
           return true;
         }
@@ -1006,43 +1275,51 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return true;
   }
 
-  private ResultMap getNestedResultMap(ResultSet rs, String nestedResultMapId, String columnPrefix) throws SQLException {
+  private ResultMap getNestedResultMap(ResultSetWrapper rsw, String nestedResultMapId, String columnPrefix) throws SQLException {
     ResultMap nestedResultMap = configuration.getResultMap(nestedResultMapId);
-    return resolveDiscriminatedResultMap(rs, nestedResultMap, columnPrefix);
+    return resolveDiscriminatedResultMap(rsw, nestedResultMap, columnPrefix);
   }
 
   //
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
+  /**
+   * 创建行的唯一key，开启compactNestedResultKeys时为只含resultMap id、列前缀和各key列值的RowKey，否则为CacheKey。没有key列的值时返回CacheKey.NULL_CACHE_KEY
+   */
+  private Object createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    final RowKeyBuilder rowKey = rowKeyBuilder;
+    rowKey.start(resultMap.getId(), columnPrefix);
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
     if (resultMappings.size() == 0) {
       if (Map.class.isAssignableFrom(resultMap.getType())) {
-        createRowKeyForMap(rsw, cacheKey);
+        createRowKeyForMap(rsw, rowKey);
       } else {
-        createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+        createRowKeyForUnmappedProperties(resultMap, rsw, rowKey, columnPrefix);
       }
     } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
+      createRowKeyForMappedProperties(resultMap, rsw, rowKey, resultMappings, columnPrefix);
     }
-    if (cacheKey.getUpdateCount() < 2) {
-      return CacheKey.NULL_CACHE_KEY;
-    }    
-    return cacheKey;
+    return rowKey.build();
   }
 
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
+  private Object combineKeys(Object rowKey, Object parentRowKey) {
+    if (rowKey == CacheKey.NULL_CACHE_KEY || parentRowKey == CacheKey.NULL_CACHE_KEY) {
+      return CacheKey.NULL_CACHE_KEY;
+    }
+    if (rowKey instanceof RowKey) {
+      return ((RowKey) rowKey).combine((RowKey) parentRowKey);
+    }
+    CacheKey cacheKey = (CacheKey) rowKey;
+    CacheKey parentCacheKey = (CacheKey) parentRowKey;
+    if (cacheKey.getUpdateCount() > 1 && parentCacheKey.getUpdateCount() > 1) {
       CacheKey combinedKey;
       try {
-        combinedKey = rowKey.clone();
+        combinedKey = cacheKey.clone();
       } catch (CloneNotSupportedException e) {
         throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
       }
-      combinedKey.update(parentRowKey);
+      combinedKey.update(parentCacheKey);
       return combinedKey;
     }
     return CacheKey.NULL_CACHE_KEY;
@@ -1056,30 +1333,32 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
-    for (ResultMapping resultMapping : resultMappings) {
+  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, RowKeyBuilder rowKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    final int[] columnIndexes = rsw.getMappedColumnIndexes(resultMap, resultMappings, columnPrefix);
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final ResultMapping resultMapping = resultMappings.get(i);
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
+        createRowKeyForMappedProperties(nestedResultMap, rsw, rowKey, nestedResultMap.getConstructorResultMappings(),
             prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
-        final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
-        final TypeHandler<?> th = resultMapping.getTypeHandler();
-        List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
-        if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
+        if (columnIndexes[i] != 0) {
+          final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
+          final TypeHandler<?> th = resultMapping.getTypeHandler();
+          final Object value = columnIndexes[i] > 0 ? th.getResult(rsw.getResultSet(), columnIndexes[i]) : th.getResult(rsw.getResultSet(), column);
           if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
+            rowKey.update(column, value);
+          } else {
+            rowKey.skip();
           }
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, RowKeyBuilder rowKey, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
     for (String column : unmappedColumnNames) {
@@ -1093,22 +1372,24 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
       if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-        String value = rsw.getResultSet().getString(column);
+        String value = getColumnString(rsw, column);
         if (value != null) {
-          cacheKey.update(column);
-          cacheKey.update(value);
+          rowKey.update(column, value);
+        } else {
+          rowKey.skip();
         }
       }
     }
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
+  private void createRowKeyForMap(ResultSetWrapper rsw, RowKeyBuilder rowKey) throws SQLException {
     List<String> columnNames = rsw.getColumnNames();
     for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
+      final String value = getColumnString(rsw, columnName);
       if (value != null) {
-        cacheKey.update(columnName);
-        cacheKey.update(value);
+        rowKey.update(columnName, value);
+      } else {
+        rowKey.skip();
       }
     }
   }
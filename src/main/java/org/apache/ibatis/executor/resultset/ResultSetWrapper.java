@@ -22,12 +22,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.ObjectTypeHandler;
@@ -45,9 +47,13 @@ public class ResultSetWrapper {
   private final List<String> columnNames = new ArrayList<String>();
   private final List<String> classNames = new ArrayList<String>();
   private final List<JdbcType> jdbcTypes = new ArrayList<JdbcType>();
+  //列标签（大写）到列序号的映射，同名列取第一个，与按名称读取时驱动的查找规则一致
+  private final Map<String, Integer> columnIndexes = new HashMap<String, Integer>();
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<String, Map<Class<?>, TypeHandler<?>>>();
   private Map<String, List<String>> mappedColumnNamesMap = new HashMap<String, List<String>>();
   private Map<String, List<String>> unMappedColumnNamesMap = new HashMap<String, List<String>>();
+  //映射列表中各列的序号，按结果映射和列前缀区分，映射列表按引用区分
+  private final Map<String, Map<List<ResultMapping>, int[]>> mappedColumnIndexesMap = new HashMap<String, Map<List<ResultMapping>, int[]>>();
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -56,7 +62,14 @@ public class ResultSetWrapper {
     final ResultSetMetaData metaData = rs.getMetaData();
     final int columnCount = metaData.getColumnCount();
     for (int i = 1; i <= columnCount; i++) {
-      columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
+      final String columnLabel = metaData.getColumnLabel(i);
+      columnNames.add(configuration.isUseColumnLabel() ? columnLabel : metaData.getColumnName(i));
+      if (columnLabel != null) {
+        final String upperColumnLabel = columnLabel.toUpperCase(Locale.ENGLISH);
+        if (!columnIndexes.containsKey(upperColumnLabel)) {
+          columnIndexes.put(upperColumnLabel, i);
+        }
+      }
       jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
       classNames.add(metaData.getColumnClassName(i));
     }
@@ -70,6 +83,20 @@ public class ResultSetWrapper {
     return this.columnNames;
   }
 
+  /**
+   * Gets the index of the first column with the given label, ignoring case.
+   *
+   * @param columnLabel
+   * @return the column index (starting at 1), or -1 if no column has this label
+   */
+  public int getColumnIndex(String columnLabel) {
+    if (columnLabel == null) {
+      return -1;
+    }
+    final Integer index = columnIndexes.get(columnLabel.toUpperCase(Locale.ENGLISH));
+    return index == null ? -1 : index;
+  }
+
   public List<String> getClassNames() {
     return Collections.unmodifiableList(classNames);
   }
@@ -172,6 +199,44 @@ public class ResultSetWrapper {
     return unMappedColumnNames;
   }
 
+  /**
+   * Gets the column indexes of the given result mappings, resolved once per result set.
+   * An element is 0 if the mapping has no column, is a nested result map mapping or its column
+   * is not a mapped column of this result set, -1 if the column is mapped but has no matching
+   * label and must be read by name, and the column index otherwise.
+   *
+   * @param resultMap
+   * @param resultMappings mappings of the result map, e.g. {@link ResultMap#getPropertyResultMappings()}
+   * @param columnPrefix
+   * @return the column indexes, in the order of the mappings
+   */
+  public int[] getMappedColumnIndexes(ResultMap resultMap, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    final String mapKey = getMapKey(resultMap, columnPrefix);
+    Map<List<ResultMapping>, int[]> indexesMap = mappedColumnIndexesMap.get(mapKey);
+    if (indexesMap == null) {
+      indexesMap = new IdentityHashMap<List<ResultMapping>, int[]>();
+      mappedColumnIndexesMap.put(mapKey, indexesMap);
+    }
+    int[] indexes = indexesMap.get(resultMappings);
+    if (indexes == null) {
+      final List<String> mappedColumnNames = getMappedColumnNames(resultMap, columnPrefix);
+      indexes = new int[resultMappings.size()];
+      for (int i = 0; i < indexes.length; i++) {
+        final ResultMapping resultMapping = resultMappings.get(i);
+        final String column = resultMapping.getColumn();
+        if (column == null || (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null)) {
+          continue;
+        }
+        final String prefixedColumn = columnPrefix == null || columnPrefix.length() == 0 ? column : columnPrefix + column;
+        if (mappedColumnNames.contains(prefixedColumn.toUpperCase(Locale.ENGLISH))) {
+          indexes[i] = getColumnIndex(prefixedColumn);
+        }
+      }
+      indexesMap.put(resultMappings, indexes);
+    }
+    return indexes;
+  }
+
   private String getMapKey(ResultMap resultMap, String columnPrefix) {
     return resultMap.getId() + ":" + columnPrefix;
   }
@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+/**
+ * Compact key of a row of a nested result map. It holds the result map id followed by the value of each key column,
+ * in the order the columns are read, with <code>null</code> for the columns that had no value.
+ * A key combined with the key of its parent row simply holds the values of both, so no chain of keys is retained.
+ */
+final class RowKey {
+
+  private final Object[] values;
+  private final int hashCode;
+
+  RowKey(Object[] values) {
+    this.values = values;
+    this.hashCode = Arrays.deepHashCode(values);
+  }
+
+  RowKey combine(RowKey parentRowKey) {
+    Object[] combinedValues = new Object[values.length + parentRowKey.values.length];
+    System.arraycopy(values, 0, combinedValues, 0, values.length);
+    System.arraycopy(parentRowKey.values, 0, combinedValues, values.length, parentRowKey.values.length);
+    return new RowKey(combinedValues);
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof RowKey)) {
+      return false;
+    }
+    RowKey rowKey = (RowKey) object;
+    return hashCode == rowKey.hashCode && Arrays.deepEquals(values, rowKey.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.deepToString(values);
+  }
+
+}
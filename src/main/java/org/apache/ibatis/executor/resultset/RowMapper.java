@@ -0,0 +1,38 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Base class of the row mappers generated by {@link RowMapperGenerator}.
+ * A generated mapper reads the columns of the current row by index and calls the setters of the result object directly.
+ */
+public abstract class RowMapper {
+
+  protected TypeHandler<?>[] typeHandlers;
+
+  /**
+   * Sets the properties of the target from the current row.
+   *
+   * @return true if any column had a value
+   */
+  public abstract boolean map(ResultSet rs, Object target) throws SQLException;
+
+}
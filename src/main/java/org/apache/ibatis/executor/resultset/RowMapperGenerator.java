@@ -0,0 +1,148 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.reflection.JavassistUtil;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeReference;
+
+/**
+ * Generates and caches {@link RowMapper} classes with javassist.
+ * A class is generated once for each result type and column layout and is shared by all the statements using it.
+ */
+public class RowMapperGenerator {
+
+  private static final Object UNSUPPORTED = new Object();
+
+  private final ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> mapperClasses = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Object>>();
+
+  /**
+   * Returns a row mapper that sets each property from the column at the same position,
+   * or null if no mapper can be generated for the type (e.g. it is not public or a property has no public setter)
+   * or a type handler of a primitive property does not return the wrapper of the property type.
+   */
+  public RowMapper newRowMapper(Class<?> type, String[] properties, Class<?>[] propertyTypes, int[] columns,
+      boolean[] callSettersOnNulls, TypeHandler<?>[] typeHandlers) {
+    for (int i = 0; i < propertyTypes.length; i++) {
+      if (!returnsWrapper(typeHandlers[i], propertyTypes[i])) {
+        return null;
+      }
+    }
+    ConcurrentMap<String, Object> classes = mapperClasses.get(type);
+    if (classes == null) {
+      classes = new ConcurrentHashMap<String, Object>();
+      ConcurrentMap<String, Object> existing = mapperClasses.putIfAbsent(type, classes);
+      if (existing != null) {
+        classes = existing;
+      }
+    }
+    StringBuilder key = new StringBuilder();
+    for (int i = 0; i < properties.length; i++) {
+      key.append(properties[i]).append(':').append(propertyTypes[i].getName()).append(':').append(columns[i]);
+      key.append(callSettersOnNulls[i] ? ":n;" : ";");
+    }
+    Object mapperClass = classes.get(key.toString());
+    if (mapperClass == null) {
+      mapperClass = generate(type, properties, propertyTypes, columns, callSettersOnNulls);
+      classes.putIfAbsent(key.toString(), mapperClass);
+    }
+    if (mapperClass == UNSUPPORTED) {
+      return null;
+    }
+    try {
+      RowMapper rowMapper = (RowMapper) ((Class<?>) mapperClass).newInstance();
+      rowMapper.typeHandlers = typeHandlers;
+      return rowMapper;
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private Object generate(Class<?> type, String[] properties, Class<?>[] propertyTypes, int[] columns, boolean[] callSettersOnNulls) {
+    if (!Modifier.isPublic(type.getModifiers())) {
+      return UNSUPPORTED;
+    }
+    Method[] setters = new Method[properties.length];
+    for (int i = 0; i < properties.length; i++) {
+      setters[i] = findSetter(type, properties[i], propertyTypes[i]);
+      if (setters[i] == null) {
+        return UNSUPPORTED;
+      }
+    }
+    ClassLoader loader = type.getClassLoader();
+    if (loader == null || !JavassistUtil.isVisible(RowMapper.class, loader)) {
+      loader = RowMapper.class.getClassLoader();
+      if (!JavassistUtil.isVisible(type, loader)) {
+        return UNSUPPORTED;
+      }
+    }
+    String typeName = JavassistUtil.sourceName(type);
+    StringBuilder source = new StringBuilder();
+    source.append("public boolean map(java.sql.ResultSet rs, java.lang.Object target) throws java.sql.SQLException {");
+    source.append(typeName).append(" o = (").append(typeName).append(") target;");
+    source.append("boolean found = false; java.lang.Object v;");
+    for (int i = 0; i < setters.length; i++) {
+      String setter = setters[i].getName();
+      source.append("v = typeHandlers[").append(i).append("].getResult(rs, ").append(columns[i]).append(");");
+      source.append("if (v != null) { o.").append(setter).append('(').append(valueOf(propertyTypes[i])).append("); found = true; }");
+      if (callSettersOnNulls[i] && !propertyTypes[i].isPrimitive()) {
+        source.append(" else { o.").append(setter).append("((").append(JavassistUtil.sourceName(propertyTypes[i])).append(") null); }");
+      }
+    }
+    source.append("return found; }");
+    Class<?> mapperClass = JavassistUtil.generate(type, "RowMapper", RowMapper.class, loader, source.toString());
+    return mapperClass != null ? mapperClass : UNSUPPORTED;
+  }
+
+  private Method findSetter(Class<?> type, String property, Class<?> propertyType) {
+    String[] names = { "set" + property.substring(0, 1).toUpperCase() + property.substring(1), "set" + property };
+    for (String name : names) {
+      try {
+        Method method = type.getMethod(name, propertyType);
+        if (!Modifier.isStatic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+          return method;
+        }
+      } catch (NoSuchMethodException e) {
+        // try the next name
+      }
+    }
+    return null;
+  }
+
+  /*
+   * A primitive property is set with the value cast to its wrapper. A handler returning another type, e.g. an
+   * Integer for a long property, is left to the reflective mapping, which widens the value like Method.invoke.
+   */
+  private boolean returnsWrapper(TypeHandler<?> typeHandler, Class<?> propertyType) {
+    if (!propertyType.isPrimitive()) {
+      return true;
+    }
+    return typeHandler instanceof TypeReference && ((TypeReference<?>) typeHandler).getRawType() == JavassistUtil.wrapperOf(propertyType);
+  }
+
+  private String valueOf(Class<?> propertyType) {
+    if (!propertyType.isPrimitive()) {
+      return "(" + JavassistUtil.sourceName(propertyType) + ") v";
+    }
+    return "((" + JavassistUtil.wrapperOf(propertyType).getName() + ") v)." + propertyType.getName() + "Value()";
+  }
+
+}
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.session.Configuration;
 
@@ -73,4 +74,13 @@ public class BoundSql {
   public Object getAdditionalParameter(String name) {
     return metaParameters.getValue(name);
   }
+
+  public boolean hasAdditionalParameter(PropertyPath path) {
+    return additionalParameters.containsKey(path.getRootName());
+  }
+
+  public Object getAdditionalParameter(PropertyPath path) {
+    return path.getValue(additionalParameters, metaParameters.getObjectFactory(),
+        metaParameters.getObjectWrapperFactory(), metaParameters.getReflectorFactory());
+  }
 }
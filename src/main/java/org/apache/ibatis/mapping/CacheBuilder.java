@@ -23,13 +23,18 @@ import java.util.Properties;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.ThreadSafeCache;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.MetricsCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -43,9 +48,11 @@ public class CacheBuilder {
   private List<Class<? extends Cache>> decorators;
   private Integer size;
   private Long clearInterval;
+  private Long timeToLive;
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private boolean metrics;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -74,6 +81,11 @@ public class CacheBuilder {
     return this;
   }
 
+  public CacheBuilder timeToLive(Long timeToLive) {
+    this.timeToLive = timeToLive;
+    return this;
+  }
+
   public CacheBuilder readWrite(boolean readWrite) {
     this.readWrite = readWrite;
     return this;
@@ -84,6 +96,11 @@ public class CacheBuilder {
     return this;
   }
   
+  public CacheBuilder metrics(boolean metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
@@ -103,7 +120,27 @@ public class CacheBuilder {
         setCacheProperties(cache);
       }
       //根据flushInterval，readOnly，blocking属性装饰缓存
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, true);
+    } else if (ConcurrentCache.class.equals(cache.getClass())) {
+      if (size != null) {
+        ((ConcurrentCache) cache).setSize(size);
+      }
+      // ConcurrentCache evicts by itself, only decorators that need no locking are stacked over it
+      for (Class<? extends Cache> decorator : decorators) {
+        if (LruCache.class.equals(decorator) || FifoCache.class.equals(decorator)) {
+          // replaced by its own eviction, LRU is also the default eviction of any cache
+          continue;
+        }
+        if (!ThreadSafeCache.class.isAssignableFrom(decorator)) {
+          throw new CacheException("Cache decorator " + decorator.getName() + " cannot be used with ConcurrentCache in '"
+              + id + "'. Decorators of a ConcurrentCache must implement " + ThreadSafeCache.class.getName() + ".");
+        }
+        cache = newCacheDecoratorInstance(decorator, cache);
+        setCacheProperties(cache);
+      }
+      cache = setStandardDecorators(cache, false);
+    } else if (metrics) {
+      cache = new MetricsCache(cache);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
       cache = new LoggingCache(cache);
     }
@@ -119,7 +156,7 @@ public class CacheBuilder {
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, boolean synchronize) {
     try {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
@@ -129,13 +166,27 @@ public class CacheBuilder {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
       }
+      if (timeToLive != null) {
+        cache = new ExpiringCache(cache);
+        ((ExpiringCache) cache).setTimeToLive(timeToLive);
+        setCacheProperties(cache);
+      }
       if (readWrite) {
         cache = new SerializedCache(cache);
+        setCacheProperties(cache);
+      }
+      if (!metrics) {
+        cache = new LoggingCache(cache);
+      }
+      if (synchronize) {
+        cache = new SynchronizedCache(cache);
       }
-      cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
       if (blocking) {
         cache = new BlockingCache(cache);
+        setCacheProperties(cache);
+      }
+      if (metrics) {
+        cache = new MetricsCache(cache);
       }
       return cache;
     } catch (Exception e) {
@@ -17,22 +17,32 @@ package org.apache.ibatis.mapping;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.defaults.MultiRowSqlSource;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
 
 /**
  * @author Clinton Begin
  */
 public final class MappedStatement {
 
+  private static final String[] NO_NESTED_QUERIES = new String[0];
+
   private String resource;
   private Configuration configuration;
   private String id;
@@ -56,6 +66,10 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private String[] tables;
+  private volatile CacheKeyPrefix cacheKeyPrefix;
+  private volatile ParsedTables parsedTables;
+  private volatile String[] nestedQueryTables;
 
   MappedStatement() {
     // constructor disabled
@@ -173,6 +187,12 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder tables(String tables) {
+      String[] declared = delimitedStringToArray(tables);
+      mappedStatement.tables = declared == null ? null : SqlTables.normalize(declared);
+      return this;
+    }
+
     /** @deprecated Use {@link #resultSets} */
     @Deprecated
     public Builder resulSets(String resultSet) {
@@ -288,6 +308,145 @@ public final class MappedStatement {
     return resultSets;
   }
   
+  /**
+   * Returns the first components of the cache keys of this statement (its id, the default row bounds and its sql)
+   * so executors do not need to hash them again on each query.
+   *
+   * @param sql the sql of the current execution
+   * @return null unless the sql is static and the same instance this statement always produces
+   */
+  public CacheKey getCacheKeyPrefix(String sql) {
+    if (!(sqlSource instanceof StaticSqlSource || sqlSource instanceof RawSqlSource)) {
+      return null;
+    }
+    CacheKeyPrefix prefix = cacheKeyPrefix;
+    if (prefix == null) {
+      CacheKey key = new CacheKey(4);
+      key.update(id);
+      key.update(RowBounds.NO_ROW_OFFSET);
+      key.update(RowBounds.NO_ROW_LIMIT);
+      key.update(sql);
+      prefix = new CacheKeyPrefix(sql, key);
+      cacheKeyPrefix = prefix;
+    }
+    // plugins may have rewritten the sql
+    return prefix.sql == sql ? prefix.key : null;
+  }
+
+  /**
+   * @return the maximum number of rows inserted by each execution of a multi-row insert, 0 for other statements
+   */
+  public int getMultiRowSize() {
+    return sqlSource instanceof MultiRowSqlSource ? ((MultiRowSqlSource) sqlSource).getMaxRows() : 0;
+  }
+
+  /**
+   * @return the tables declared by this statement, null if they are inferred from its sql
+   */
+  public String[] getTables() {
+    return tables;
+  }
+
+  /**
+   * Returns the tables this statement reads, or writes for an insert, update or delete.
+   *
+   * @param boundSql the sql of the current execution
+   * @return the declared tables or the ones found in the sql, empty if they are not known
+   */
+  public String[] getTables(BoundSql boundSql) {
+    if (tables != null) {
+      return tables;
+    }
+    String sql = boundSql.getSql();
+    ParsedTables parsed = parsedTables;
+    if (parsed != null && parsed.sql == sql) {
+      return parsed.tables;
+    }
+    String[] found = statementType == StatementType.CALLABLE ? new String[0] : SqlTables.parse(sql);
+    if (sqlSource instanceof StaticSqlSource || sqlSource instanceof RawSqlSource || sqlSource instanceof MultiRowSqlSource) {
+      parsedTables = new ParsedTables(sql, found);
+    }
+    return found;
+  }
+
+  /**
+   * Returns the tables read by the nested selects of the result maps of this statement, and by their own nested
+   * selects, since the rows they load are part of the results of this statement.
+   *
+   * @return the tables, null if there are no nested selects, empty if they are not known
+   */
+  public String[] getNestedQueryTables() {
+    String[] nested = nestedQueryTables;
+    if (nested == null) {
+      Set<String> found = new LinkedHashSet<String>();
+      Set<String> visitedStatements = new HashSet<String>();
+      visitedStatements.add(id);
+      Set<String> visitedResultMaps = new HashSet<String>();
+      boolean known = true;
+      for (ResultMap resultMap : resultMaps) {
+        known = known && addNestedQueryTables(resultMap, found, visitedStatements, visitedResultMaps);
+      }
+      if (!known) {
+        nested = new String[0];
+      } else if (found.isEmpty()) {
+        nested = NO_NESTED_QUERIES;
+      } else {
+        nested = found.toArray(new String[found.size()]);
+      }
+      nestedQueryTables = nested;
+    }
+    return nested == NO_NESTED_QUERIES ? null : nested;
+  }
+
+  private boolean addNestedQueryTables(ResultMap resultMap, Set<String> found, Set<String> visitedStatements, Set<String> visitedResultMaps) {
+    if (!visitedResultMaps.add(resultMap.getId())) {
+      return true;
+    }
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      if (resultMapping.getNestedQueryId() != null) {
+        MappedStatement nestedQuery = configuration.getMappedStatement(resultMapping.getNestedQueryId());
+        if (!addQueryTables(nestedQuery, found, visitedStatements, visitedResultMaps)) {
+          return false;
+        }
+      } else if (resultMapping.getNestedResultMapId() != null) {
+        ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
+        if (!addNestedQueryTables(nestedResultMap, found, visitedStatements, visitedResultMaps)) {
+          return false;
+        }
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String resultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (!addNestedQueryTables(configuration.getResultMap(resultMapId), found, visitedStatements, visitedResultMaps)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean addQueryTables(MappedStatement query, Set<String> found, Set<String> visitedStatements, Set<String> visitedResultMaps) {
+    if (!visitedStatements.add(query.id)) {
+      return true;
+    }
+    String[] queryTables = query.tables;
+    if (queryTables == null && (query.sqlSource instanceof StaticSqlSource || query.sqlSource instanceof RawSqlSource)) {
+      // the sql of a static statement does not depend on the parameter
+      queryTables = query.getTables(query.sqlSource.getBoundSql(null));
+    }
+    if (queryTables == null || queryTables.length == 0) {
+      return false;
+    }
+    Collections.addAll(found, queryTables);
+    for (ResultMap resultMap : query.resultMaps) {
+      if (!query.addNestedQueryTables(resultMap, found, visitedStatements, visitedResultMaps)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public BoundSql getBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
@@ -317,4 +476,24 @@ public final class MappedStatement {
     }
   }
 
+  private static class ParsedTables {
+    private final String sql;
+    private final String[] tables;
+
+    ParsedTables(String sql, String[] tables) {
+      this.sql = sql;
+      this.tables = tables;
+    }
+  }
+
+  private static class CacheKeyPrefix {
+    private final String sql;
+    private final CacheKey key;
+
+    CacheKeyPrefix(String sql, CacheKey key) {
+      this.sql = sql;
+      this.key = key;
+    }
+  }
+
 }
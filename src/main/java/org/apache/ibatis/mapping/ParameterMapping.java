@@ -17,6 +17,7 @@ package org.apache.ibatis.mapping;
 
 import java.sql.ResultSet;
 
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -38,6 +39,7 @@ public class ParameterMapping {
   private String resultMapId;
   private String jdbcTypeName;
   private String expression;
+  private PropertyPath propertyPath;
 
   private ParameterMapping() {
   }
@@ -102,6 +104,9 @@ public class ParameterMapping {
     public ParameterMapping build() {
       resolveTypeHandler();
       validate();
+      if (parameterMapping.property != null) {
+        parameterMapping.propertyPath = parameterMapping.configuration.getPropertyPath(parameterMapping.property);
+      }
       return parameterMapping;
     }
 
@@ -135,6 +140,14 @@ public class ParameterMapping {
     return property;
   }
 
+  /**
+   * The property expression parsed once when the mapping is built
+   * @return the compiled property, or null if there is no property
+   */
+  public PropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   /**
    * Used for handling output of callable statements
    * @return
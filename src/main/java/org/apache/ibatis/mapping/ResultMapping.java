@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -38,6 +39,8 @@ public class ResultMapping {
   private TypeHandler<?> typeHandler;
   private String nestedResultMapId;
   private String nestedQueryId;
+  private String nestedBatchQueryId;
+  private String batchKey;
   private Set<String> notNullColumns;
   private String columnPrefix;
   private List<ResultFlag> flags;
@@ -45,6 +48,7 @@ public class ResultMapping {
   private String resultSet;
   private String foreignColumn;
   private boolean lazy;
+  private PropertyPath propertyPath;
 
   ResultMapping() {
   }
@@ -92,6 +96,16 @@ public class ResultMapping {
       return this;
     }
 
+    public Builder nestedBatchQueryId(String nestedBatchQueryId) {
+      resultMapping.nestedBatchQueryId = nestedBatchQueryId;
+      return this;
+    }
+
+    public Builder batchKey(String batchKey) {
+      resultMapping.batchKey = batchKey;
+      return this;
+    }
+
     public Builder resultSet(String resultSet) {
       resultMapping.resultSet = resultSet;
       return this;
@@ -138,6 +152,9 @@ public class ResultMapping {
       resultMapping.composites = Collections.unmodifiableList(resultMapping.composites);
       resolveTypeHandler();
       validate();
+      if (resultMapping.property != null) {
+        resultMapping.propertyPath = resultMapping.configuration.getPropertyPath(resultMapping.property);
+      }
       return resultMapping;
     }
 
@@ -154,6 +171,14 @@ public class ResultMapping {
       if (resultMapping.nestedResultMapId == null && resultMapping.column == null && resultMapping.composites.isEmpty()) {
         throw new IllegalStateException("Mapping is missing column attribute for property " + resultMapping.property);
       }
+      if (resultMapping.nestedBatchQueryId != null) {
+        if (resultMapping.nestedQueryId == null || resultMapping.batchKey == null) {
+          throw new IllegalStateException("A batch select needs both a nested select and a batchKey in property " + resultMapping.property);
+        }
+        if (!resultMapping.composites.isEmpty()) {
+          throw new IllegalStateException("A batch select cannot be used with a composite column in property " + resultMapping.property);
+        }
+      }
       if (resultMapping.getResultSet() != null) {
         int numColumns = 0;
         if (resultMapping.column != null) {
@@ -187,6 +212,14 @@ public class ResultMapping {
     return property;
   }
 
+  /**
+   * The property expression parsed once when the mapping is built
+   * @return the compiled property, or null if there is no property
+   */
+  public PropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   public String getColumn() {
     return column;
   }
@@ -211,6 +244,14 @@ public class ResultMapping {
     return nestedQueryId;
   }
 
+  public String getNestedBatchQueryId() {
+    return nestedBatchQueryId;
+  }
+
+  public String getBatchKey() {
+    return batchKey;
+  }
+
   public Set<String> getNotNullColumns() {
     return notNullColumns;
   }
@@ -291,6 +332,8 @@ public class ResultMapping {
     //sb.append(", typeHandler=").append(typeHandler); // typeHandler also doesn't have a useful .toString()
     sb.append(", nestedResultMapId='").append(nestedResultMapId).append('\'');
     sb.append(", nestedQueryId='").append(nestedQueryId).append('\'');
+    sb.append(", nestedBatchQueryId='").append(nestedBatchQueryId).append('\'');
+    sb.append(", batchKey='").append(batchKey).append('\'');
     sb.append(", notNullColumns=").append(notNullColumns);
     sb.append(", columnPrefix='").append(columnPrefix).append('\'');
     sb.append(", flags=").append(flags);
@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the tables a sql statement reads or writes.
+ *
+ * This is a best effort scan of the FROM, JOIN, UPDATE and INTO clauses: it may report a few names that are not
+ * tables, which is harmless for cache invalidation, but it cannot see through views, functions or procedures.
+ * Statements that use them should declare their tables.
+ */
+public final class SqlTables {
+
+  private static final String[] NO_TABLES = new String[0];
+
+  private static final Pattern TABLE_CLAUSE = Pattern.compile(
+      "\\b(?:from|join|update|into)\\s+(.+?)(?=\\b(?:where|set|values|value|select|group|order|having|limit|offset|union"
+      + "|except|intersect|join|on|using|inner|left|right|full|cross|natural|outer|for|fetch|returning|connect"
+      + "|start)\\b|[();]|$)",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  private SqlTables() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * @return the normalized names of the tables found in the sql, empty if there are none
+   */
+  public static String[] parse(String sql) {
+    Set<String> tables = new LinkedHashSet<String>();
+    Matcher matcher = TABLE_CLAUSE.matcher(sql);
+    while (matcher.find()) {
+      for (String item : matcher.group(1).split(",")) {
+        String[] tokens = item.trim().split("\\s+");
+        if (tokens[0].length() > 0) {
+          tables.add(normalize(tokens[0]));
+        }
+      }
+    }
+    return tables.isEmpty() ? NO_TABLES : tables.toArray(new String[tables.size()]);
+  }
+
+  /**
+   * @param tables declared table names
+   * @return the normalized names of the tables
+   */
+  public static String[] normalize(String[] tables) {
+    String[] normalized = new String[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      normalized[i] = normalize(tables[i]);
+    }
+    return normalized;
+  }
+
+  private static String normalize(String table) {
+    // schemas are ignored, quotes too
+    String name = table.trim();
+    int dot = name.lastIndexOf('.');
+    if (dot >= 0) {
+      name = name.substring(dot + 1);
+    }
+    return name.replaceAll("[\"`\\[\\]]", "").toLowerCase(Locale.ENGLISH);
+  }
+
+}
@@ -55,6 +55,21 @@ public class Plugin implements InvocationHandler {
     return target;
   }
 
+  /*
+   * Returns the object wrapped by the plugin proxies of target, or target itself when no plugin wraps it
+   */
+  public static Object unwrap(Object target) {
+    //逐层剥离Plugin代理，直到取得原始对象
+    while (target != null && Proxy.isProxyClass(target.getClass())) {
+      InvocationHandler handler = Proxy.getInvocationHandler(target);
+      if (!(handler instanceof Plugin)) {
+        break;
+      }
+      target = ((Plugin) handler).target;
+    }
+    return target;
+  }
+
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     try {
@@ -20,6 +20,8 @@ import java.util.concurrent.ConcurrentMap;
 
 public class DefaultReflectorFactory implements ReflectorFactory {
   private boolean classCacheEnabled = true;
+  //生成直接调用getter、setter的访问类，只在开启缓存时生效
+  private boolean invokerGenerationEnabled;
   private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<Class<?>, Reflector>();
 
   public DefaultReflectorFactory() {
@@ -35,13 +37,21 @@ public class DefaultReflectorFactory implements ReflectorFactory {
     this.classCacheEnabled = classCacheEnabled;
   }
 
+  public boolean isInvokerGenerationEnabled() {
+    return invokerGenerationEnabled;
+  }
+
+  public void setInvokerGenerationEnabled(boolean invokerGenerationEnabled) {
+    this.invokerGenerationEnabled = invokerGenerationEnabled;
+  }
+
   @Override
   public Reflector findForClass(Class<?> type) {
     if (classCacheEnabled) {
       //如果开启了缓存开关，先查询缓存集合中是否包含type的反射实例，如果不包含则创建新的反射实例，放入缓存中
       Reflector cached = reflectorMap.get(type);
       if (cached == null) {
-        cached = new Reflector(type);
+        cached = new Reflector(type, invokerGenerationEnabled);
         reflectorMap.put(type, cached);
       }
       return cached;
@@ -0,0 +1,118 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Helpers shared by the classes that generate accessors and row mappers with javassist.
+ */
+public final class JavassistUtil {
+
+  private static final Log log = LogFactory.getLog(JavassistUtil.class);
+
+  private static final AtomicInteger counter = new AtomicInteger();
+
+  private JavassistUtil() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * Defines a subclass of superclass, named after type and kind, with a default constructor and the given methods.
+   *
+   * @return the generated class, or null if it could not be compiled or loaded
+   */
+  public static Class<?> generate(Class<?> type, String kind, Class<?> superclass, ClassLoader loader, String... methods) {
+    try {
+      ClassPool pool = new ClassPool(true);
+      pool.insertClassPath(new ClassClassPath(superclass));
+      pool.insertClassPath(new LoaderClassPath(loader));
+      CtClass ctClass = pool.makeClass(type.getName() + "$$" + kind + "$$" + counter.incrementAndGet());
+      ctClass.setSuperclass(pool.get(superclass.getName()));
+      ctClass.addConstructor(CtNewConstructor.defaultConstructor(ctClass));
+      for (String method : methods) {
+        ctClass.addMethod(CtNewMethod.make(method, ctClass));
+      }
+      Class<?> generated = ctClass.toClass(loader, type.getProtectionDomain());
+      ctClass.detach();
+      return generated;
+    } catch (Exception e) {
+      logFailure(type, kind, e);
+      return null;
+    } catch (LinkageError e) {
+      logFailure(type, kind, e);
+      return null;
+    }
+  }
+
+  private static void logFailure(Class<?> type, String kind, Throwable cause) {
+    if (log.isDebugEnabled()) {
+      log.debug("Could not generate the " + kind + " class of " + type.getName() + ". Cause: " + cause);
+    }
+  }
+
+  /**
+   * Returns true if loader resolves the name of type to type itself.
+   */
+  public static boolean isVisible(Class<?> type, ClassLoader loader) {
+    try {
+      return Class.forName(type.getName(), false, loader) == type;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the name of type as written in java source, e.g. java.lang.String[] for an array.
+   */
+  public static String sourceName(Class<?> type) {
+    if (type.isArray()) {
+      return sourceName(type.getComponentType()) + "[]";
+    }
+    return type.getName();
+  }
+
+  public static Class<?> wrapperOf(Class<?> primitive) {
+    if (primitive == boolean.class) {
+      return Boolean.class;
+    } else if (primitive == char.class) {
+      return Character.class;
+    } else if (primitive == byte.class) {
+      return Byte.class;
+    } else if (primitive == short.class) {
+      return Short.class;
+    } else if (primitive == int.class) {
+      return Integer.class;
+    } else if (primitive == long.class) {
+      return Long.class;
+    } else if (primitive == float.class) {
+      return Float.class;
+    } else {
+      return Double.class;
+    }
+  }
+
+}
@@ -0,0 +1,231 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+
+/**
+ * A property expression such as <code>a.b[0].c</code> parsed once, to be read and written many times.
+ * Plain properties of beans and maps are walked directly, remembering the invokers of each segment per class,
+ * so a path shared by statements with different parameter types does not look them up again. Indexed properties, collections and objects with a custom wrapper are handed over to a {@link MetaObject},
+ * so the results are the same as {@link MetaObject#getValue(String)} and {@link MetaObject#setValue(String, Object)}.
+ */
+public final class PropertyPath {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final String expression;
+  private final Segment[] segments;
+
+  private PropertyPath(String expression) {
+    this.expression = expression;
+    List<Segment> segmentList = new ArrayList<Segment>();
+    PropertyTokenizer prop = new PropertyTokenizer(expression);
+    String remaining = expression;
+    while (true) {
+      segmentList.add(new Segment(prop.getName(), prop.getIndex() == null, remaining));
+      if (!prop.hasNext()) {
+        break;
+      }
+      remaining = prop.getChildren();
+      prop = prop.next();
+    }
+    this.segments = segmentList.toArray(new Segment[segmentList.size()]);
+  }
+
+  public static PropertyPath compile(String expression) {
+    return new PropertyPath(expression);
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  /**
+   * @return the name of the first property of the path
+   */
+  public String getRootName() {
+    return segments[0].name;
+  }
+
+  public Object getValue(Object object, ObjectFactory objectFactory, ObjectWrapperFactory objectWrapperFactory, ReflectorFactory reflectorFactory) {
+    Object current = object;
+    for (Segment segment : segments) {
+      if (current == null) {
+        return null;
+      }
+      if (!segment.simple || !isPlain(current, objectWrapperFactory)) {
+        return MetaObject.forObject(current, objectFactory, objectWrapperFactory, reflectorFactory).getValue(segment.expression);
+      }
+      current = segment.get(current, reflectorFactory);
+    }
+    return current;
+  }
+
+  public void setValue(Object object, Object value, ObjectFactory objectFactory, ObjectWrapperFactory objectWrapperFactory, ReflectorFactory reflectorFactory) {
+    Object current = object;
+    final int last = segments.length - 1;
+    for (int i = 0; i < last; i++) {
+      Segment segment = segments[i];
+      if (!segment.simple || !isPlain(current, objectWrapperFactory)) {
+        MetaObject.forObject(current, objectFactory, objectWrapperFactory, reflectorFactory).setValue(segment.expression, value);
+        return;
+      }
+      Object next = segment.get(current, reflectorFactory);
+      if (next == null) {
+        // let MetaObject decide whether to instantiate the missing property
+        MetaObject.forObject(current, objectFactory, objectWrapperFactory, reflectorFactory).setValue(segment.expression, value);
+        return;
+      }
+      current = next;
+    }
+    Segment segment = segments[last];
+    if (!segment.simple || !isPlain(current, objectWrapperFactory)) {
+      MetaObject.forObject(current, objectFactory, objectWrapperFactory, reflectorFactory).setValue(segment.expression, value);
+      return;
+    }
+    segment.set(current, value, reflectorFactory);
+  }
+
+  private static boolean isPlain(Object object, ObjectWrapperFactory objectWrapperFactory) {
+    return !(object instanceof ObjectWrapper)
+        && !(object instanceof java.util.Collection)
+        && !objectWrapperFactory.hasWrapperFor(object);
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  private static final class Segment {
+    private final String name;
+    private final boolean simple;
+    // the expression from this segment to the end of the path
+    private final String expression;
+    private final InvokerCache getters = new InvokerCache(false);
+    private final InvokerCache setters = new InvokerCache(true);
+
+    Segment(String name, boolean simple, String expression) {
+      this.name = name;
+      this.simple = simple;
+      this.expression = expression;
+    }
+
+    @SuppressWarnings("unchecked")
+    Object get(Object object, ReflectorFactory reflectorFactory) {
+      if (object instanceof Map) {
+        return ((Map<String, Object>) object).get(name);
+      }
+      Invoker invoker = getters.get(name, object.getClass(), reflectorFactory);
+      try {
+        try {
+          return invoker.invoke(object, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not get property '" + name + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    void set(Object object, Object value, ReflectorFactory reflectorFactory) {
+      if (object instanceof Map) {
+        ((Map<String, Object>) object).put(name, value);
+        return;
+      }
+      Invoker invoker = setters.get(name, object.getClass(), reflectorFactory);
+      try {
+        try {
+          invoker.invoke(object, new Object[] { value });
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + name + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+  /*
+   * The invokers of a property per class. The first class seen is checked inline, which is the only one for most
+   * paths, the other ones are kept in a map so classes read in turn never replace each other.
+   */
+  private static final class InvokerCache {
+    private final boolean setter;
+    private volatile CachedInvoker first;
+    private volatile ConcurrentMap<Class<?>, CachedInvoker> others;
+
+    InvokerCache(boolean setter) {
+      this.setter = setter;
+    }
+
+    Invoker get(String name, Class<?> type, ReflectorFactory reflectorFactory) {
+      CachedInvoker cached = first;
+      if (cached != null && cached.type == type && cached.reflectorFactory == reflectorFactory) {
+        return cached.invoker;
+      }
+      if (cached == null) {
+        cached = newCachedInvoker(name, type, reflectorFactory);
+        first = cached;
+        return cached.invoker;
+      }
+      ConcurrentMap<Class<?>, CachedInvoker> map = others;
+      if (map == null) {
+        // a map lost to a concurrent first use only costs a few lookups again
+        map = new ConcurrentHashMap<Class<?>, CachedInvoker>(4);
+        others = map;
+      }
+      cached = map.get(type);
+      if (cached == null || cached.reflectorFactory != reflectorFactory) {
+        cached = newCachedInvoker(name, type, reflectorFactory);
+        map.put(type, cached);
+      }
+      return cached.invoker;
+    }
+
+    private CachedInvoker newCachedInvoker(String name, Class<?> type, ReflectorFactory reflectorFactory) {
+      Reflector reflector = reflectorFactory.findForClass(type);
+      return new CachedInvoker(type, reflectorFactory, setter ? reflector.getSetInvoker(name) : reflector.getGetInvoker(name));
+    }
+  }
+
+  private static final class CachedInvoker {
+    private final Class<?> type;
+    private final ReflectorFactory reflectorFactory;
+    private final Invoker invoker;
+
+    CachedInvoker(Class<?> type, ReflectorFactory reflectorFactory, Invoker invoker) {
+      this.type = type;
+      this.reflectorFactory = reflectorFactory;
+      this.invoker = invoker;
+    }
+  }
+
+}
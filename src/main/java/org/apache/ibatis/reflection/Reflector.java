@@ -32,6 +32,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.ibatis.reflection.invoker.AccessorInvokerFactory;
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
@@ -67,6 +68,13 @@ public class Reflector {
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<String, String>();
 
   public Reflector(Class<?> clazz) {
+    this(clazz, false);
+  }
+
+  /**
+   * @param generateInvokers 为true时用javassist生成的访问类替换公共getter、setter的反射调用器
+   */
+  public Reflector(Class<?> clazz, boolean generateInvokers) {
     type = clazz;
     //注册默认构造器
     addDefaultConstructor(clazz);
@@ -76,6 +84,9 @@ public class Reflector {
     addSetMethods(clazz);
     //注册属性
     addFields(clazz);
+    if (generateInvokers) {
+      AccessorInvokerFactory.replaceMethodInvokers(clazz, getMethods, setMethods);
+    }
     //可读属性名集合
     readablePropertyNames = getMethods.keySet().toArray(new String[getMethods.keySet().size()]);
     //可写属性名集合
@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a getter or a setter through a generated {@link PropertyAccessor}.
+ */
+public class AccessorInvoker implements Invoker {
+
+  private final PropertyAccessor accessor;
+  private final int property;
+  private final boolean setter;
+  private final Method method;
+  private final Class<?> type;
+
+  public AccessorInvoker(PropertyAccessor accessor, int property, Method method) {
+    this.accessor = accessor;
+    this.property = property;
+    this.method = method;
+    this.setter = method.getParameterTypes().length == 1;
+    this.type = setter ? method.getParameterTypes()[0] : method.getReturnType();
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+    if (setter) {
+      accessor.set(target, property, args[0]);
+      return null;
+    }
+    return accessor.get(target, property);
+  }
+
+  @Override
+  public Class<?> getType() {
+    return type;
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+}
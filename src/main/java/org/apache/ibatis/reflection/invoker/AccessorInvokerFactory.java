@@ -0,0 +1,142 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.JavassistUtil;
+
+/**
+ * Replaces the reflective {@link MethodInvoker}s of a class with {@link AccessorInvoker}s
+ * that share one {@link PropertyAccessor} generated with javassist.
+ * Getters and setters that are not public, or are declared by a class that is not public, keep their reflective invokers.
+ */
+public final class AccessorInvokerFactory {
+
+  private AccessorInvokerFactory() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Replaces the method invokers in the given maps.
+   *
+   * @return false if no accessor could be generated and the maps are unchanged
+   */
+  public static boolean replaceMethodInvokers(Class<?> type, Map<String, Invoker> getMethods, Map<String, Invoker> setMethods) {
+    if (!Modifier.isPublic(type.getModifiers()) || type.getClassLoader() == null || !JavassistUtil.isVisible(PropertyAccessor.class, type.getClassLoader())) {
+      return false;
+    }
+    List<String> getters = accessibleProperties(getMethods);
+    List<String> setters = accessibleProperties(setMethods);
+    if (getters.isEmpty() && setters.isEmpty()) {
+      return false;
+    }
+    PropertyAccessor accessor = generate(type, getters, getMethods, setters, setMethods);
+    if (accessor == null) {
+      return false;
+    }
+    for (int i = 0; i < getters.size(); i++) {
+      String property = getters.get(i);
+      getMethods.put(property, new AccessorInvoker(accessor, i, ((MethodInvoker) getMethods.get(property)).getMethod()));
+    }
+    for (int i = 0; i < setters.size(); i++) {
+      String property = setters.get(i);
+      setMethods.put(property, new AccessorInvoker(accessor, i, ((MethodInvoker) setMethods.get(property)).getMethod()));
+    }
+    return true;
+  }
+
+  private static List<String> accessibleProperties(Map<String, Invoker> invokers) {
+    List<String> properties = new ArrayList<String>();
+    for (Map.Entry<String, Invoker> entry : invokers.entrySet()) {
+      if (entry.getValue() instanceof MethodInvoker) {
+        Method method = ((MethodInvoker) entry.getValue()).getMethod();
+        if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())
+            && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+          properties.add(entry.getKey());
+        }
+      }
+    }
+    return properties;
+  }
+
+  private static PropertyAccessor generate(Class<?> type, List<String> getters, Map<String, Invoker> getMethods,
+      List<String> setters, Map<String, Invoker> setMethods) {
+    String typeName = JavassistUtil.sourceName(type);
+    StringBuilder get = new StringBuilder();
+    get.append("public java.lang.Object get(java.lang.Object target, int property) throws java.lang.reflect.InvocationTargetException {");
+    get.append(typeName).append(" o = (").append(typeName).append(") target;");
+    get.append("try { switch (property) {");
+    for (int i = 0; i < getters.size(); i++) {
+      Method method = ((MethodInvoker) getMethods.get(getters.get(i))).getMethod();
+      String call = "o." + method.getName() + "()";
+      get.append("case ").append(i).append(": ");
+      if (method.getReturnType() == void.class) {
+        get.append(call).append("; return null;");
+      } else {
+        get.append("return ").append(box(method.getReturnType(), call)).append(';');
+      }
+    }
+    get.append("default: break; } } catch (java.lang.Throwable t) { throw new java.lang.reflect.InvocationTargetException(t); }");
+    get.append("throw new java.lang.IllegalArgumentException(\"Unknown property \" + property); }");
+
+    StringBuilder set = new StringBuilder();
+    set.append("public void set(java.lang.Object target, int property, java.lang.Object value) throws java.lang.reflect.InvocationTargetException {");
+    set.append(typeName).append(" o = (").append(typeName).append(") target;");
+    set.append("switch (property) {");
+    for (int i = 0; i < setters.size(); i++) {
+      Method method = ((MethodInvoker) setMethods.get(setters.get(i))).getMethod();
+      Class<?> parameterType = method.getParameterTypes()[0];
+      // the value is converted outside of the try block, so a mismatch is not reported as thrown by the setter
+      set.append("case ").append(i).append(": { ").append(JavassistUtil.sourceName(parameterType)).append(" v = ");
+      set.append(unbox(parameterType, "value")).append("; try { o.").append(method.getName()).append("(v); }");
+      set.append(" catch (java.lang.Throwable t) { throw new java.lang.reflect.InvocationTargetException(t); } return; }");
+    }
+    set.append("default: break; }");
+    set.append("throw new java.lang.IllegalArgumentException(\"Unknown property \" + property); }");
+
+    Class<?> accessorClass = JavassistUtil.generate(type, "Accessor", PropertyAccessor.class, type.getClassLoader(), get.toString(), set.toString());
+    if (accessorClass == null) {
+      return null;
+    }
+    try {
+      return (PropertyAccessor) accessorClass.newInstance();
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static String box(Class<?> type, String value) {
+    if (!type.isPrimitive()) {
+      return value;
+    }
+    return JavassistUtil.wrapperOf(type).getName() + ".valueOf(" + value + ")";
+  }
+
+  private static String unbox(Class<?> type, String value) {
+    if (!type.isPrimitive()) {
+      return "(" + JavassistUtil.sourceName(type) + ") " + value;
+    }
+    // like Method.invoke, accepts a wrapper of a narrower type, e.g. an Integer for a long
+    String name = type.getName();
+    return PropertyAccessor.class.getName() + ".to" + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "(" + value + ")";
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Base class of the property accessors generated by {@link AccessorInvokerFactory}.
+ * A generated accessor calls the getters and setters of one class directly, selecting them by index.
+ */
+public abstract class PropertyAccessor {
+
+  public abstract Object get(Object target, int property) throws InvocationTargetException;
+
+  public abstract void set(Object target, int property, Object value) throws InvocationTargetException;
+
+  /*
+   * Conversions of the values of primitive setters. They accept the wrappers Method.invoke accepts, i.e. the ones
+   * that unbox to the parameter type or to a type that widens to it, and throw the same IllegalArgumentException
+   * otherwise.
+   */
+
+  protected static boolean toBoolean(Object value) {
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    throw mismatch();
+  }
+
+  protected static char toChar(Object value) {
+    if (value instanceof Character) {
+      return (Character) value;
+    }
+    throw mismatch();
+  }
+
+  protected static byte toByte(Object value) {
+    if (value instanceof Byte) {
+      return (Byte) value;
+    }
+    throw mismatch();
+  }
+
+  protected static short toShort(Object value) {
+    if (value instanceof Short || value instanceof Byte) {
+      return ((Number) value).shortValue();
+    }
+    throw mismatch();
+  }
+
+  protected static int toInt(Object value) {
+    if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      return ((Number) value).intValue();
+    } else if (value instanceof Character) {
+      return (Character) value;
+    }
+    throw mismatch();
+  }
+
+  protected static long toLong(Object value) {
+    if (value instanceof Long) {
+      return (Long) value;
+    }
+    return toInt(value);
+  }
+
+  protected static float toFloat(Object value) {
+    if (value instanceof Float) {
+      return (Float) value;
+    }
+    return toLong(value);
+  }
+
+  protected static double toDouble(Object value) {
+    if (value instanceof Double) {
+      return (Double) value;
+    }
+    return toFloat(value);
+  }
+
+  private static IllegalArgumentException mismatch() {
+    return new IllegalArgumentException("argument type mismatch");
+  }
+
+}
@@ -25,7 +25,7 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
-import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
@@ -64,39 +64,54 @@ public class DefaultParameterHandler implements ParameterHandler {
     //获取sql对象中的参数集合
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings != null) {
-      for (int i = 0; i < parameterMappings.size(); i++) {
-    	//获取参数对象
-        ParameterMapping parameterMapping = parameterMappings.get(i);
-        //存储过程的输出参数在之前的CallableStatementHandler中绑定，此处不在赘述
-        if (parameterMapping.getMode() != ParameterMode.OUT) {
-          Object value;
-          String propertyName = parameterMapping.getProperty();
-          //获取需绑定参数的值
-          if (boundSql.hasAdditionalParameter(propertyName)) { 
-            value = boundSql.getAdditionalParameter(propertyName);
-          } else if (parameterObject == null) {
-            value = null;
-          } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-            value = parameterObject;
-          } else {
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
-            value = metaObject.getValue(propertyName);
-          }
-          //获取此参数对应的类型处理器
-          TypeHandler typeHandler = parameterMapping.getTypeHandler();
-          JdbcType jdbcType = parameterMapping.getJdbcType();
-          //如果参数值和jdbc类型为null，则此参数使用配置中指定的null类型表示，默认为JdbcType.OTHER
-          if (value == null && jdbcType == null) {
-            jdbcType = configuration.getJdbcTypeForNull();
-          }
-          try {
-        	//将参数绑定到PreparedStatement
-            typeHandler.setParameter(ps, i + 1, value, jdbcType);
-          } catch (TypeException e) {
-            throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
-          } catch (SQLException e) {
-            throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
-          }
+      if (mappedStatement.getMultiRowSize() > 0 && boundSql.getParameterObject() instanceof List) {
+        //多行插入，依次用每一行绑定该行的参数
+        List<?> rows = (List<?>) boundSql.getParameterObject();
+        int columns = rows.isEmpty() ? 0 : parameterMappings.size() / rows.size();
+        for (int row = 0; row < rows.size(); row++) {
+          setParameters(ps, rows.get(row), parameterMappings, row * columns, (row + 1) * columns);
+        }
+      } else {
+        setParameters(ps, parameterObject, parameterMappings, 0, parameterMappings.size());
+      }
+    }
+  }
+
+  private void setParameters(PreparedStatement ps, Object parameterObject, List<ParameterMapping> parameterMappings,
+      int from, int to) {
+    for (int i = from; i < to; i++) {
+  	//获取参数对象
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      //存储过程的输出参数在之前的CallableStatementHandler中绑定，此处不在赘述
+      if (parameterMapping.getMode() != ParameterMode.OUT) {
+        Object value;
+        //属性表达式在构建映射时已解析，此处直接按路径取值
+        PropertyPath propertyPath = parameterMapping.getPropertyPath();
+        //获取需绑定参数的值
+        if (boundSql.hasAdditionalParameter(propertyPath)) { 
+          value = boundSql.getAdditionalParameter(propertyPath);
+        } else if (parameterObject == null) {
+          value = null;
+        } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+          value = parameterObject;
+        } else {
+          value = propertyPath.getValue(parameterObject, configuration.getObjectFactory(),
+              configuration.getObjectWrapperFactory(), configuration.getReflectorFactory());
+        }
+        //获取此参数对应的类型处理器
+        TypeHandler typeHandler = parameterMapping.getTypeHandler();
+        JdbcType jdbcType = parameterMapping.getJdbcType();
+        //如果参数值和jdbc类型为null，则此参数使用配置中指定的null类型表示，默认为JdbcType.OTHER
+        if (value == null && jdbcType == null) {
+          jdbcType = configuration.getJdbcTypeForNull();
+        }
+        try {
+      	//将参数绑定到PreparedStatement
+          typeHandler.setParameter(ps, i + 1, value, jdbcType);
+        } catch (TypeException e) {
+          throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
+        } catch (SQLException e) {
+          throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
         }
       }
     }
@@ -0,0 +1,175 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Inserts many rows with a single row insert statement. The {@code VALUES (...)} row of its sql is repeated for each
+ * row, and the parameters of each row are bound in turn against that row, so the sql is built once per number of
+ * rows instead of being generated by a {@code foreach} and parsed on every execution.
+ *
+ * The parameter object is a list of rows with at most {@code maxRows} elements, the executor splits larger
+ * collections in chunks.
+ *
+ * @see #getRows(Object)
+ */
+public class MultiRowSqlSource implements SqlSource {
+
+  private static final Pattern VALUES = Pattern.compile("\\bvalues\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+  private final Configuration configuration;
+  private final int maxRows;
+  private final String head;
+  private final String row;
+  private final String tail;
+  private final List<ParameterMapping> rowMappings;
+  private final ConcurrentMap<Integer, StaticSqlSource> sqlSources = new ConcurrentHashMap<Integer, StaticSqlSource>();
+
+  public MultiRowSqlSource(Configuration configuration, SqlSource rowSqlSource, int maxRows) {
+    if (!(rowSqlSource instanceof RawSqlSource || rowSqlSource instanceof StaticSqlSource)) {
+      throw new BuilderException("A multi-row insert must be static, without ${} or dynamic elements.");
+    }
+    BoundSql boundSql = rowSqlSource.getBoundSql(null);
+    String sql = boundSql.getSql();
+    Matcher matcher = VALUES.matcher(sql);
+    int start = matcher.find() ? matcher.end() - 1 : -1;
+    int end = start < 0 ? -1 : closingParenthesis(sql, start);
+    if (end < 0) {
+      throw new BuilderException("A multi-row insert must contain a VALUES (...) row: " + sql);
+    }
+    this.configuration = configuration;
+    this.maxRows = maxRows;
+    this.head = sql.substring(0, start);
+    this.row = sql.substring(start, end + 1);
+    this.tail = sql.substring(end + 1);
+    this.rowMappings = boundSql.getParameterMappings();
+    if (countParameters(head) > 0 || countParameters(tail) > 0) {
+      throw new BuilderException("All the parameters of a multi-row insert must be in its VALUES (...) row: " + sql);
+    }
+  }
+
+  public int getMaxRows() {
+    return maxRows;
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    List<?> rows = getRows(parameterObject);
+    if (rows.size() > maxRows) {
+      rows = rows.subList(0, maxRows);
+    }
+    int size = Math.max(rows.size(), 1);
+    StaticSqlSource sqlSource = sqlSources.get(size);
+    if (sqlSource == null) {
+      sqlSource = buildSqlSource(size);
+      sqlSources.putIfAbsent(size, sqlSource);
+    }
+    return sqlSource.getBoundSql(rows);
+  }
+
+  /**
+   * Returns the rows a multi-row insert was called with: a collection or array, possibly wrapped by the session as
+   * {@code list}, {@code collection} or {@code array}, or the only parameter of a mapper method. Any other object
+   * is a single row.
+   */
+  public static List<?> getRows(Object parameterObject) {
+    Object rows = parameterObject;
+    if (rows instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) rows;
+      if (map.containsKey("list")) {
+        rows = map.get("list");
+      } else if (map.containsKey("collection")) {
+        rows = map.get("collection");
+      } else if (map.containsKey("array")) {
+        rows = map.get("array");
+      } else if (map.containsKey("param1") && !map.containsKey("param2")) {
+        rows = map.get("param1");
+      }
+    }
+    if (rows instanceof List) {
+      return (List<?>) rows;
+    } else if (rows instanceof Collection) {
+      return new ArrayList<Object>((Collection<?>) rows);
+    } else if (rows instanceof Object[]) {
+      return Arrays.asList((Object[]) rows);
+    } else {
+      return Collections.singletonList(rows);
+    }
+  }
+
+  private StaticSqlSource buildSqlSource(int rows) {
+    StringBuilder sql = new StringBuilder(head.length() + rows * (row.length() + 2) + tail.length());
+    List<ParameterMapping> parameterMappings = new ArrayList<ParameterMapping>(rows * rowMappings.size());
+    sql.append(head);
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(row);
+      parameterMappings.addAll(rowMappings);
+    }
+    sql.append(tail);
+    return new StaticSqlSource(configuration, sql.toString(), parameterMappings);
+  }
+
+  private static int closingParenthesis(String sql, int start) {
+    int depth = 0;
+    boolean quoted = false;
+    for (int i = start; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        quoted = !quoted;
+      } else if (!quoted && c == '(') {
+        depth++;
+      } else if (!quoted && c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int countParameters(String sql) {
+    int count = 0;
+    boolean quoted = false;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        quoted = !quoted;
+      } else if (!quoted && c == '?') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,29 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Which statements the BATCH executor may reorder to add them to the JDBC batch of an earlier identical
+ * statement instead of starting a new batch.
+ */
+public enum BatchOrdering {
+  /** None, only consecutive executions of the same statement share a batch. */
+  STRICT,
+  /** Those that do not share a table with any statement executed since that batch was started. */
+  TABLE,
+  /** Any, the statements of a session do not depend on each other. */
+  NONE
+}
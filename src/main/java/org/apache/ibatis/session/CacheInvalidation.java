@@ -0,0 +1,26 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * What insert, update and delete statements evict from the second level cache.
+ */
+public enum CacheInvalidation {
+  /** The whole cache of the namespace of the statement. */
+  NAMESPACE,
+  /** Only the entries that read one of the tables written by the statement, in any namespace, including through nested selects. */
+  TABLE
+}
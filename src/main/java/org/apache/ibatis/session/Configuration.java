@@ -15,8 +15,11 @@
  */
 package org.apache.ibatis.session;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -24,6 +27,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
@@ -31,10 +46,16 @@ import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheMetrics;
+import org.apache.ibatis.cache.TableVersions;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.MetricsCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
@@ -51,6 +72,7 @@ import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.RowMapperGenerator;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -74,6 +96,7 @@ import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
 import org.apache.ibatis.reflection.DefaultReflectorFactory;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.reflection.ReflectorFactory;
 import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
@@ -82,6 +105,7 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.scripting.LanguageDriverRegistry;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
@@ -105,6 +129,8 @@ public class Configuration {
   protected boolean mapUnderscoreToCamelCase;
   /*当开启时，任何方法的调用都会加载该对象的所有属性。否则，每个属性会按需加载（参考lazyLoadTriggerMethods). */
   protected boolean aggressiveLazyLoading;
+  /*配置了 batchSelect 的嵌套查询每次最多合并多少个外键值。 */
+  protected int nestedBatchSize = 100;
   /*是否允许单一语句返回多结果集（需要兼容驱动）。*/
   protected boolean multipleResultSetsEnabled = true;
   /*允许 JDBC 支持自动生成主键，需要驱动兼容。 如果设置为 true 则这个设置强制使用自动生成主键，尽管一些驱动不能兼容但仍可正常工作（比如 Derby）。 */
@@ -119,6 +145,16 @@ public class Configuration {
   protected boolean useActualParamName = true;
   /*当返回行的所有列都是空时，MyBatis默认返回null。 当开启这个设置时，MyBatis会返回一个空实例。 请注意，它也适用于嵌套的结果集 (i.e. collectioin and association)。（从3.4.2开始） */
   protected boolean returnInstanceForEmptyRow;
+  /*本地缓存作用域为 STATEMENT 时，对不使用二级缓存、不含嵌套查询和存储过程的顶层查询不再创建 CacheKey。 */
+  protected boolean omitUnusedCacheKeys;
+  /*收集二级缓存的命中、加载时间等统计信息，可通过 getCacheMetrics 获取。 */
+  protected boolean cacheMetricsEnabled;
+  /*将二级缓存的统计信息注册为 JMX MBean。 */
+  protected boolean cacheMetricsJmxEnabled;
+  /*本配置注册缓存统计MBean时使用的configuration名称，默认为环境id，已被其他配置使用时加上序号 */
+  protected String cacheMetricsJmxName;
+  /*本配置注册的缓存统计MBean，由unregisterCacheMetrics注销 */
+  protected final List<ObjectName> cacheMetricsObjectNames = new ArrayList<ObjectName>();
 
   /*指定 MyBatis 增加到日志名称的前缀。 */
   protected String logPrefix;
@@ -128,6 +164,12 @@ public class Configuration {
   protected Class <? extends VFS> vfsImpl;
   /*MyBatis 利用本地缓存机制（Local Cache）防止循环引用（circular references）和加速重复嵌套查询。 默认值为 SESSION，这种情况下会缓存一个会话中执行的所有查询。 若设置值为 STATEMENT，本地会话仅用在语句执行上，对相同 SqlSession 的不同调用将不会共享数据。 */
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+  /*本地缓存最多保存的查询数，超出时在查询结束后淘汰最久未使用的缓存项。 默认不限制。 */
+  protected Integer localCacheSize;
+  /*本地缓存是否只保存查询结果的弱引用，使长时间运行的会话中没有被引用的结果可以被回收。 */
+  protected boolean localCacheWeakValues;
+  /*insert、update、delete 语句清空的二级缓存范围。 默认值为 NAMESPACE，清空语句所在命名空间的整个缓存。 若设置值为 TABLE，只清除读取过语句所写表的缓存项，包括其它命名空间中的缓存项。 */
+  protected CacheInvalidation cacheInvalidation = CacheInvalidation.NAMESPACE;
   /*当没有为参数提供特定的 JDBC 类型时，为空值指定 JDBC 类型。 某些驱动需要指定列的 JDBC 类型，多数情况直接用一般类型即可，比如 NULL、VARCHAR 或 OTHER。 */
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   /*指定哪个对象的方法触发一次延迟加载。 */
@@ -138,6 +180,18 @@ public class Configuration {
   protected Integer defaultFetchSize;
   /*配置默认的执行器。SIMPLE 就是普通的执行器；REUSE 执行器会重用预处理语句（prepared statements）； BATCH 执行器将重用语句并执行批量更新。 */
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
+  /*BATCH 执行器可以重排哪些语句，以加入之前相同语句的批处理。 默认值为 STRICT，只有连续执行的相同语句共用一个批处理。 TABLE 允许重排与之后语句没有相同表的语句。 NONE 允许重排任意语句。 */
+  protected BatchOrdering batchOrdering = BatchOrdering.STRICT;
+  /*BATCH 执行器累积多少次执行后自动刷新批处理。 自动刷新的结果不再由 flushStatements 返回，只传给 SqlSession 的 BatchResultHandler。 默认不自动刷新。 */
+  protected Integer batchFlushSize;
+  /*执行异步查询（selectOneAsync、selectListAsync 及返回 Future 的映射器方法）的线程池。 未设置时在首次使用时创建，线程数为asyncPoolSize。 */
+  protected ExecutorService asyncExecutorService;
+  /*asyncExecutorService是否为MyBatis创建的默认线程池，只有默认线程池由shutdownAsyncExecutorService关闭 */
+  protected boolean asyncExecutorServiceCreated;
+  /*默认异步查询线程池的最大线程数，与处理器个数无关。 空闲一分钟的线程会结束。 默认为10，与PooledDataSource的最大活动连接数相同。 */
+  protected int asyncPoolSize = 10;
+  /*游标在后台线程中预先读取并映射的最大对象数，未设置时在调用者线程中逐行读取。 */
+  protected Integer cursorPrefetchSize;
   /*指定 MyBatis 应如何自动映射列到字段或属性。 NONE 表示取消自动映射；PARTIAL 只会自动映射没有定义嵌套结果集映射的结果集。 FULL 会自动映射任意复杂的结果集（无论是否嵌套）。 */
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   /*指定发现自动映射目标未知列（或者未知属性类型）的行为。
@@ -145,11 +199,19 @@ public class Configuration {
 	WARNING: 输出提醒日志 ('org.apache.ibatis.session.AutoMappingUnknownColumnBehavior' 的日志等级必须设置为 WARN)
 	FAILING: 映射失败 (抛出 SqlSessionException) */
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
+  /*为简单结果映射按结果类型和列布局生成映射类，按列序号读取并直接调用setter，不支持的映射仍使用反射。 */
+  protected boolean generateRowMappers;
+  /*嵌套结果映射的行key只保存各key列的值，不再保存列名及父行的CacheKey，可减少大结果集的内存占用。 */
+  protected boolean compactNestedResultKeys;
+  /*未指定resultOrdered属性的select语句的默认值。开启后嵌套结果映射在父行的key改变时即释放已完成的对象，要求结果按父行的id排序。 */
+  protected boolean defaultResultOrdered;
 
   /*可以配置额外参数，与配置文件中的properties效果相同 */
   protected Properties variables = new Properties();
   /*反射实例工厂类，默认缓存反射实例 */
   protected ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+  /*为公共getter、setter生成直接调用的访问类，代替反射调用，只对DefaultReflectorFactory有效 */
+  protected boolean invokerGenerationEnabled;
   /*对象工厂 */
   protected ObjectFactory objectFactory = new DefaultObjectFactory();
   /*对象包装工厂 */
@@ -178,6 +240,10 @@ public class Configuration {
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
   /*别名容器 */
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
+  /*生成的行映射类缓存 */
+  protected final RowMapperGenerator rowMapperGenerator = new RowMapperGenerator();
+  /*按表达式共享的已解析属性路径，动态SQL每次执行重建参数映射时复用 */
+  protected final ConcurrentMap<String, PropertyPath> propertyPaths = new ConcurrentHashMap<String, PropertyPath>();
   /*语言驱动容器 */
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
 
@@ -185,6 +251,8 @@ public class Configuration {
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection");
   //Cache缓存池
   protected final Map<String, Cache> caches = new StrictMap<Cache>("Caches collection");
+  //cacheInvalidation为TABLE时各表的版本号
+  protected final TableVersions tableVersions = new TableVersions();
   //ResultMap缓存池
   protected final Map<String, ResultMap> resultMaps = new StrictMap<ResultMap>("Result Maps collection");
   //ParameterMap缓存池
@@ -222,8 +290,11 @@ public class Configuration {
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT", ConcurrentCache.class);
+    typeAliasRegistry.registerAlias("OFFHEAP", OffHeapCache.class);
     typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
+    typeAliasRegistry.registerAlias("TINYLFU", TinyLfuCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
 
@@ -301,6 +372,30 @@ public class Configuration {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
   }
 
+  public boolean isOmitUnusedCacheKeys() {
+    return omitUnusedCacheKeys;
+  }
+
+  public void setOmitUnusedCacheKeys(boolean omitUnusedCacheKeys) {
+    this.omitUnusedCacheKeys = omitUnusedCacheKeys;
+  }
+
+  public boolean isCacheMetricsEnabled() {
+    return cacheMetricsEnabled;
+  }
+
+  public void setCacheMetricsEnabled(boolean cacheMetricsEnabled) {
+    this.cacheMetricsEnabled = cacheMetricsEnabled;
+  }
+
+  public boolean isCacheMetricsJmxEnabled() {
+    return cacheMetricsJmxEnabled;
+  }
+
+  public void setCacheMetricsJmxEnabled(boolean cacheMetricsJmxEnabled) {
+    this.cacheMetricsJmxEnabled = cacheMetricsJmxEnabled;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -406,6 +501,14 @@ public class Configuration {
     this.aggressiveLazyLoading = aggressiveLazyLoading;
   }
 
+  public int getNestedBatchSize() {
+    return nestedBatchSize;
+  }
+
+  public void setNestedBatchSize(int nestedBatchSize) {
+    this.nestedBatchSize = nestedBatchSize;
+  }
+
   public boolean isMultipleResultSetsEnabled() {
     return multipleResultSetsEnabled;
   }
@@ -438,6 +541,137 @@ public class Configuration {
     this.defaultExecutorType = defaultExecutorType;
   }
 
+  public BatchOrdering getBatchOrdering() {
+    return batchOrdering;
+  }
+
+  public void setBatchOrdering(BatchOrdering batchOrdering) {
+    this.batchOrdering = batchOrdering;
+  }
+
+  public synchronized ExecutorService getAsyncExecutorService() {
+    if (asyncExecutorService == null) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(asyncPoolSize, asyncPoolSize, 60L, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "mybatis-async-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.allowCoreThreadTimeOut(true);
+      asyncExecutorService = executor;
+      asyncExecutorServiceCreated = true;
+    }
+    return asyncExecutorService;
+  }
+
+  /**
+   * Sets the executor service of the asynchronous selects. Its owner is responsible for shutting it down.
+   * The default pool is shut down if it was already created.
+   */
+  public synchronized void setAsyncExecutorService(ExecutorService asyncExecutorService) {
+    shutdownAsyncExecutorService();
+    this.asyncExecutorService = asyncExecutorService;
+  }
+
+  /**
+   * Shuts down the default pool of the asynchronous selects, if it was created. The selects already submitted
+   * are completed. An executor service set with {@link #setAsyncExecutorService(ExecutorService)} is left to its
+   * owner. A new default pool is created if an asynchronous select is run afterwards.
+   */
+  public synchronized void shutdownAsyncExecutorService() {
+    if (asyncExecutorServiceCreated) {
+      asyncExecutorService.shutdown();
+      asyncExecutorService = null;
+      asyncExecutorServiceCreated = false;
+    }
+  }
+
+  public synchronized int getAsyncPoolSize() {
+    return asyncPoolSize;
+  }
+
+  public synchronized void setAsyncPoolSize(int asyncPoolSize) {
+    if (asyncPoolSize < 1) {
+      throw new IllegalArgumentException("asyncPoolSize must be positive but was " + asyncPoolSize);
+    }
+    if (asyncExecutorServiceCreated) {
+      ThreadPoolExecutor executor = (ThreadPoolExecutor) asyncExecutorService;
+      if (asyncPoolSize > executor.getMaximumPoolSize()) {
+        executor.setMaximumPoolSize(asyncPoolSize);
+        executor.setCorePoolSize(asyncPoolSize);
+      } else {
+        executor.setCorePoolSize(asyncPoolSize);
+        executor.setMaximumPoolSize(asyncPoolSize);
+      }
+    }
+    this.asyncPoolSize = asyncPoolSize;
+  }
+
+  public Integer getLocalCacheSize() {
+    return localCacheSize;
+  }
+
+  public void setLocalCacheSize(Integer localCacheSize) {
+    this.localCacheSize = localCacheSize;
+  }
+
+  public boolean isLocalCacheWeakValues() {
+    return localCacheWeakValues;
+  }
+
+  public void setLocalCacheWeakValues(boolean localCacheWeakValues) {
+    this.localCacheWeakValues = localCacheWeakValues;
+  }
+
+  public boolean isGenerateRowMappers() {
+    return generateRowMappers;
+  }
+
+  public void setGenerateRowMappers(boolean generateRowMappers) {
+    this.generateRowMappers = generateRowMappers;
+  }
+
+  public boolean isCompactNestedResultKeys() {
+    return compactNestedResultKeys;
+  }
+
+  public void setCompactNestedResultKeys(boolean compactNestedResultKeys) {
+    this.compactNestedResultKeys = compactNestedResultKeys;
+  }
+
+  public boolean isDefaultResultOrdered() {
+    return defaultResultOrdered;
+  }
+
+  public void setDefaultResultOrdered(boolean defaultResultOrdered) {
+    this.defaultResultOrdered = defaultResultOrdered;
+  }
+
+  public RowMapperGenerator getRowMapperGenerator() {
+    return rowMapperGenerator;
+  }
+
+  public Integer getCursorPrefetchSize() {
+    return cursorPrefetchSize;
+  }
+
+  public void setCursorPrefetchSize(Integer cursorPrefetchSize) {
+    this.cursorPrefetchSize = cursorPrefetchSize;
+  }
+
+  public Integer getBatchFlushSize() {
+    return batchFlushSize;
+  }
+
+  public void setBatchFlushSize(Integer batchFlushSize) {
+    this.batchFlushSize = batchFlushSize;
+  }
+
   public boolean isCacheEnabled() {
     return cacheEnabled;
   }
@@ -484,6 +718,18 @@ public class Configuration {
     this.localCacheScope = localCacheScope;
   }
 
+  public CacheInvalidation getCacheInvalidation() {
+    return cacheInvalidation;
+  }
+
+  public void setCacheInvalidation(CacheInvalidation cacheInvalidation) {
+    this.cacheInvalidation = cacheInvalidation;
+  }
+
+  public TableVersions getTableVersions() {
+    return tableVersions;
+  }
+
   public JdbcType getJdbcTypeForNull() {
     return jdbcTypeForNull;
   }
@@ -523,6 +769,17 @@ public class Configuration {
 	  this.reflectorFactory = reflectorFactory;
   }
 
+  public boolean isInvokerGenerationEnabled() {
+    return invokerGenerationEnabled;
+  }
+
+  public void setInvokerGenerationEnabled(boolean invokerGenerationEnabled) {
+    this.invokerGenerationEnabled = invokerGenerationEnabled;
+    if (reflectorFactory instanceof DefaultReflectorFactory) {
+      ((DefaultReflectorFactory) reflectorFactory).setInvokerGenerationEnabled(invokerGenerationEnabled);
+    }
+  }
+
   public ObjectFactory getObjectFactory() {
     return objectFactory;
   }
@@ -571,6 +828,25 @@ public class Configuration {
     return MetaObject.forObject(object, objectFactory, objectWrapperFactory, reflectorFactory);
   }
 
+  /**
+   * Returns the compiled path of a property expression, shared by all the mappings using the same expression.
+   * The parameter mappings of dynamic SQL are built on each execution and get the path compiled the first time.
+   * The per-item expressions of &lt;foreach&gt; are compiled but not kept, as there is one for each item.
+   */
+  public PropertyPath getPropertyPath(String expression) {
+    PropertyPath propertyPath = propertyPaths.get(expression);
+    if (propertyPath == null) {
+      propertyPath = PropertyPath.compile(expression);
+      if (!expression.startsWith(ForEachSqlNode.ITEM_PREFIX)) {
+        PropertyPath existing = propertyPaths.putIfAbsent(expression, propertyPath);
+        if (existing != null) {
+          propertyPath = existing;
+        }
+      }
+    }
+    return propertyPath;
+  }
+
   public ParameterHandler newParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     ParameterHandler parameterHandler = mappedStatement.getLang().createParameterHandler(mappedStatement, parameterObject, boundSql);
     parameterHandler = (ParameterHandler) interceptorChain.pluginAll(parameterHandler);
@@ -640,6 +916,87 @@ public class Configuration {
 
   public void addCache(Cache cache) {
     caches.put(cache.getId(), cache);
+    if (cacheMetricsJmxEnabled && cache instanceof MetricsCache) {
+      registerCacheMetrics(((MetricsCache) cache).getMetrics());
+    }
+  }
+
+  /**
+   * @return the metrics of the cache, null if the cache does not exist or does not collect metrics
+   */
+  public CacheMetrics getCacheMetrics(String id) {
+    if (!caches.containsKey(id)) {
+      return null;
+    }
+    Cache cache = caches.get(id);
+    return cache instanceof MetricsCache ? ((MetricsCache) cache).getMetrics() : null;
+  }
+
+  public Collection<CacheMetrics> getCacheMetrics() {
+    List<CacheMetrics> metrics = new ArrayList<CacheMetrics>();
+    // short names are registered too, and may be ambiguous
+    for (Object cache : new HashSet<Object>(caches.values())) {
+      if (cache instanceof MetricsCache) {
+        metrics.add(((MetricsCache) cache).getMetrics());
+      }
+    }
+    return metrics;
+  }
+
+  private synchronized void registerCacheMetrics(CacheMetrics metrics) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (cacheMetricsJmxName == null) {
+        cacheMetricsJmxName = findCacheMetricsJmxName(server);
+      }
+      ObjectName name = new ObjectName("org.apache.ibatis:type=CacheMetrics,configuration=" + ObjectName.quote(cacheMetricsJmxName)
+          + ",name=" + ObjectName.quote(metrics.getId()));
+      server.registerMBean(metrics, name);
+      cacheMetricsObjectNames.add(name);
+    } catch (Exception e) {
+      LogFactory.getLog(Configuration.class).warn("Could not register the metrics of cache " + metrics.getId() + " in JMX.  Cause: " + e);
+    }
+  }
+
+  /*
+   * Caches with the same id may belong to different configurations, so each configuration registers its caches
+   * under the id of its environment, followed by a number when another configuration already uses it.
+   */
+  private String findCacheMetricsJmxName(MBeanServer server) throws MalformedObjectNameException {
+    final String baseName = environment == null ? "default" : environment.getId();
+    String candidate = baseName;
+    for (int i = 2; !server.queryNames(new ObjectName("org.apache.ibatis:type=CacheMetrics,configuration="
+        + ObjectName.quote(candidate) + ",*"), null).isEmpty(); i++) {
+      candidate = baseName + "-" + i;
+    }
+    return candidate;
+  }
+
+  /**
+   * @return the names of the cache metrics MBeans registered by this configuration
+   */
+  public synchronized Collection<ObjectName> getCacheMetricsObjectNames() {
+    return Collections.unmodifiableList(new ArrayList<ObjectName>(cacheMetricsObjectNames));
+  }
+
+  /**
+   * Unregisters the cache metrics MBeans registered by this configuration. Should be called when the
+   * configuration is discarded, e.g. when its application is undeployed, so the platform MBean server
+   * does not keep the caches reachable.
+   */
+  public synchronized void unregisterCacheMetrics() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName name : cacheMetricsObjectNames) {
+      try {
+        if (server.isRegistered(name)) {
+          server.unregisterMBean(name);
+        }
+      } catch (Exception e) {
+        LogFactory.getLog(Configuration.class).warn("Could not unregister the cache metrics MBean " + name + ".  Cause: " + e);
+      }
+    }
+    cacheMetricsObjectNames.clear();
+    cacheMetricsJmxName = null;
   }
 
   public Collection<String> getCacheNames() {
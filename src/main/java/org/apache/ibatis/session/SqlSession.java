@@ -19,9 +19,11 @@ import java.io.Closeable;
 import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.BatchResultHandler;
 
 /**
  * The primary Java interface for working with MyBatis.
@@ -143,6 +145,57 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * Retrieve a single row mapped from the statement key in another thread. The query runs on
+   * {@link Configuration#getAsyncExecutorService()} in a session of its own, with its own connection, so it does not
+   * see the uncommitted changes nor the local cache of this session.
+   * @param <T> the returned object type
+   * @param statement Unique identifier matching the statement to use.
+   * @return Future of the mapped object
+   */
+  <T> Future<T> selectOneAsync(String statement);
+
+  /**
+   * Retrieve a single row mapped from the statement key and parameter in another thread.
+   * @param <T> the returned object type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return Future of the mapped object
+   * @see #selectOneAsync(String)
+   */
+  <T> Future<T> selectOneAsync(String statement, Object parameter);
+
+  /**
+   * Retrieve a list of mapped objects from the statement key in another thread.
+   * @param <E> the returned list element type
+   * @param statement Unique identifier matching the statement to use.
+   * @return Future of the list of mapped objects
+   * @see #selectOneAsync(String)
+   */
+  <E> Future<List<E>> selectListAsync(String statement);
+
+  /**
+   * Retrieve a list of mapped objects from the statement key and parameter in another thread.
+   * @param <E> the returned list element type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return Future of the list of mapped objects
+   * @see #selectOneAsync(String)
+   */
+  <E> Future<List<E>> selectListAsync(String statement, Object parameter);
+
+  /**
+   * Retrieve a list of mapped objects from the statement key and parameter, within the specified row bounds, in
+   * another thread.
+   * @param <E> the returned list element type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return Future of the list of mapped objects
+   * @see #selectOneAsync(String)
+   */
+  <E> Future<List<E>> selectListAsync(String statement, Object parameter, RowBounds rowBounds);
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
@@ -250,6 +303,15 @@ public interface SqlSession extends Closeable {
    */
   List<BatchResult> flushStatements();
 
+  /**
+   * Sets the handler that receives the result of each batch executed by this session, including those flushed
+   * automatically because of the {@code batchFlushSize} setting.
+   * @param batchResultHandler the handler, or null to stop streaming results
+   * @throws org.apache.ibatis.executor.ExecutorException when the executor of this session, once unwrapped from
+   *         its plugins, is not one of the MyBatis executors
+   */
+  void setBatchResultHandler(BatchResultHandler batchResultHandler);
+
   /**
    * Closes the session
    */
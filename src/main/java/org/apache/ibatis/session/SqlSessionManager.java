@@ -24,9 +24,11 @@ import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.BatchResultHandler;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
@@ -196,6 +198,31 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.selectCursor(statement, parameter, rowBounds);
   }
 
+  @Override
+  public <T> Future<T> selectOneAsync(String statement) {
+    return sqlSessionProxy.<T> selectOneAsync(statement);
+  }
+
+  @Override
+  public <T> Future<T> selectOneAsync(String statement, Object parameter) {
+    return sqlSessionProxy.<T> selectOneAsync(statement, parameter);
+  }
+
+  @Override
+  public <E> Future<List<E>> selectListAsync(String statement) {
+    return sqlSessionProxy.<E> selectListAsync(statement);
+  }
+
+  @Override
+  public <E> Future<List<E>> selectListAsync(String statement, Object parameter) {
+    return sqlSessionProxy.<E> selectListAsync(statement, parameter);
+  }
+
+  @Override
+  public <E> Future<List<E>> selectListAsync(String statement, Object parameter, RowBounds rowBounds) {
+    return sqlSessionProxy.<E> selectListAsync(statement, parameter, rowBounds);
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return sqlSessionProxy.<E> selectList(statement);
@@ -324,6 +351,15 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSession.flushStatements();
   }
 
+  @Override
+  public void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+    final SqlSession sqlSession = localSqlSession.get();
+    if (sqlSession == null) {
+      throw new SqlSessionException("Error:  Cannot set batch result handler.  No managed session is started.");
+    }
+    sqlSession.setBatchResultHandler(batchResultHandler);
+  }
+
   @Override
   public void close() {
     final SqlSession sqlSession = localSqlSession.get();
@@ -23,17 +23,24 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.binding.BindingException;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
+import org.apache.ibatis.executor.BaseExecutor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.BatchResultHandler;
+import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Plugin;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -131,6 +138,41 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public <T> Future<T> selectOneAsync(String statement) {
+    return this.<T>selectOneAsync(statement, null);
+  }
+
+  @Override
+  public <T> Future<T> selectOneAsync(final String statement, final Object parameter) {
+    return configuration.getAsyncExecutorService().submit(new AsyncSelect<T>() {
+      @Override
+      protected T select(SqlSession sqlSession) {
+        return sqlSession.<T>selectOne(statement, parameter);
+      }
+    });
+  }
+
+  @Override
+  public <E> Future<List<E>> selectListAsync(String statement) {
+    return this.<E>selectListAsync(statement, null);
+  }
+
+  @Override
+  public <E> Future<List<E>> selectListAsync(String statement, Object parameter) {
+    return this.<E>selectListAsync(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  @Override
+  public <E> Future<List<E>> selectListAsync(final String statement, final Object parameter, final RowBounds rowBounds) {
+    return configuration.getAsyncExecutorService().submit(new AsyncSelect<List<E>>() {
+      @Override
+      protected List<E> select(SqlSession sqlSession) {
+        return sqlSession.<E>selectList(statement, parameter, rowBounds);
+      }
+    });
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return this.selectList(statement, null);
@@ -261,6 +303,19 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public void setBatchResultHandler(BatchResultHandler batchResultHandler) {
+    // Executor interceptors wrap the executor in plugin proxies
+    Object target = Plugin.unwrap(executor);
+    if (target instanceof CachingExecutor) {
+      ((CachingExecutor) target).setBatchResultHandler(batchResultHandler);
+    } else if (target instanceof BaseExecutor) {
+      ((BaseExecutor) target).setBatchResultHandler(batchResultHandler);
+    } else {
+      throw new ExecutorException("Executor " + target.getClass().getName() + " does not support batch result handlers.");
+    }
+  }
+
   @Override
   public void close() {
     try {
@@ -350,4 +405,21 @@ public class DefaultSqlSession implements SqlSession {
 
   }
 
+  //异步查询在独立的会话（及连接）中执行
+  private abstract class AsyncSelect<T> implements Callable<T> {
+
+    @Override
+    public T call() {
+      SqlSession sqlSession = new DefaultSqlSessionFactory(configuration).openSession();
+      try {
+        return select(sqlSession);
+      } finally {
+        sqlSession.close();
+      }
+    }
+
+    protected abstract T select(SqlSession sqlSession);
+
+  }
+
 }
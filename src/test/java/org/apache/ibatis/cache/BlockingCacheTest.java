@@ -0,0 +1,143 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class BlockingCacheTest {
+
+  @Test
+  public void shouldLoadEachMissedKeyOnce() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Object>> results = new ArrayList<Future<Object>>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            start.await();
+            Object value = cache.getObject("key");
+            if (value == null) {
+              loads.incrementAndGet();
+              Thread.sleep(100);
+              value = "loaded";
+              cache.putObject("key", value);
+            }
+            return value;
+          }
+        }));
+      }
+      start.countDown();
+      for (Future<Object> result : results) {
+        assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, loads.get());
+    assertEquals(0, cache.getPendingLoads());
+  }
+
+  @Test
+  public void shouldForgetLoadsThatFinished() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    for (int i = 0; i < 100; i++) {
+      assertNull(cache.getObject(i));
+      if (i % 2 == 0) {
+        cache.putObject(i, i);
+      } else {
+        cache.removeObject(i);
+      }
+    }
+    assertEquals(0, cache.getPendingLoads());
+    assertEquals(2, cache.getObject(2));
+  }
+
+  @Test
+  public void shouldLetTheNextThreadLoadWhenTheLoaderGivesUp() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    Future<Object> waiter = Executors.newSingleThreadExecutor().submit(new Callable<Object>() {
+      @Override
+      public Object call() {
+        Object value = cache.getObject("key");
+        cache.removeObject("key");
+        return value;
+      }
+    });
+    Thread.sleep(50);
+    cache.removeObject("key");
+    assertNull(waiter.get(5, TimeUnit.SECONDS));
+    assertEquals(0, cache.getPendingLoads());
+  }
+
+  @Test
+  public void shouldFallThroughAfterMaxWait() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setMaxWait(50);
+    assertNull(cache.getObject("key"));
+    Future<Object> waiter = Executors.newSingleThreadExecutor().submit(new Callable<Object>() {
+      @Override
+      public Object call() {
+        Object value = cache.getObject("key");
+        // not the owner, must not release the pending load
+        cache.putObject("key", "from waiter");
+        return value;
+      }
+    });
+    assertNull(waiter.get(5, TimeUnit.SECONDS));
+    assertEquals(1, cache.getPendingLoads());
+    cache.putObject("key", "from loader");
+    assertEquals(0, cache.getPendingLoads());
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldFailAfterTimeout() throws Throwable {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(50);
+    assertNull(cache.getObject("key"));
+    Future<Object> waiter = Executors.newSingleThreadExecutor().submit(new Callable<Object>() {
+      @Override
+      public Object call() {
+        return cache.getObject("key");
+      }
+    });
+    try {
+      waiter.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    }
+  }
+
+}
@@ -18,6 +18,10 @@ package org.apache.ibatis.cache;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Date;
 
 public class CacheKeyTest {
@@ -80,4 +84,86 @@ public class CacheKeyTest {
     assertTrue(key1.equals(key2));
   }
 
+  @Test
+  public void shouldBeEqualWhenBuiltFromPrefix() {
+    CacheKey prefix = new CacheKey(new Object[] { "statement", 0, Integer.MAX_VALUE, "select 1" });
+    CacheKey key1 = new CacheKey(prefix, 1);
+    key1.update(42);
+    CacheKey key2 = new CacheKey(new Object[] { "statement", 0, Integer.MAX_VALUE, "select 1", 42 });
+    assertEquals(key1, key2);
+    assertEquals(key2, key1);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key1.toString(), key2.toString());
+    assertEquals(4, prefix.getUpdateCount());
+  }
+
+  @Test
+  public void shouldGrowBeyondExpectedUpdates() {
+    CacheKey key1 = new CacheKey(1);
+    CacheKey key2 = new CacheKey();
+    for (int i = 0; i < 20; i++) {
+      key1.update(i);
+      key2.update(i);
+    }
+    assertEquals(20, key1.getUpdateCount());
+    assertEquals(key1, key2);
+  }
+
+  @Test
+  public void shouldNotShareComponentsWithClone() throws Exception {
+    CacheKey key1 = new CacheKey(new Object[] { 1, "hello" });
+    CacheKey key2 = key1.clone();
+    key2.update("world");
+    assertFalse(key1.equals(key2));
+    assertEquals(2, key1.getUpdateCount());
+  }
+
+  @Test
+  public void shouldSurviveSerialization() throws Exception {
+    CacheKey key = new CacheKey(new Object[] { "select", 1, null });
+    CacheKey copy = (CacheKey) deserialize(serialize(key));
+    assertEquals(key, copy);
+    assertEquals(key.hashCode(), copy.hashCode());
+    copy.update(2);
+    key.update(2);
+    assertEquals(key, copy);
+  }
+
+  @Test
+  public void shouldReadKeysSerializedWithComponentList() throws Exception {
+    // new CacheKey(new Object[] { "select", 1, null }) serialized when the components were kept in an ArrayList
+    String serialized =
+        "aced0005737200206f72672e6170616368652e6962617469732e63616368652e43616368654b65790fe9d5b4cd33a882"
+        + "0200054a0008636865636b73756d490005636f756e7449000868617368636f646549000a6d756c7469706c6965724c00"
+        + "0a7570646174654c6973747400104c6a6176612f7574696c2f4c6973743b7870ffffffffc9ff34fe0000000335cf7b96"
+        + "00000025737200136a6176612e7574696c2e41727261794c6973747881d21d99c7619d03000149000473697a65787000"
+        + "00000377040000000374000673656c656374737200116a6176612e6c616e672e496e746567657212e2a0a4f781873802"
+        + "000149000576616c7565787200106a6176612e6c616e672e4e756d62657286ac951d0b94e08b02000078700000000170"
+        + "78";
+    byte[] bytes = new byte[serialized.length() / 2];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) Integer.parseInt(serialized.substring(i * 2, i * 2 + 2), 16);
+    }
+    CacheKey key = (CacheKey) deserialize(bytes);
+    assertEquals(new CacheKey(new Object[] { "select", 1, null }), key);
+    assertEquals(3, key.getUpdateCount());
+  }
+
+  private static byte[] serialize(Object object) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(object);
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws Exception {
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+    try {
+      return in.readObject();
+    } finally {
+      in.close();
+    }
+  }
+
 }
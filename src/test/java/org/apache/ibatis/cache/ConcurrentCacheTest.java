@@ -0,0 +1,144 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+
+  @Test
+  public void shouldKeepAllObjectsWithinSize() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(1000);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+      assertEquals(i, cache.getObject(i));
+    }
+    assertEquals(1000, cache.getSize());
+  }
+
+  @Test
+  public void shouldEvictBeyondSize() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(5);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(5, cache.getSize());
+    assertEquals(99, cache.getObject(99));
+  }
+
+  @Test
+  public void shouldGiveRecentlyReadEntriesASecondChance() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(5);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(0, cache.getObject(0));
+    cache.putObject(5, 5);
+    assertEquals(0, cache.getObject(0));
+    assertNull(cache.getObject(1));
+    assertEquals(5, cache.getSize());
+  }
+
+  @Test
+  public void shouldSkipRemovedEntriesWhenEvicting() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(5);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    for (int i = 0; i < 5; i++) {
+      cache.removeObject(i);
+    }
+    for (int i = 10; i < 16; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(5, cache.getSize());
+    assertNull(cache.getObject(10));
+    assertEquals(11, cache.getObject(11));
+  }
+
+  @Test
+  public void shouldKeepSizeWhenEntriesAreRemovedRepeatedly() {
+    ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(10);
+    for (int i = 0; i < 10000; i++) {
+      cache.putObject(i, i);
+      if (i % 2 == 0) {
+        cache.removeObject(i);
+      }
+    }
+    assertEquals(10, cache.getSize());
+    assertEquals(9999, cache.getObject(9999));
+  }
+
+  @Test
+  public void shouldRemoveItemOnDemand() {
+    Cache cache = new ConcurrentCache("default");
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  public void shouldFlushAllItemsOnDemand() {
+    Cache cache = new ConcurrentCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+  }
+
+  @Test
+  public void shouldStayBoundedWhenUsedByManyThreads() throws Exception {
+    final ConcurrentCache cache = new ConcurrentCache("default");
+    cache.setSize(100);
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < 8; t++) {
+      final int offset = t * 10000;
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 10000; i++) {
+            cache.putObject(offset + i, i);
+            cache.getObject(offset + i / 2);
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(cache.getSize() <= 100);
+  }
+
+}
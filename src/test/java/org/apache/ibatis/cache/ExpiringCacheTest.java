@@ -0,0 +1,133 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class ExpiringCacheTest {
+
+  @Test
+  public void shouldExpireEachEntryAfterItsTimeToLive() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(500);
+    cache.putObject(0, 0);
+    Thread.sleep(300);
+    cache.putObject(1, 1);
+    Thread.sleep(300);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+    Thread.sleep(300);
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  public void shouldSpreadExpirationsWithJitter() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(1000);
+    cache.setJitter(0.9);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    Thread.sleep(600);
+    int alive = 0;
+    for (int i = 0; i < 100; i++) {
+      if (cache.getObject(i) != null) {
+        alive++;
+      }
+    }
+    assertTrue(alive > 0);
+    assertTrue(alive < 100);
+  }
+
+  @Test
+  public void shouldLetOneReaderRefreshWhileOthersGetTheCurrentValue() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(500);
+    cache.setRefreshAhead(400);
+    cache.putObject(0, "old");
+    assertEquals("old", cache.getObject(0));
+    Thread.sleep(200);
+    assertNull(cache.getObject(0));
+    assertEquals("old", cache.getObject(0));
+    assertEquals("old", cache.getObject(0));
+    cache.putObject(0, "new");
+    assertEquals("new", cache.getObject(0));
+  }
+
+  @Test
+  public void shouldLetAnotherReaderRefreshWhenTheRefreshIsGivenUp() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(500);
+    cache.setRefreshAhead(400);
+    cache.putObject(0, "old");
+    Thread.sleep(200);
+    assertNull(cache.getObject(0));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+    assertEquals("old", cache.getObject(0));
+  }
+
+  @Test
+  public void shouldLetAnotherReaderRefreshWhenTheClaimLapses() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(1000);
+    cache.setRefreshAhead(400);
+    cache.putObject(0, "old");
+    Thread.sleep(650);
+    assertNull(cache.getObject(0));
+    assertEquals("old", cache.getObject(0));
+    // the reader never puts a new value nor releases its claim
+    Thread.sleep(250);
+    assertNull(cache.getObject(0));
+    assertEquals("old", cache.getObject(0));
+  }
+
+  @Test
+  public void shouldRemoveExpiredEntriesFromTheDelegate() throws Exception {
+    PerpetualCache delegate = new PerpetualCache("default");
+    ExpiringCache cache = new ExpiringCache(delegate);
+    cache.setTimeToLive(200);
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    Thread.sleep(300);
+    assertNull(cache.getObject(0));
+    assertEquals(1, delegate.getSize());
+    assertNull(cache.getObject(1));
+    assertEquals(0, delegate.getSize());
+  }
+
+  @Test
+  public void shouldBeConfiguredByCacheBuilder() throws Exception {
+    Properties props = new Properties();
+    props.setProperty("refreshAhead", "400");
+    Cache cache = new CacheBuilder("default").timeToLive(500L).properties(props).build();
+    cache.putObject(0, "old");
+    assertEquals("old", cache.getObject(0));
+    Thread.sleep(200);
+    assertNull(cache.getObject(0));
+    assertEquals("old", cache.getObject(0));
+    Thread.sleep(400);
+    assertNull(cache.getObject(0));
+  }
+
+}
@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.MetricsCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class MetricsCacheTest {
+
+  @Test
+  public void shouldCountCacheOperations() {
+    LruCache lru = new LruCache(new PerpetualCache("default"));
+    lru.setSize(10);
+    MetricsCache cache = new MetricsCache(lru);
+    for (int i = 0; i < 15; i++) {
+      assertNull(cache.getObject(i));
+      cache.putObject(i, i);
+    }
+    cache.putObject(100, null);
+    assertEquals(14, cache.getObject(14));
+    CacheMetrics metrics = cache.getMetrics();
+    assertEquals(1, metrics.getHits());
+    assertEquals(15, metrics.getMisses());
+    assertEquals(1d / 16, metrics.getHitRatio(), 0.0001);
+    assertEquals(15, metrics.getPuts());
+    assertEquals(10, metrics.getSize());
+    assertEquals(5, metrics.getEvictions());
+    cache.clear();
+    assertEquals(1, metrics.getClears());
+    assertEquals(0, metrics.getSize());
+    assertEquals(5, metrics.getEvictions());
+  }
+
+  @Test
+  public void shouldRecordLoadTimes() {
+    CacheMetrics metrics = new CacheMetrics(new PerpetualCache("default"));
+    metrics.recordLoad(TimeUnit.MICROSECONDS.toNanos(50));
+    metrics.recordLoad(TimeUnit.MILLISECONDS.toNanos(3));
+    metrics.recordLoad(TimeUnit.SECONDS.toNanos(20));
+    assertEquals(3, metrics.getLoads());
+    long[] histogram = metrics.getLoadTimeHistogram();
+    assertEquals(metrics.getLoadTimeBuckets().length + 1, histogram.length);
+    assertEquals(1, histogram[0]);
+    assertEquals(1, histogram[5]);
+    assertEquals(1, histogram[histogram.length - 1]);
+    assertEquals((0.05 + 3 + 20000) / 3, metrics.getAverageLoadTime(), 0.001);
+  }
+
+  @Test
+  public void shouldNotLoseConcurrentUpdates() throws Exception {
+    final MetricsCache cache = new MetricsCache(new PerpetualCache("default"));
+    cache.putObject("key", "value");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 8; i++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 10000; j++) {
+            cache.getObject("key");
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(80000, cache.getMetrics().getHits());
+  }
+
+  @Test
+  public void shouldBeTheOutermostDecorator() {
+    Cache cache = new CacheBuilder("default").blocking(true).metrics(true).build();
+    assertTrue(cache instanceof MetricsCache);
+    cache = new CacheBuilder("default").metrics(false).build();
+    assertFalse(cache instanceof MetricsCache);
+  }
+
+  @Test
+  public void shouldExposeMetricsOfConfiguration() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setCacheMetricsJmxEnabled(true);
+    configuration.addCache(new MetricsCache(new BlockingCache(new PerpetualCache("org.apache.ibatis.Metrics"))));
+    configuration.addCache(new PerpetualCache("org.apache.ibatis.Plain"));
+    assertNotNull(configuration.getCacheMetrics("org.apache.ibatis.Metrics"));
+    assertNull(configuration.getCacheMetrics("org.apache.ibatis.Plain"));
+    assertNull(configuration.getCacheMetrics("org.apache.ibatis.Missing"));
+    assertEquals(1, configuration.getCacheMetrics().size());
+    Set<ObjectName> names = ManagementFactory.getPlatformMBeanServer().queryNames(
+        new ObjectName("org.apache.ibatis:type=CacheMetrics,*"), null);
+    boolean registered = false;
+    for (ObjectName name : names) {
+      registered |= "org.apache.ibatis.Metrics".equals(ObjectName.unquote(name.getKeyProperty("name")));
+    }
+    assertTrue(registered);
+    configuration.unregisterCacheMetrics();
+  }
+
+  @Test
+  public void shouldRegisterCachesOfEachConfigurationUnderItsOwnName() throws Exception {
+    Configuration first = new Configuration();
+    first.setCacheMetricsJmxEnabled(true);
+    first.addCache(new MetricsCache(new PerpetualCache("org.apache.ibatis.Shared")));
+    Configuration second = new Configuration();
+    second.setCacheMetricsJmxEnabled(true);
+    second.addCache(new MetricsCache(new PerpetualCache("org.apache.ibatis.Shared")));
+    try {
+      assertEquals(1, first.getCacheMetricsObjectNames().size());
+      assertEquals(1, second.getCacheMetricsObjectNames().size());
+      ObjectName firstName = first.getCacheMetricsObjectNames().iterator().next();
+      ObjectName secondName = second.getCacheMetricsObjectNames().iterator().next();
+      assertFalse(firstName.equals(secondName));
+      assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(firstName));
+      assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(secondName));
+
+      first.unregisterCacheMetrics();
+      assertTrue(first.getCacheMetricsObjectNames().isEmpty());
+      assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(firstName));
+      assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(secondName));
+    } finally {
+      first.unregisterCacheMetrics();
+      second.unregisterCacheMetrics();
+    }
+  }
+
+}
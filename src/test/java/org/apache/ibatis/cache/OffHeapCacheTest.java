@@ -0,0 +1,113 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+
+  @Test
+  public void shouldReturnCopiesOfStoredObjects() throws Exception {
+    OffHeapCache cache = newCache(1024 * 1024, 4);
+    List<String> value = new ArrayList<String>();
+    value.add("hello");
+    cache.putObject(0, value);
+    Object copy = cache.getObject(0);
+    assertEquals(value, copy);
+    assertNotSame(value, copy);
+    assertEquals(1, cache.getHits());
+    assertNull(cache.getObject(1));
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void shouldEvictOldestSegmentWhenBudgetIsExhausted() throws Exception {
+    OffHeapCache cache = newCache(4096, 4);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, "value " + i);
+    }
+    assertTrue(cache.getBytesUsed() <= 4096);
+    assertTrue(cache.getEvictions() > 0);
+    assertTrue(cache.getSize() < 1000);
+    assertNull(cache.getObject(0));
+    assertEquals("value 999", cache.getObject(999));
+  }
+
+  @Test
+  public void shouldTrackBytesOfReplacedAndRemovedValues() throws Exception {
+    OffHeapCache cache = newCache(1024 * 1024, 4);
+    cache.putObject(0, "value");
+    long used = cache.getBytesUsed();
+    cache.putObject(0, "value");
+    assertEquals(used, cache.getBytesUsed());
+    cache.removeObject(0);
+    assertEquals(0, cache.getBytesUsed());
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  public void shouldFlushAllItemsOnDemand() throws Exception {
+    OffHeapCache cache = newCache(1024 * 1024, 4);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getBytesUsed());
+  }
+
+  @Test
+  public void shouldStoreValuesInMappedFile() throws Exception {
+    File file = File.createTempFile("mybatis-offheap", ".bin");
+    file.deleteOnExit();
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setMaxBytes(64 * 1024);
+    cache.setFile(file.getAbsolutePath());
+    cache.initialize();
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(64 * 1024, file.length());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, cache.getObject(i));
+    }
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldRejectNonSerializableObjects() throws Exception {
+    OffHeapCache cache = newCache(1024 * 1024, 4);
+    cache.putObject(0, new Object());
+  }
+
+  private OffHeapCache newCache(long maxBytes, int segments) throws Exception {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setMaxBytes(maxBytes);
+    cache.setSegments(segments);
+    cache.initialize();
+    return cache;
+  }
+
+}
@@ -0,0 +1,237 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.JdkCacheSerializer;
+import org.apache.ibatis.cache.serializer.ObjectCopier;
+import org.apache.ibatis.cache.serializer.ReflectorCacheSerializer;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.junit.Test;
+
+public class ReflectorCacheSerializerTest {
+
+  private final ReflectorCacheSerializer serializer = new ReflectorCacheSerializer();
+
+  @Test
+  public void shouldRoundTripBeansAndCommonTypes() {
+    Node node = newNode();
+    Node copy = (Node) serializer.deserialize(serializer.serialize(node));
+    assertNotSame(node, copy);
+    assertNode(node, copy);
+  }
+
+  @Test
+  public void shouldPreserveSharedReferencesAndCycles() {
+    Node parent = newNode();
+    Node child = new Node();
+    child.setParent(parent);
+    parent.getChildren().add(child);
+    parent.getChildren().add(child);
+    Node copy = (Node) serializer.deserialize(serializer.serialize(parent));
+    assertEquals(2, copy.getChildren().size());
+    assertSame(copy.getChildren().get(0), copy.getChildren().get(1));
+    assertSame(copy, copy.getChildren().get(0).getParent());
+  }
+
+  @Test
+  public void shouldFallBackToJavaSerializationForOtherTypes() {
+    Map<String, Integer> sorted = new TreeMap<String, Integer>();
+    sorted.put("b", 2);
+    sorted.put("a", 1);
+    Object copy = serializer.deserialize(serializer.serialize(sorted));
+    assertTrue(copy instanceof TreeMap);
+    assertEquals(sorted, copy);
+  }
+
+  @Test
+  public void shouldWriteLessThanJavaSerialization() {
+    List<Author> authors = new ArrayList<Author>();
+    for (int i = 0; i < 100; i++) {
+      authors.add(new Author(i, "user" + i, "secret", "user" + i + "@example.com", "bio", Section.NEWS));
+    }
+    byte[] compact = serializer.serialize(authors);
+    byte[] standard = new JdkCacheSerializer().serialize(authors);
+    assertTrue(compact.length < standard.length);
+    @SuppressWarnings("unchecked")
+    List<Author> copy = (List<Author>) serializer.deserialize(compact);
+    assertEquals(authors, copy);
+  }
+
+  @Test
+  public void shouldDeepCopyWithoutSerializing() {
+    Node node = newNode();
+    node.getChildren().add(new Node());
+    Node copy = (Node) new ObjectCopier().copy(node);
+    assertNotSame(node, copy);
+    assertNotSame(node.getChildren(), copy.getChildren());
+    assertNotSame(node.getChildren().get(0), copy.getChildren().get(0));
+    assertNotSame(node.getCreated(), copy.getCreated());
+    assertNode(node, copy);
+  }
+
+  @Test
+  public void shouldUseConfiguredSerializerInSerializedCache() {
+    SerializedCache cache = new SerializedCache(new PerpetualCache("default"));
+    cache.setSerializer(ReflectorCacheSerializer.class.getName());
+    Node node = newNode();
+    cache.putObject(1, node);
+    Node copy = (Node) cache.getObject(1);
+    assertNotSame(node, copy);
+    assertNode(node, copy);
+  }
+
+  @Test
+  public void shouldCopyOnReadInSerializedCache() {
+    PerpetualCache delegate = new PerpetualCache("default");
+    SerializedCache cache = new SerializedCache(delegate);
+    cache.setCopyOnRead(true);
+    Node node = newNode();
+    cache.putObject(1, node);
+    node.setName("changed after put");
+    Node first = (Node) cache.getObject(1);
+    Node second = (Node) cache.getObject(1);
+    assertTrue(delegate.getObject(1) instanceof Node);
+    assertNotSame(first, second);
+    assertEquals("node", first.getName());
+  }
+
+  private Node newNode() {
+    Node node = new Node();
+    node.setName("node");
+    node.setAmount(new BigDecimal("12.50"));
+    node.setCreated(new Timestamp(1234567890123L));
+    node.setSection(Section.VIDEOS);
+    node.setTags(new String[] { "a", null, "b" });
+    node.setScores(new int[] { 1, 2, 3 });
+    node.getAttributes().put("weight", 3.5d);
+    node.getAttributes().put("visible", Boolean.TRUE);
+    node.getAttributes().put("author", new Author(7));
+    return node;
+  }
+
+  private void assertNode(Node expected, Node actual) {
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getAmount(), actual.getAmount());
+    assertEquals(expected.getCreated(), actual.getCreated());
+    assertEquals(expected.getSection(), actual.getSection());
+    assertArrayEquals(expected.getTags(), actual.getTags());
+    assertArrayEquals(expected.getScores(), actual.getScores());
+    assertEquals(expected.getAttributes(), actual.getAttributes());
+    assertEquals(expected.getChildren().size(), actual.getChildren().size());
+  }
+
+  public static class Node implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private BigDecimal amount;
+    private Date created;
+    private Section section;
+    private String[] tags;
+    private int[] scores;
+    private Map<String, Object> attributes = new LinkedHashMap<String, Object>();
+    private List<Node> children = new ArrayList<Node>();
+    private Node parent;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public BigDecimal getAmount() {
+      return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+      this.amount = amount;
+    }
+
+    public Date getCreated() {
+      return created;
+    }
+
+    public void setCreated(Date created) {
+      this.created = created;
+    }
+
+    public Section getSection() {
+      return section;
+    }
+
+    public void setSection(Section section) {
+      this.section = section;
+    }
+
+    public String[] getTags() {
+      return tags;
+    }
+
+    public void setTags(String[] tags) {
+      this.tags = tags;
+    }
+
+    public int[] getScores() {
+      return scores;
+    }
+
+    public void setScores(int[] scores) {
+      this.scores = scores;
+    }
+
+    public Map<String, Object> getAttributes() {
+      return attributes;
+    }
+
+    public void setAttributes(Map<String, Object> attributes) {
+      this.attributes = attributes;
+    }
+
+    public List<Node> getChildren() {
+      return children;
+    }
+
+    public void setChildren(List<Node> children) {
+      this.children = children;
+    }
+
+    public Node getParent() {
+      return parent;
+    }
+
+    public void setParent(Node parent) {
+      this.parent = parent;
+    }
+  }
+
+}
@@ -0,0 +1,157 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.TinyLfuCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class TinyLfuCacheTest {
+
+  @Test
+  public void shouldNotGrowBeyondSize() {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setSize(100);
+    for (int i = 0; i < 10000; i++) {
+      cache.putObject(i, i);
+      cache.getObject(i % 50);
+    }
+    assertEquals(100, cache.getSize());
+  }
+
+  @Test
+  public void shouldKeepFrequentlyUsedItemsOnScan() {
+    TinyLfuCache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.setSize(100);
+    for (int i = 0; i < 50; i++) {
+      cache.putObject(i, i);
+    }
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 50; i++) {
+        cache.getObject(i);
+      }
+    }
+    for (int i = 1000; i < 2000; i++) {
+      cache.putObject(i, i);
+    }
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i, cache.getObject(i));
+    }
+  }
+
+  @Test
+  public void shouldRemoveItemOnDemand() {
+    Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  public void shouldFlushAllItemsOnDemand() {
+    Cache cache = new TinyLfuCache(new PerpetualCache("default"));
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+  }
+
+  @Test
+  public void shouldBeatLruAndFifoHitRateOnSkewedTraceWithScans() {
+    TinyLfuCache tinyLfu = new TinyLfuCache(new ConcurrentCache("tinylfu"));
+    tinyLfu.setSize(500);
+    LruCache lru = new LruCache(new PerpetualCache("lru"));
+    lru.setSize(500);
+    FifoCache fifo = new FifoCache(new PerpetualCache("fifo"));
+    fifo.setSize(500);
+
+    double tinyLfuHitRate = hitRate(tinyLfu);
+    double lruHitRate = hitRate(lru);
+    double fifoHitRate = hitRate(fifo);
+
+    assertTrue("TinyLFU " + tinyLfuHitRate + " LRU " + lruHitRate, tinyLfuHitRate > lruHitRate);
+    assertTrue("TinyLFU " + tinyLfuHitRate + " FIFO " + fifoHitRate, tinyLfuHitRate > fifoHitRate);
+  }
+
+  private double hitRate(Cache cache) {
+    ZipfGenerator zipf = new ZipfGenerator(10000, 0.9, new Random(42));
+    int hits = 0;
+    int requests = 0;
+    int scanKey = 1000000;
+    for (int i = 0; i < 200000; i++) {
+      Object key;
+      if (i % 5000 < 1000) {
+        // a report query walking through rows nobody reads again
+        key = scanKey++;
+      } else {
+        key = zipf.next();
+      }
+      requests++;
+      if (cache.getObject(key) != null) {
+        hits++;
+      } else {
+        cache.putObject(key, key);
+      }
+    }
+    return (double) hits / requests;
+  }
+
+  private static class ZipfGenerator {
+    private final double[] cumulative;
+    private final Random random;
+
+    ZipfGenerator(int items, double skew, Random random) {
+      this.random = random;
+      this.cumulative = new double[items];
+      double sum = 0;
+      for (int i = 0; i < items; i++) {
+        sum += 1.0 / Math.pow(i + 1, skew);
+        cumulative[i] = sum;
+      }
+      for (int i = 0; i < items; i++) {
+        cumulative[i] /= sum;
+      }
+    }
+
+    int next() {
+      double value = random.nextDouble();
+      int low = 0;
+      int high = cumulative.length - 1;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (cumulative[middle] < value) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+  }
+
+}
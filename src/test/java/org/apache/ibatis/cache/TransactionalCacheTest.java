@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class TransactionalCacheTest {
+
+  @Test
+  public void shouldPutAllEntriesInOneCallOnCommit() {
+    CountingCache delegate = new CountingCache();
+    TransactionalCache cache = new TransactionalCache(delegate);
+    for (int i = 0; i < 10; i++) {
+      assertNull(cache.getObject(i));
+      cache.putObject(i, i);
+    }
+    assertEquals(0, delegate.getSize());
+    cache.commit();
+    assertEquals(10, delegate.getSize());
+    assertEquals(1, delegate.bulkPuts);
+    assertEquals(0, delegate.singlePuts);
+  }
+
+  @Test
+  public void shouldNotPutMissedKeysOfNonBlockingCaches() {
+    PerpetualCache delegate = new PerpetualCache("default");
+    TransactionalCache cache = new TransactionalCache(new SynchronizedCache(delegate));
+    assertNull(cache.getObject("missed"));
+    cache.commit();
+    assertEquals(0, delegate.getSize());
+  }
+
+  @Test
+  public void shouldReleaseLocksOfMissedKeys() {
+    BlockingCache delegate = new BlockingCache(new PerpetualCache("default"));
+    TransactionalCache cache = new TransactionalCache(delegate);
+    assertNull(cache.getObject("missed"));
+    assertNull(cache.getObject("put"));
+    cache.putObject("put", "value");
+    assertEquals(2, delegate.getPendingLoads());
+    cache.commit();
+    assertEquals(0, delegate.getPendingLoads());
+    assertEquals("value", delegate.getObject("put"));
+
+    assertNull(cache.getObject("rolledBack"));
+    cache.rollback();
+    assertEquals(0, delegate.getPendingLoads());
+  }
+
+  @Test
+  public void shouldReleaseMissedKeysOfCustomCaches() {
+    final PerpetualCache target = new PerpetualCache("default");
+    final List<String> calls = new ArrayList<String>();
+    // a cache that is not part of MyBatis, it may lock missed keys like BlockingCache does
+    Cache custom = (Cache) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Cache.class },
+        new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (args != null) {
+              calls.add(method.getName() + ":" + args[0]);
+            }
+            return method.invoke(target, args);
+          }
+        });
+    TransactionalCache cache = new TransactionalCache(new LoggingCache(custom));
+    assertNull(cache.getObject("committed"));
+    cache.commit();
+    assertTrue(calls.contains("putObject:committed"));
+
+    assertNull(cache.getObject("rolledBack"));
+    cache.rollback();
+    assertTrue(calls.contains("removeObject:rolledBack"));
+  }
+
+  @Test
+  public void shouldStopCachingWhenStagingIsFull() {
+    PerpetualCache delegate = new PerpetualCache("default");
+    TransactionalCache cache = new TransactionalCache(new SynchronizedCache(delegate), 2);
+    cache.putObject(1, 1);
+    cache.putObject(2, 2);
+    cache.putObject(3, 3);
+    cache.putObject(2, 4);
+    assertEquals(0, delegate.getSize());
+    cache.commit();
+    assertEquals(2, delegate.getSize());
+    assertEquals(4, delegate.getObject(2));
+    assertNull(delegate.getObject(3));
+  }
+
+  @Test
+  public void shouldNotCacheAnythingOnRollbackWhenStagingIsFull() {
+    PerpetualCache delegate = new PerpetualCache("default");
+    TransactionalCache cache = new TransactionalCache(new SynchronizedCache(delegate), 1);
+    cache.putObject(1, 1);
+    cache.putObject(2, 2);
+    cache.rollback();
+    assertEquals(0, delegate.getSize());
+  }
+
+  @Test
+  public void shouldTrackMissesOfDecoratedExpiringCache() {
+    ExpiringCache expiring = new ExpiringCache(new PerpetualCache("default"));
+    expiring.setTimeToLive(1000);
+    expiring.setRefreshAhead(1000);
+    expiring.putObject("key", "value");
+    TransactionalCache cache = new TransactionalCache(new SynchronizedCache(new LoggingCache(expiring)));
+    // the entry is within its refresh ahead period, this reader is asked to reload it
+    assertNull(cache.getObject("key"));
+    assertEquals("value", expiring.getObject("key"));
+    cache.rollback();
+    // the claim to reload was released by the rollback
+    assertNull(expiring.getObject("key"));
+  }
+
+  @Test
+  public void shouldReleaseMissedKeysAfterStagingIsFull() {
+    BlockingCache delegate = new BlockingCache(new PerpetualCache("default"));
+    TransactionalCache cache = new TransactionalCache(delegate, 1);
+    cache.clear();
+    assertNull(cache.getObject(1));
+    cache.putObject(1, 1);
+    assertNull(cache.getObject(2));
+    cache.putObject(2, 2);
+    assertEquals(0, delegate.getSize());
+    assertEquals(2, delegate.getPendingLoads());
+    cache.commit();
+    assertEquals(1, delegate.getObject(1));
+    assertNull(delegate.getObject(2));
+    delegate.removeObject(2);
+    assertEquals(0, delegate.getPendingLoads());
+  }
+
+  private static class CountingCache extends PerpetualCache implements BulkCache {
+    private int singlePuts;
+    private int bulkPuts;
+
+    CountingCache() {
+      super("default");
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+      singlePuts++;
+      super.putObject(key, value);
+    }
+
+    @Override
+    public void putObjects(Map<Object, Object> entries) {
+      bulkPuts++;
+      for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+        super.putObject(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+}
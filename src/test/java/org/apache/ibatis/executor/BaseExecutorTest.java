@@ -16,8 +16,11 @@
 package org.apache.ibatis.executor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
@@ -29,12 +32,14 @@ import javassist.util.proxy.Proxy;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.Post;
 import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
@@ -130,6 +135,25 @@ public class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  public void shouldOmitCacheKeyOfQueriesNoCacheCanUse() throws Exception {
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    config.setOmitUnusedCacheKeys(true);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectAuthors = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      MappedStatement selectPosts = ExecutorTestHelper.prepareSelectPostsForBlogMappedStatement(config);
+      assertSame(CacheKey.NULL_CACHE_KEY, executor.createCacheKey(selectAuthors, null, RowBounds.DEFAULT, selectAuthors.getBoundSql(null)));
+      assertNotSame(CacheKey.NULL_CACHE_KEY, executor.createCacheKey(selectPosts, 1, RowBounds.DEFAULT, selectPosts.getBoundSql(1)));
+      List<Author> authors = executor.query(selectAuthors, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(2, authors.size());
+      assertEquals(101, authors.get(0).getId());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
   @Test
   public void shouldInsertNewAuthorWithAutoKey() throws Exception {
     
@@ -416,6 +440,36 @@ public class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  public void shouldBoundLocalCacheBetweenQueries() throws Exception {
+    config.setLocalCacheSize(1);
+    config.setLocalCacheWeakValues(true);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectBlog = ExecutorTestHelper.prepareComplexSelectBlogMappedStatement(config);
+      MappedStatement selectPosts = ExecutorTestHelper.prepareSelectPostsForBlogMappedStatement(config);
+      config.addMappedStatement(selectBlog);
+      config.addMappedStatement(selectPosts);
+      List<Blog> blogs = executor.query(selectBlog, 1, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(2, blogs.get(0).getPosts().size());
+      assertEquals(1, blogs.get(0).getPosts().get(1).getBlog().getPosts().get(1).getBlog().getId());
+
+      MappedStatement selectAuthor = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      CacheKey firstKey = executor.createCacheKey(selectAuthor, 101, RowBounds.DEFAULT, selectAuthor.getBoundSql(101));
+      CacheKey secondKey = executor.createCacheKey(selectAuthor, 102, RowBounds.DEFAULT, selectAuthor.getBoundSql(102));
+      List<Author> first = executor.query(selectAuthor, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertTrue(executor.isCached(selectAuthor, firstKey));
+      List<Author> second = executor.query(selectAuthor, 102, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(101, first.get(0).getId());
+      assertEquals(102, second.get(0).getId());
+      assertTrue(executor.isCached(selectAuthor, secondKey));
+      assertFalse(executor.isCached(selectAuthor, firstKey));
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
   @Test
   public void shouldMapConstructorResults() throws Exception {
     
@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class BatchLoaderTest {
+
+  @Test
+  public void shouldNormalizeIntegralNumbersToLong() {
+    assertEquals(Long.valueOf(7), BatchLoader.normalize(Integer.valueOf(7)));
+    assertEquals(Long.valueOf(7), BatchLoader.normalize(Short.valueOf((short) 7)));
+    assertEquals(Long.valueOf(7), BatchLoader.normalize(new AtomicInteger(7)));
+    assertEquals(Long.valueOf(7), BatchLoader.normalize(BigInteger.valueOf(7)));
+    assertEquals(Long.valueOf(7), BatchLoader.normalize(new BigDecimal("7.00")));
+    assertEquals(Long.valueOf(0), BatchLoader.normalize(new BigDecimal("0.00")));
+    assertEquals(Long.valueOf(7), BatchLoader.normalize(Double.valueOf(7)));
+  }
+
+  @Test
+  public void shouldNormalizeOtherNumbersToComparableDecimals() {
+    assertEquals(BatchLoader.normalize(new BigDecimal("1.5")), BatchLoader.normalize(new BigDecimal("1.50")));
+    assertEquals(BatchLoader.normalize(new BigDecimal("1.5")), BatchLoader.normalize(Double.valueOf(1.5)));
+    assertEquals(BatchLoader.normalize(new BigDecimal("1.5")), BatchLoader.normalize(Float.valueOf(1.5f)));
+    BigInteger huge = BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE);
+    assertEquals(new BigDecimal(huge), BatchLoader.normalize(huge));
+    assertEquals(Double.valueOf(Double.NaN), BatchLoader.normalize(Double.NaN));
+    assertEquals("key", BatchLoader.normalize("key"));
+  }
+
+}
@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class ResultSetWrapperTest {
+
+  @Test
+  public void shouldResolveColumnIndexesByLabel() throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(3);
+    when(rsmd.getColumnLabel(1)).thenReturn("ID");
+    when(rsmd.getColumnLabel(2)).thenReturn("name");
+    when(rsmd.getColumnLabel(3)).thenReturn("Id");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnType(3)).thenReturn(Types.INTEGER);
+
+    ResultSetWrapper rsw = new ResultSetWrapper(rs, new Configuration());
+    assertEquals(1, rsw.getColumnIndex("id"));
+    assertEquals(2, rsw.getColumnIndex("NAME"));
+    assertEquals(-1, rsw.getColumnIndex("missing"));
+    assertEquals(-1, rsw.getColumnIndex(null));
+  }
+
+  @Test
+  public void shouldResolveMappedColumnIndexesOncePerResultMapAndPrefix() throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(3);
+    when(rsmd.getColumnLabel(1)).thenReturn("id");
+    when(rsmd.getColumnLabel(2)).thenReturn("P_ID");
+    when(rsmd.getColumnLabel(3)).thenReturn("p_name");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(2)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(3)).thenReturn(Types.VARCHAR);
+
+    Configuration configuration = new Configuration();
+    List<ResultMapping> resultMappings = new ArrayList<ResultMapping>();
+    resultMappings.add(new ResultMapping.Builder(configuration, "id", "ID", Integer.class).build());
+    resultMappings.add(new ResultMapping.Builder(configuration, "name", "name", String.class).build());
+    resultMappings.add(new ResultMapping.Builder(configuration, "age", "age", Integer.class).build());
+    ResultMap resultMap = new ResultMap.Builder(configuration, "person", Object.class, resultMappings).build();
+
+    ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    int[] indexes = rsw.getMappedColumnIndexes(resultMap, resultMap.getPropertyResultMappings(), null);
+    assertArrayEquals(new int[] { 1, 0, 0 }, indexes);
+    assertSame(indexes, rsw.getMappedColumnIndexes(resultMap, resultMap.getPropertyResultMappings(), null));
+    assertArrayEquals(new int[] { 2, 3, 0 }, rsw.getMappedColumnIndexes(resultMap, resultMap.getPropertyResultMappings(), "P_"));
+  }
+
+}
@@ -0,0 +1,161 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+
+import org.apache.ibatis.type.DoubleTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.junit.Test;
+
+public class RowMapperGeneratorTest {
+
+  private static final String[] PROPERTIES = { "name", "age", "score" };
+  private static final Class<?>[] PROPERTY_TYPES = { String.class, int.class, Double.class };
+  private static final int[] COLUMNS = { 3, 1, 2 };
+  private static final TypeHandler<?>[] TYPE_HANDLERS = { new StringTypeHandler(), new IntegerTypeHandler(), new DoubleTypeHandler() };
+
+  @Test
+  public void shouldSetPropertiesFromColumnsByIndex() throws Exception {
+    RowMapper rowMapper = new RowMapperGenerator().newRowMapper(Student.class, PROPERTIES, PROPERTY_TYPES, COLUMNS,
+        new boolean[3], TYPE_HANDLERS);
+    assertNotNull(rowMapper);
+
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getInt(1)).thenReturn(20);
+    when(rs.getDouble(2)).thenReturn(1.5d);
+    when(rs.getString(3)).thenReturn("Ann");
+    Student student = new Student();
+    assertTrue(rowMapper.map(rs, student));
+    assertEquals("Ann", student.getName());
+    assertEquals(20, student.getAge());
+    assertEquals(Double.valueOf(1.5d), student.getScore());
+  }
+
+  @Test
+  public void shouldCallSettersOnNullsOnlyWhenAsked() throws Exception {
+    RowMapperGenerator generator = new RowMapperGenerator();
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.wasNull()).thenReturn(true);
+
+    Student student = new Student();
+    RowMapper rowMapper = generator.newRowMapper(Student.class, PROPERTIES, PROPERTY_TYPES, COLUMNS, new boolean[3], TYPE_HANDLERS);
+    assertFalse(rowMapper.map(rs, student));
+    assertEquals("unknown", student.getName());
+    assertEquals(Double.valueOf(0d), student.getScore());
+
+    rowMapper = generator.newRowMapper(Student.class, PROPERTIES, PROPERTY_TYPES, COLUMNS, new boolean[] { true, false, true }, TYPE_HANDLERS);
+    assertFalse(rowMapper.map(rs, student));
+    assertNull(student.getName());
+    assertNull(student.getScore());
+    assertEquals(-1, student.getAge());
+  }
+
+  @Test
+  public void shouldShareGeneratedClassForSameLayout() throws Exception {
+    RowMapperGenerator generator = new RowMapperGenerator();
+    RowMapper first = generator.newRowMapper(Student.class, PROPERTIES, PROPERTY_TYPES, COLUMNS, new boolean[3], TYPE_HANDLERS);
+    RowMapper second = generator.newRowMapper(Student.class, PROPERTIES, PROPERTY_TYPES, COLUMNS, new boolean[3], TYPE_HANDLERS);
+    assertSame(first.getClass(), second.getClass());
+    RowMapper other = generator.newRowMapper(Student.class, PROPERTIES, PROPERTY_TYPES, new int[] { 1, 2, 3 }, new boolean[3], TYPE_HANDLERS);
+    assertFalse(first.getClass() == other.getClass());
+  }
+
+  @Test
+  public void shouldNotGenerateForTypesWithoutPublicSetters() throws Exception {
+    RowMapperGenerator generator = new RowMapperGenerator();
+    assertNull(generator.newRowMapper(HiddenStudent.class, new String[] { "name" }, new Class<?>[] { String.class }, new int[] { 1 },
+        new boolean[1], new TypeHandler<?>[] { new StringTypeHandler() }));
+    assertNull(generator.newRowMapper(Student.class, new String[] { "nickname" }, new Class<?>[] { String.class }, new int[] { 1 },
+        new boolean[1], new TypeHandler<?>[] { new StringTypeHandler() }));
+  }
+
+  @Test
+  public void shouldNotGenerateWhenHandlerDoesNotReturnWrapperOfPrimitiveProperty() throws Exception {
+    RowMapperGenerator generator = new RowMapperGenerator();
+    assertNull(generator.newRowMapper(Student.class, new String[] { "age" }, new Class<?>[] { int.class }, new int[] { 1 },
+        new boolean[1], new TypeHandler<?>[] { new LongTypeHandler() }));
+    assertNull(generator.newRowMapper(Student.class, new String[] { "age" }, new Class<?>[] { int.class }, new int[] { 1 },
+        new boolean[1], new TypeHandler<?>[] { new ObjectTypeHandler() }));
+    assertNotNull(generator.newRowMapper(Student.class, new String[] { "score" }, new Class<?>[] { Double.class }, new int[] { 1 },
+        new boolean[1], new TypeHandler<?>[] { new ObjectTypeHandler() }));
+  }
+
+  public static class Student {
+    private String name = "unknown";
+    private int age = -1;
+    private Double score = 0d;
+    private String nickname;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getAge() {
+      return age;
+    }
+
+    public void setAge(int age) {
+      this.age = age;
+    }
+
+    public Double getScore() {
+      return score;
+    }
+
+    public void setScore(Double score) {
+      this.score = score;
+    }
+
+    String getNickname() {
+      return nickname;
+    }
+
+    void setNickname(String nickname) {
+      this.nickname = nickname;
+    }
+  }
+
+  static class HiddenStudent {
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+}
@@ -75,6 +75,63 @@ public class PooledDataSourceTest extends BaseDataTest {
     }
   }
 
+  @Test
+  public void shouldReusePreparedStatementsAcrossCheckouts() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumActiveConnections(1);
+      ds.setPoolMaximumCachedStatements(2);
+      Connection c = ds.getConnection();
+      PreparedStatement first = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      first.setMaxRows(1);
+      first.close();
+      assertTrue(first.isClosed());
+      c.close();
+
+      c = ds.getConnection();
+      PreparedStatement second = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      assertSame(first, second);
+      assertFalse(second.isClosed());
+      assertEquals(0, second.getMaxRows());
+      assertSame(c, second.getConnection());
+      ResultSet rs = second.executeQuery();
+      assertTrue(rs.next());
+      rs.close();
+      PreparedStatement nested = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      assertNotSame(second, nested);
+      nested.close();
+      assertTrue(nested.isClosed());
+      second.close();
+      c.close();
+      assertEquals(1, ds.getPoolState().getStatementCacheHitCount());
+      assertEquals(2, ds.getPoolState().getStatementCacheMissCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldCloseEvictedAndInvalidatedStatements() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumCachedStatements(1);
+      Connection c = ds.getConnection();
+      PreparedStatement first = c.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      PreparedStatement firstReal = first.unwrap(PreparedStatement.class);
+      first.close();
+      PreparedStatement second = c.prepareStatement("SELECT 2 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      PreparedStatement secondReal = second.unwrap(PreparedStatement.class);
+      assertTrue(firstReal.isClosed());
+      second.close();
+      assertFalse(secondReal.isClosed());
+      c.close();
+      ds.forceCloseAll();
+      assertTrue(secondReal.isClosed());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   @Test
   public void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -18,6 +18,14 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.DelegatingCache;
+import org.apache.ibatis.cache.ThreadSafeCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.hamcrest.core.Is;
 import org.junit.Assert;
@@ -26,6 +34,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.lang.reflect.Field;
+import java.util.Properties;
 
 public class CacheBuilderTest {
 
@@ -47,6 +56,54 @@ public class CacheBuilderTest {
     new CacheBuilder("test").implementation(InitializingFailureCache.class).build();
   }
 
+  @Test
+  public void testSynchronizedByDefault() throws Exception {
+    Cache cache = new CacheBuilder("test").addDecorator(LruCache.class).build();
+
+    Assert.assertTrue(cache instanceof SynchronizedCache);
+  }
+
+  @Test
+  public void testConcurrentCacheIsNotSynchronized() throws Exception {
+    Cache cache = new CacheBuilder("test").implementation(ConcurrentCache.class).addDecorator(LruCache.class).size(10).build();
+
+    Assert.assertTrue(cache instanceof LoggingCache);
+    ConcurrentCache base = unwrap(cache);
+    for (int i = 0; i < 20; i++) {
+      cache.putObject(i, i);
+    }
+    Assert.assertThat(base.getSize(), Is.is(10));
+  }
+
+  @Test
+  public void testConcurrentCacheRejectsDecoratorsThatAreNotThreadSafe() throws Exception {
+    expectedException.expect(CacheException.class);
+    expectedException.expectMessage("cannot be used with ConcurrentCache");
+    new CacheBuilder("test").implementation(ConcurrentCache.class).addDecorator(SoftCache.class).build();
+  }
+
+  @Test
+  public void testConcurrentCacheStandardDecoratorsAreThreadSafe() throws Exception {
+    Cache cache = new CacheBuilder("test").implementation(ConcurrentCache.class).addDecorator(LruCache.class)
+        .clearInterval(60000L).timeToLive(60000L).readWrite(true).blocking(true).build();
+    for (Cache link = cache; link instanceof DelegatingCache; link = ((DelegatingCache) link).getDelegate()) {
+      Assert.assertTrue(link.getClass().getName(), link instanceof ThreadSafeCache);
+      Assert.assertFalse(link instanceof SynchronizedCache);
+    }
+  }
+
+  @Test
+  public void testOffHeapCacheProperties() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty("maxBytes", "65536");
+    properties.setProperty("segments", "8");
+    OffHeapCache cache = unwrap(new CacheBuilder("test").implementation(OffHeapCache.class).properties(properties).build());
+
+    Assert.assertThat(cache.getMaxBytes(), Is.is(65536L));
+    cache.putObject("key", "value");
+    Assert.assertThat(cache.getObject("key"), Is.is((Object) "value"));
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache){
     Field field;
@@ -0,0 +1,46 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SqlTablesTest {
+
+  @Test
+  public void shouldFindTablesOfQueries() {
+    assertArrayEquals(new String[] { "blog", "author", "post" }, SqlTables.parse(
+        "SELECT b.id FROM Blog b JOIN \"AUTHOR\" a ON b.author_id = a.id\n LEFT OUTER JOIN blogs.post p ON p.blog_id = b.id WHERE b.id = ?"));
+    assertArrayEquals(new String[] { "blog", "author" }, SqlTables.parse("select * from blog b, author a where b.author_id = a.id"));
+    assertArrayEquals(new String[] { "blog", "comment" }, SqlTables.parse(
+        "select * from blog where id in (select blog_id from comment where text like ?) order by id"));
+  }
+
+  @Test
+  public void shouldFindTablesOfUpdates() {
+    assertArrayEquals(new String[] { "author" }, SqlTables.parse("insert into author (id, username) values (?, ?)"));
+    assertArrayEquals(new String[] { "author" }, SqlTables.parse("update `author` set bio = ? where id = ?"));
+    assertArrayEquals(new String[] { "author" }, SqlTables.parse("DELETE FROM author WHERE id = ?"));
+    assertArrayEquals(new String[] { "archive", "post" }, SqlTables.parse("insert into archive select * from post where created < ?"));
+  }
+
+  @Test
+  public void shouldFindNoTablesInCalls() {
+    assertEquals(0, SqlTables.parse("{call rename_author(?, ?)}").length);
+  }
+
+}
@@ -17,6 +17,7 @@ package org.apache.ibatis.plugin;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
 
 import java.util.HashMap;
@@ -39,6 +40,14 @@ public class PluginTest {
     assertFalse("Always".equals(map.toString()));
   }
 
+  @Test
+  public void shouldUnwrapNestedPlugins() {
+    Map map = new HashMap();
+    Object wrapped = new AlwaysMapPlugin().plugin(new AlwaysMapPlugin().plugin(map));
+    assertSame(map, Plugin.unwrap(wrapped));
+    assertSame(map, Plugin.unwrap(map));
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
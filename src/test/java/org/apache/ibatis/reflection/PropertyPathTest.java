@@ -0,0 +1,168 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.misc.CustomBeanWrapperFactory;
+import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class PropertyPathTest {
+
+  private final ObjectFactory objectFactory = SystemMetaObject.DEFAULT_OBJECT_FACTORY;
+  private final ObjectWrapperFactory objectWrapperFactory = SystemMetaObject.DEFAULT_OBJECT_WRAPPER_FACTORY;
+  private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+
+  @Test
+  public void shouldGetAndSetNestedProperty() {
+    RichType rich = new RichType();
+    rich.setRichType(new RichType());
+    PropertyPath path = PropertyPath.compile("richType.richProperty");
+    path.setValue(rich, "foo", objectFactory, objectWrapperFactory, reflectorFactory);
+    assertEquals("foo", rich.getRichType().getRichProperty());
+    assertEquals("foo", path.getValue(rich, objectFactory, objectWrapperFactory, reflectorFactory));
+    assertEquals("richType", path.getRootName());
+  }
+
+  @Test
+  public void shouldGetAndSetPrivateField() {
+    RichType rich = new RichType();
+    PropertyPath path = PropertyPath.compile("richField");
+    path.setValue(rich, "foo", objectFactory, objectWrapperFactory, reflectorFactory);
+    assertEquals("foo", SystemMetaObject.forObject(rich).getValue("richField"));
+    assertEquals("foo", path.getValue(rich, objectFactory, objectWrapperFactory, reflectorFactory));
+  }
+
+  @Test
+  public void shouldReturnNullForNullIntermediateProperty() {
+    PropertyPath path = PropertyPath.compile("richType.richProperty");
+    assertNull(path.getValue(new RichType(), objectFactory, objectWrapperFactory, reflectorFactory));
+  }
+
+  @Test
+  public void shouldInstantiateNullIntermediatePropertyOnSet() {
+    RichType rich = new RichType();
+    PropertyPath.compile("richType.richProperty").setValue(rich, "foo", objectFactory, objectWrapperFactory, reflectorFactory);
+    assertEquals("foo", rich.getRichType().getRichProperty());
+  }
+
+  @Test
+  public void shouldGetAndSetMapEntries() {
+    RichType rich = new RichType();
+    PropertyPath path = PropertyPath.compile("richMap.key");
+    path.setValue(rich, "foo", objectFactory, objectWrapperFactory, reflectorFactory);
+    assertEquals("foo", rich.getRichMap().get("key"));
+    assertEquals("foo", path.getValue(rich, objectFactory, objectWrapperFactory, reflectorFactory));
+
+    Map<String, Object> map = new HashMap<String, Object>();
+    map.put("author", new Author(101, "cbegin", "******", "cbegin@apache.org", "N/A", null));
+    assertEquals("cbegin", PropertyPath.compile("author.username").getValue(map, objectFactory, objectWrapperFactory, reflectorFactory));
+  }
+
+  @Test
+  public void shouldGetAndSetIndexedProperties() {
+    RichType rich = new RichType();
+    PropertyPath path = PropertyPath.compile("richList[0]");
+    assertEquals("bar", path.getValue(rich, objectFactory, objectWrapperFactory, reflectorFactory));
+    path.setValue(rich, "b", objectFactory, objectWrapperFactory, reflectorFactory);
+    assertEquals("b", rich.getRichList().get(0));
+
+    PropertyPath mapPath = PropertyPath.compile("richMap[key]");
+    mapPath.setValue(rich, "foo", objectFactory, objectWrapperFactory, reflectorFactory);
+    assertEquals("foo", mapPath.getValue(rich, objectFactory, objectWrapperFactory, reflectorFactory));
+  }
+
+  @Test
+  public void shouldFollowClassChangesOfTheSameSegment() {
+    PropertyPath path = PropertyPath.compile("username");
+    Author author = new Author(101, "cbegin", "******", "cbegin@apache.org", "N/A", null);
+    Map<String, Object> map = new HashMap<String, Object>();
+    map.put("username", "jdoe");
+    assertEquals("cbegin", path.getValue(author, objectFactory, objectWrapperFactory, reflectorFactory));
+    assertEquals("jdoe", path.getValue(map, objectFactory, objectWrapperFactory, reflectorFactory));
+    assertEquals("cbegin", path.getValue(author, objectFactory, objectWrapperFactory, reflectorFactory));
+  }
+
+  @Test
+  public void shouldKeepInvokersOfClassesReadInTurn() {
+    final List<Class<?>> lookups = new ArrayList<Class<?>>();
+    ReflectorFactory countingFactory = new DefaultReflectorFactory() {
+      @Override
+      public Reflector findForClass(Class<?> type) {
+        lookups.add(type);
+        return super.findForClass(type);
+      }
+    };
+    PropertyPath path = PropertyPath.compile("id");
+    Author author = new Author(101, "cbegin", "******", "cbegin@apache.org", "N/A", null);
+    Blog blog = new Blog(1, "Blog", author, null);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(101, path.getValue(author, objectFactory, objectWrapperFactory, countingFactory));
+      assertEquals(1, path.getValue(blog, objectFactory, objectWrapperFactory, countingFactory));
+    }
+    assertEquals(Arrays.<Class<?>> asList(Author.class, Blog.class), lookups);
+  }
+
+  @Test
+  public void shouldUseCustomObjectWrappers() {
+    Author author = new Author(101, "cbegin", "******", "cbegin@apache.org", "N/A", null);
+    MetaObject meta = MetaObject.forObject(author, objectFactory, new CustomBeanWrapperFactory(), reflectorFactory);
+    PropertyPath path = PropertyPath.compile("username");
+    assertEquals(meta.getValue("username"), path.getValue(author, objectFactory, new CustomBeanWrapperFactory(), reflectorFactory));
+  }
+
+  @Test
+  public void shouldShareCompiledPathsOfDynamicStatements() {
+    SqlSourceBuilder builder = new SqlSourceBuilder(new Configuration());
+    Map<String, Object> additionalParameters = new HashMap<String, Object>();
+    String sql = "select * from author where id = #{author.id} and name = #{__frch_item_0.name}";
+    List<ParameterMapping> first = builder.parse(sql, Object.class, additionalParameters).getBoundSql(null).getParameterMappings();
+    List<ParameterMapping> second = builder.parse(sql, Object.class, additionalParameters).getBoundSql(null).getParameterMappings();
+    assertSame(first.get(0).getPropertyPath(), second.get(0).getPropertyPath());
+    // the per-item expressions of foreach are not kept
+    assertNotSame(first.get(1).getPropertyPath(), second.get(1).getPropertyPath());
+  }
+
+  @Test
+  public void shouldFailLikeMetaObjectForUnknownProperty() {
+    try {
+      PropertyPath.compile("unknown").getValue(new RichType(), objectFactory, objectWrapperFactory, reflectorFactory);
+      fail();
+    } catch (ReflectionException e) {
+      assertTrue(e.getMessage().contains("There is no getter for property named 'unknown'"));
+    }
+  }
+
+}
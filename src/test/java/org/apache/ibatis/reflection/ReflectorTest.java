@@ -19,8 +19,12 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 
 import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
+import org.apache.ibatis.reflection.invoker.AccessorInvoker;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -212,4 +216,106 @@ public class ReflectorTest {
     Reflector reflector = reflectorFactory.findForClass(Bean.class);
     assertTrue((Boolean)reflector.getGetInvoker("bool").invoke(new Bean(), new Byte[0]));
   }
+
+  @Test
+  public void shouldInvokeGeneratedAccessors() throws Throwable {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    reflectorFactory.setInvokerGenerationEnabled(true);
+    Reflector reflector = reflectorFactory.findForClass(Score.class);
+    Invoker setPoints = reflector.getSetInvoker("points");
+    Invoker getPoints = reflector.getGetInvoker("points");
+    assertTrue(setPoints instanceof AccessorInvoker);
+    assertEquals(int.class, setPoints.getType());
+    assertTrue(reflector.getSetInvoker("player") instanceof AccessorInvoker);
+    assertTrue(reflector.getGetInvoker("ranked") instanceof AccessorInvoker);
+
+    Score score = new Score();
+    setPoints.invoke(score, new Object[] { 42 });
+    reflector.getSetInvoker("player").invoke(score, new Object[] { "Alice" });
+    assertEquals(42, getPoints.invoke(score, null));
+    assertEquals("Alice", reflector.getGetInvoker("player").invoke(score, null));
+    assertEquals(Boolean.TRUE, reflector.getGetInvoker("ranked").invoke(score, null));
+  }
+
+  @Test
+  public void shouldWrapExceptionsOfGeneratedAccessors() throws Throwable {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    reflectorFactory.setInvokerGenerationEnabled(true);
+    Invoker setPoints = reflectorFactory.findForClass(Score.class).getSetInvoker("points");
+    try {
+      setPoints.invoke(new Score(), new Object[] { -1 });
+      fail();
+    } catch (InvocationTargetException e) {
+      assertTrue(e.getTargetException() instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test
+  public void shouldConvertPrimitiveSetterValuesLikeReflection() throws Throwable {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    reflectorFactory.setInvokerGenerationEnabled(true);
+    Reflector generated = reflectorFactory.findForClass(Score.class);
+    Reflector reflective = new DefaultReflectorFactory().findForClass(Score.class);
+    assertTrue(generated.getSetInvoker("total") instanceof AccessorInvoker);
+    for (Reflector reflector : new Reflector[] { generated, reflective }) {
+      Score score = new Score();
+      reflector.getSetInvoker("total").invoke(score, new Object[] { 7 });
+      assertEquals(7L, score.getTotal());
+      reflector.getSetInvoker("total").invoke(score, new Object[] { 'a' });
+      assertEquals(97L, score.getTotal());
+      for (Object value : new Object[] { 7L, 7.0, null }) {
+        try {
+          reflector.getSetInvoker("points").invoke(score, new Object[] { value });
+          fail();
+        } catch (IllegalArgumentException e) {
+          // like Method.invoke, the value is neither narrowed nor reported as thrown by the setter
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shouldKeepReflectionForClassesThatAreNotPublic() throws Exception {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    reflectorFactory.setInvokerGenerationEnabled(true);
+    assertTrue(reflectorFactory.findForClass(Section.class).getSetInvoker("id") instanceof MethodInvoker);
+    assertTrue(new DefaultReflectorFactory().findForClass(Score.class).getSetInvoker("points") instanceof MethodInvoker);
+  }
+
+  public static class Score {
+    private String player;
+    private int points;
+    private long total;
+
+    public String getPlayer() {
+      return player;
+    }
+
+    public void setPlayer(String player) {
+      this.player = player;
+    }
+
+    public int getPoints() {
+      return points;
+    }
+
+    public void setPoints(int points) {
+      if (points < 0) {
+        throw new IllegalArgumentException("negative points");
+      }
+      this.points = points;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    public void setTotal(long total) {
+      this.total = total;
+    }
+
+    public boolean isRanked() {
+      return points > 0;
+    }
+  }
 }
@@ -0,0 +1,155 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.async_select;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncSelectTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_select/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/async_select/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldSelectAsynchronouslyFromTheSession() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Future<User> user = sqlSession.selectOneAsync("getUser", 2);
+      Future<List<User>> users = sqlSession.selectListAsync("getUsers");
+      Future<List<User>> page = sqlSession.selectListAsync("getUsers", null, new RowBounds(1, 1));
+      assertEquals("User2", user.get().getName());
+      assertEquals(3, users.get().size());
+      assertEquals(1, page.get().size());
+      assertEquals("User2", page.get().get(0).getName());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldSelectAsynchronouslyFromMapperMethods() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Future<User> user = mapper.getUser(1);
+      Future<List<User>> users = mapper.getUsers();
+      Future<List<User>> page = mapper.getUserPage(new RowBounds(2, 5));
+      assertEquals("User1", user.get().getName());
+      assertEquals(3, users.get().size());
+      assertEquals("User3", page.get().get(0).getName());
+      assertNull(mapper.getUser(4).get());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRunOnTheConfiguredExecutorService() throws Exception {
+    ExecutorService executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        return new Thread(runnable, "custom-async");
+      }
+    });
+    sqlSessionFactory.getConfiguration().setAsyncExecutorService(executorService);
+    try {
+      assertEquals("User3", sqlSessionFactory.openSession().getMapper(Mapper.class).getUser(3).get().getName());
+      String threadName = executorService.submit(new Callable<String>() {
+        @Override
+        public String call() {
+          return Thread.currentThread().getName();
+        }
+      }).get();
+      assertEquals("custom-async", threadName);
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldSizeAndShutDownTheDefaultPool() throws Exception {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setAsyncPoolSize(3);
+    ExecutorService executorService = configuration.getAsyncExecutorService();
+    assertEquals(3, ((ThreadPoolExecutor) executorService).getMaximumPoolSize());
+    configuration.setAsyncPoolSize(5);
+    assertEquals(5, ((ThreadPoolExecutor) executorService).getCorePoolSize());
+    assertEquals("User3", sqlSessionFactory.openSession().getMapper(Mapper.class).getUser(3).get().getName());
+
+    configuration.shutdownAsyncExecutorService();
+    assertTrue(executorService.isShutdown());
+    assertNotSame(executorService, configuration.getAsyncExecutorService());
+    configuration.shutdownAsyncExecutorService();
+  }
+
+  @Test
+  public void shouldNotShutDownTheConfiguredExecutorService() throws Exception {
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      sqlSessionFactory.getConfiguration().setAsyncExecutorService(executorService);
+      sqlSessionFactory.getConfiguration().shutdownAsyncExecutorService();
+      assertFalse(executorService.isShutdown());
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test(expected = BindingException.class)
+  public void shouldRejectFuturesOfOtherCollections() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getUserSet();
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
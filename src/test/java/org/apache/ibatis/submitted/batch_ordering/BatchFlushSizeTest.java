@@ -0,0 +1,158 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_ordering;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.BatchResultHandler;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchFlushSizeTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_ordering/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_ordering/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldFlushEveryBatchFlushSizeExecutions() {
+    sqlSessionFactory.getConfiguration().setBatchFlushSize(4);
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      final List<BatchResult> handled = new ArrayList<BatchResult>();
+      sqlSession.setBatchResultHandler(new BatchResultHandler() {
+        @Override
+        public void handleBatchResult(BatchResult batchResult) {
+          handled.add(batchResult);
+        }
+      });
+      OrderMapper mapper = sqlSession.getMapper(OrderMapper.class);
+      for (int i = 1; i <= 5; i++) {
+        mapper.insertOrder(i);
+        mapper.insertLine(i, i);
+      }
+      // 8 executions were flushed in two batches of 4 by themselves
+      assertEquals(4, handled.size());
+      assertEquals(2, handled.get(0).getUpdateCounts().length);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(6, handled.size());
+      assertEquals(5, mapper.countLines());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldHandleBatchResultsWhenAnExecutorPluginIsRegistered() {
+    UpdateCounter counter = new UpdateCounter();
+    sqlSessionFactory.getConfiguration().addInterceptor(counter);
+    sqlSessionFactory.getConfiguration().setBatchFlushSize(2);
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      final List<BatchResult> handled = new ArrayList<BatchResult>();
+      sqlSession.setBatchResultHandler(new BatchResultHandler() {
+        @Override
+        public void handleBatchResult(BatchResult batchResult) {
+          handled.add(batchResult);
+        }
+      });
+      OrderMapper mapper = sqlSession.getMapper(OrderMapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertOrder(i);
+      }
+      assertEquals(1, handled.size());
+      sqlSession.flushStatements();
+      assertEquals(2, handled.size());
+      assertEquals(3, counter.updates);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldNotFlushByDefault() {
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      OrderMapper mapper = sqlSession.getMapper(OrderMapper.class);
+      for (int i = 1; i <= 5; i++) {
+        mapper.insertOrder(i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals(5, results.get(0).getUpdateCounts().length);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Intercepts(@Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }))
+  public static class UpdateCounter implements Interceptor {
+
+    private int updates;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      updates++;
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}
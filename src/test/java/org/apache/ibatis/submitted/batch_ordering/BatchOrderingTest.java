@@ -0,0 +1,142 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_ordering;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.List;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.BatchOrdering;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchOrderingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_ordering/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_ordering/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldBatchInterleavedStatementsOnDifferentTables() {
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      OrderMapper mapper = sqlSession.getMapper(OrderMapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertOrder(i);
+        mapper.insertLine(i, i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(3, results.get(0).getUpdateCounts().length);
+      assertEquals(3, results.get(1).getUpdateCounts().length);
+      assertEquals(3, mapper.countLines());
+      sqlSession.commit();
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldNotMoveStatementsBeforeStatementsOnTheSameTable() {
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      OrderMapper mapper = sqlSession.getMapper(OrderMapper.class);
+      mapper.insertOrder(1);
+      mapper.updateStatus(1, "PAID");
+      mapper.insertOrder(2);
+      mapper.updateStatus(2, "PAID");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(4, results.size());
+      assertEquals("PAID", mapper.getStatus(2));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldNotMoveStatementsBeforeTheTablesTheyDeclare() {
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      OrderMapper mapper = sqlSession.getMapper(OrderMapper.class);
+      mapper.insertLineOfOrder(1, 0);
+      mapper.insertOrder(1);
+      mapper.insertLineOfOrder(2, 1);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals(2, mapper.countLines());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldOnlyBatchConsecutiveStatementsWithStrictOrdering() {
+    sqlSessionFactory.getConfiguration().setBatchOrdering(BatchOrdering.STRICT);
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      OrderMapper mapper = sqlSession.getMapper(OrderMapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertOrder(i);
+        mapper.insertLine(i, i);
+      }
+      assertEquals(6, sqlSession.flushStatements().size());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldMoveAnyStatementWithoutOrdering() {
+    sqlSessionFactory.getConfiguration().setBatchOrdering(BatchOrdering.NONE);
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      OrderMapper mapper = sqlSession.getMapper(OrderMapper.class);
+      mapper.insertOrder(1);
+      mapper.updateStatus(1, "PAID");
+      mapper.insertOrder(2);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      assertEquals("PAID", mapper.getStatus(1));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
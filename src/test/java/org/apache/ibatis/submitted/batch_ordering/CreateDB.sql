@@ -0,0 +1,33 @@
+--
+--    Copyright 2009-2016 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table order_line if exists;
+drop table orders if exists;
+
+create table orders (
+  id int primary key,
+  status varchar(20)
+);
+
+create table order_line (
+  id int primary key,
+  order_id int,
+  item varchar(20),
+  foreign key (order_id) references orders (id)
+);
+
+insert into orders (id, status) values (0, 'NEW');
@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_ordering;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+public interface OrderMapper {
+
+  @Insert("insert into orders (id, status) values (#{id}, 'NEW')")
+  int insertOrder(Integer id);
+
+  @Update("update orders set status = #{status} where id = #{id}")
+  int updateStatus(@Param("id") Integer id, @Param("status") String status);
+
+  @Insert("insert into order_line (id, order_id, item) values (#{id}, #{orderId}, 'item')")
+  int insertLine(@Param("id") Integer id, @Param("orderId") Integer orderId);
+
+  @Insert("insert into order_line (id, order_id, item) values (#{id}, #{orderId}, 'item')")
+  @Options(tables = "order_line,orders")
+  int insertLineOfOrder(@Param("id") Integer id, @Param("orderId") Integer orderId);
+
+  @Select("select count(*) from order_line")
+  int countLines();
+
+  @Select("select status from orders where id = #{id}")
+  String getStatus(Integer id);
+
+}
@@ -0,0 +1,201 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batched_nested_select;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchedNestedSelectTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final List<String> preparedSql = new ArrayList<String>();
+
+  @Before
+  public void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batched_nested_select/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batched_nested_select/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+
+    sqlSessionFactory.getConfiguration().addInterceptor(new SqlRecorder());
+  }
+
+  @Test
+  public void shouldLoadEagerNestedSelectsInBatches() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Blog> blogs = sqlSession.selectList("selectBlogs");
+      assertEquals(5, blogs.size());
+      assertEquals("jim", blogs.get(0).getAuthor().getName());
+      assertSame(blogs.get(0).getAuthor(), blogs.get(1).getAuthor());
+      assertEquals("sally", blogs.get(2).getAuthor().getName());
+      assertEquals("bob", blogs.get(3).getAuthor().getName());
+      assertNull(blogs.get(4).getAuthor());
+      assertEquals(2, blogs.get(0).getPosts().size());
+      assertEquals("post2", blogs.get(0).getPosts().get(1).getSubject());
+      assertTrue(blogs.get(1).getPosts().isEmpty());
+      assertEquals("post5", blogs.get(4).getPosts().get(0).getSubject());
+      // one select for the blogs, two for the three authors and three for the five blogs' posts
+      assertEquals(6, preparedSql.size());
+      assertEquals(0, countSingleSelects());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldLoadLazySiblingsTogether() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Blog> blogs = sqlSession.selectList("selectLazyBlogs");
+      assertEquals(1, preparedSql.size());
+      assertEquals("jim", blogs.get(0).getAuthor().getName());
+      assertEquals(2, preparedSql.size());
+      assertEquals("jim", blogs.get(1).getAuthor().getName());
+      assertEquals("sally", blogs.get(2).getAuthor().getName());
+      assertEquals(2, preparedSql.size());
+      assertEquals("bob", blogs.get(3).getAuthor().getName());
+      assertNull(blogs.get(4).getAuthor());
+      assertEquals(3, preparedSql.size());
+      assertEquals(0, countSingleSelects());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldUseSingleSelectsWithResultHandler() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      final List<Blog> blogs = new ArrayList<Blog>();
+      sqlSession.select("selectBlogs", new ResultHandler<Blog>() {
+        @Override
+        public void handleResult(ResultContext<? extends Blog> resultContext) {
+          assertNotNull(resultContext.getResultObject().getPosts());
+          blogs.add(resultContext.getResultObject());
+        }
+      });
+      assertEquals(5, blogs.size());
+      assertEquals("bob", blogs.get(3).getAuthor().getName());
+      assertTrue(countSingleSelects() > 0);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldLoadAnnotatedNestedSelectsInBatches() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Blog> blogs = sqlSession.getMapper(AnnotatedBlogMapper.class).selectBlogsWithPosts();
+      assertEquals(5, blogs.size());
+      assertEquals(1, blogs.get(2).getPosts().size());
+      assertEquals(4, preparedSql.size());
+      assertEquals(0, countSingleSelects());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldMatchDecimalParentKeysWithIntegerChildKeys() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Blog> blogs = sqlSession.selectList("selectBlogsWithDecimalAuthorKeys");
+      assertEquals(5, blogs.size());
+      assertEquals("jim", blogs.get(1).getAuthor().getName());
+      assertEquals("sally", blogs.get(2).getAuthor().getName());
+      assertEquals("bob", blogs.get(3).getAuthor().getName());
+      assertEquals(0, countSingleSelects());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRejectLoadedObjectsMatchingNoRequestedKey() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.selectList("selectBlogsWithUnmatchedAuthorKeys");
+      fail("Expected an exception for the unmatched batchKey");
+    } catch (PersistenceException e) {
+      assertTrue(e.getMessage().contains("matches none of the requested keys"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private int countSingleSelects() {
+    int count = 0;
+    for (String sql : preparedSql) {
+      if (sql.contains("= ?")) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+  private class SqlRecorder implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      preparedSql.add(((StatementHandler) invocation.getTarget()).getBoundSql().getSql());
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+}
@@ -138,6 +138,24 @@ public class ColumnPrefixTest {
     }
   }
 
+  @Test
+  public void testSameAddressUnderDifferentPrefixesWithCompactKeys() throws Exception {
+    sqlSessionFactory.getConfiguration().setCompactNestedResultKeys(true);
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Person> list = getPersons(sqlSession);
+      Person person4 = list.get(3);
+      assertEquals(Integer.valueOf(4), person4.getId());
+      assertEquals(Integer.valueOf(11), person4.getBillingAddress().getId());
+      assertEquals("San Francisco", person4.getBillingAddress().getCity());
+      assertEquals(Integer.valueOf(11), person4.getShippingAddress().getId());
+      assertEquals("San Francisco", person4.getShippingAddress().getCity());
+      assertEquals(AddressWithCaution.class, person4.getShippingAddress().getClass());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
   protected List<Pet> getPetAndRoom(SqlSession sqlSession) {
     List<Pet> pets = sqlSession.selectList("org.apache.ibatis.submitted.column_prefix.Mapper.selectPets");
     return pets;
@@ -112,6 +112,7 @@ insert into address (id, state, city, phone1_id, phone2_id, addr_type, caution)
 insert into person (id, name, billing_address_id, shipping_address_id, room_id) values (1, 'John', 10, 11, 33);
 insert into person (id, name, billing_address_id, shipping_address_id, room_id) values (2, 'Rebecca', 12, null, null);
 insert into person (id, name, billing_address_id, shipping_address_id, room_id) values (3, 'Keith', null, 13, null);
+insert into person (id, name, billing_address_id, shipping_address_id, room_id) values (4, 'Mary', 11, 11, null);
 
 insert into brand (id, name) values (1, 'alpha');
 
@@ -0,0 +1,200 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.CursorBatches;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class CursorPrefetchTest {
+
+    private static SqlSessionFactory sqlSessionFactory;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml");
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+        reader.close();
+        sqlSessionFactory.getConfiguration().setCursorPrefetchSize(2);
+
+        SqlSession session = sqlSessionFactory.openSession();
+        Connection conn = session.getConnection();
+        reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+        ScriptRunner runner = new ScriptRunner(conn);
+        runner.setLogWriter(null);
+        runner.runScript(reader);
+        reader.close();
+        session.close();
+    }
+
+    @Test
+    public void shouldPrefetchAllUsers() throws Exception {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+        try {
+            Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+            Assert.assertTrue(usersCursor instanceof PrefetchingCursor);
+            Assert.assertFalse(usersCursor.isOpen());
+
+            List<String> names = new ArrayList<String>();
+            for (User user : usersCursor) {
+                Assert.assertTrue(usersCursor.isOpen() || usersCursor.isConsumed());
+                names.add(user.getName());
+            }
+            Assert.assertEquals(5, names.size());
+            Assert.assertEquals("User1", names.get(0));
+            Assert.assertEquals("User5", names.get(4));
+            Assert.assertEquals(4, usersCursor.getCurrentIndex());
+            Assert.assertTrue(usersCursor.isConsumed());
+            Assert.assertFalse(usersCursor.isOpen());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void shouldStopPrefetchingWhenClosed() throws Exception {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+        try {
+            Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+            Iterator<User> iterator = usersCursor.iterator();
+            Assert.assertEquals("User1", iterator.next().getName());
+            usersCursor.close();
+            Assert.assertFalse(usersCursor.isOpen());
+            Assert.assertFalse(usersCursor.isConsumed());
+            Assert.assertFalse(iterator.hasNext());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void shouldPrefetchFromTaskOfSaturatedAsyncExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        sqlSessionFactory.getConfiguration().setAsyncExecutorService(executor);
+        try {
+            Future<Integer> count = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    SqlSession sqlSession = sqlSessionFactory.openSession();
+                    try {
+                        int count = 0;
+                        for (User user : sqlSession.getMapper(Mapper.class).getAllUsers()) {
+                            count++;
+                        }
+                        return count;
+                    } finally {
+                        sqlSession.close();
+                    }
+                }
+            });
+            Assert.assertEquals(Integer.valueOf(5), count.get(10, TimeUnit.SECONDS));
+        } finally {
+            sqlSessionFactory.getConfiguration().setAsyncExecutorService(null);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldDeliverUsersInBatches() throws Exception {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+        try {
+            Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+            List<Integer> sizes = new ArrayList<Integer>();
+            for (List<User> batch : CursorBatches.of(usersCursor, 2)) {
+                sizes.add(batch.size());
+            }
+            Assert.assertEquals("[2, 2, 1]", sizes.toString());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void shouldReportTheStatesOfDefaultCursor() throws Exception {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+        try {
+            Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+            Assert.assertFalse(usersCursor.isOpen());
+            Assert.assertFalse(usersCursor.isConsumed());
+
+            Iterator<User> iterator = usersCursor.iterator();
+            Assert.assertTrue(iterator.hasNext());
+            Assert.assertTrue(usersCursor.isOpen());
+            Assert.assertFalse(usersCursor.isConsumed());
+
+            for (int i = 0; i < 5; i++) {
+                iterator.next();
+            }
+            Assert.assertFalse(iterator.hasNext());
+            Assert.assertFalse(usersCursor.isOpen());
+            Assert.assertTrue(usersCursor.isConsumed());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Test
+    public void shouldRethrowErrorsOfTheProducer() throws Exception {
+        ObjectFactory objectFactory = sqlSessionFactory.getConfiguration().getObjectFactory();
+        sqlSessionFactory.getConfiguration().setObjectFactory(new DefaultObjectFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public <T> T create(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+                if (type == User.class) {
+                    throw new NoClassDefFoundError("User");
+                }
+                return super.create(type, constructorArgTypes, constructorArgs);
+            }
+        });
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+        try {
+            Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+            try {
+                usersCursor.iterator().next();
+                Assert.fail();
+            } catch (NoClassDefFoundError e) {
+                Assert.assertEquals("User", e.getMessage());
+            }
+            Assert.assertFalse(usersCursor.isOpen());
+        } finally {
+            sqlSession.close();
+            sqlSessionFactory.getConfiguration().setObjectFactory(objectFactory);
+        }
+    }
+
+}
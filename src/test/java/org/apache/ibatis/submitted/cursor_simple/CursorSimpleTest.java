@@ -16,6 +16,7 @@
 package org.apache.ibatis.submitted.cursor_simple;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.jdbc.ScriptRunner;
 import org.apache.ibatis.session.RowBounds;
@@ -393,4 +394,29 @@ public class CursorSimpleTest {
         }
     }
 
+    @Test
+    public void shouldReturnCachedStatementWhenCursorIsClosed() throws Exception {
+        PooledDataSource ds = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:cursor_simple", "sa", "");
+        ds.setPoolMaximumActiveConnections(1);
+        ds.setPoolMaximumCachedStatements(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                SqlSession sqlSession = sqlSessionFactory.openSession(ds.getConnection());
+                try {
+                    Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+                    Iterator<User> iterator = usersCursor.iterator();
+                    Assert.assertEquals("User1", iterator.next().getName());
+                    usersCursor.close();
+                } finally {
+                    sqlSession.close();
+                }
+            }
+            // the second cursor reused the statement the first cursor closed
+            Assert.assertEquals(1, ds.getPoolState().getStatementCacheHitCount());
+            Assert.assertEquals(1, ds.getPoolState().getStatementCacheMissCount());
+        } finally {
+            ds.forceCloseAll();
+        }
+    }
+
 }
@@ -0,0 +1,34 @@
+--
+--    Copyright 2009-2016 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table players if exists;
+
+create table players (
+  id int,
+  name varchar(20),
+  age int,
+  score double,
+  team_id int
+);
+
+create table teams (
+  id int,
+  name varchar(20)
+);
+
+insert into players (id, name, age, score, team_id) values(1, 'Alice', 31, 7.5, 1);
+insert into players (id, name, age, score, team_id) values(2, 'Bob', null, null, 1);
+insert into teams (id, name) values(1, 'Red');
@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.generated_row_mappers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.List;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class GeneratedRowMappersTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/generated_row_mappers/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/generated_row_mappers/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldAutoMapWithGeneratedRowMapper() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Player> players = sqlSession.getMapper(Mapper.class).getPlayers();
+      assertEquals(2, players.size());
+      assertPlayers(players);
+      assertEquals(Integer.valueOf(1), players.get(0).getTeamId());
+      assertTrue(players.get(0).getMappedBy().contains("$$RowMapper$$"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyResultMapWithGeneratedRowMapper() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Player> players = sqlSession.getMapper(Mapper.class).getPlayersWithResultMap();
+      assertEquals(2, players.size());
+      assertPlayers(players);
+      assertNull(players.get(0).getTeamId());
+      assertTrue(players.get(1).getMappedBy().contains("$$RowMapper$$"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldFallBackToReflectionForNestedSelects() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Player> players = sqlSession.getMapper(Mapper.class).getPlayersWithTeam();
+      assertEquals(2, players.size());
+      assertPlayers(players);
+      assertEquals("Red", players.get(0).getTeam().getName());
+      assertFalse(players.get(0).getMappedBy().contains("$$RowMapper$$"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCallSettersOnNullsWithGeneratedRowMapper() {
+    sqlSessionFactory.getConfiguration().setCallSettersOnNulls(true);
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Player> players = sqlSession.getMapper(Mapper.class).getPlayers();
+      assertPlayers(players);
+      assertTrue(players.get(1).getMappedBy().contains("$$RowMapper$$"));
+    } finally {
+      sqlSession.close();
+      sqlSessionFactory.getConfiguration().setCallSettersOnNulls(false);
+    }
+  }
+
+  private void assertPlayers(List<Player> players) {
+    assertEquals(Integer.valueOf(1), players.get(0).getId());
+    assertEquals("Alice", players.get(0).getName());
+    assertEquals(31, players.get(0).getAge());
+    assertEquals(Double.valueOf(7.5d), players.get(0).getScore());
+    assertEquals(Integer.valueOf(2), players.get(1).getId());
+    assertEquals("Bob", players.get(1).getName());
+    assertEquals(-1, players.get(1).getAge());
+    assertNull(players.get(1).getScore());
+  }
+
+}
@@ -20,6 +20,8 @@ import java.util.List;
 public interface CountryMapper {
 
   int insertList(List<Country> countries);
+  int insertArray(Country[] countries);
+  int insertMixedList(List<Object> countries);
   int insertUndefineKeyProperty(Country country);
 
 }
@@ -20,7 +20,9 @@ import static org.junit.Assert.*;
 import java.io.Reader;
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
@@ -82,6 +84,46 @@ public class Jdbc3KeyGeneratorTest {
     }
   }
 
+  @Test
+  public void shouldInsertArrayAndRetrieveIdsInOrder() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      CountryMapper mapper = sqlSession.getMapper(CountryMapper.class);
+      Country[] countries = { new Country("China", "CN"), new Country("United Kiongdom", "GB"), new Country("United States of America", "US") };
+      mapper.insertArray(countries);
+      assertNotNull(countries[0].getId());
+      assertEquals(countries[0].getId() + 1, countries[1].getId().intValue());
+      assertEquals(countries[0].getId() + 2, countries[2].getId().intValue());
+    } finally {
+      sqlSession.rollback();
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldInsertMapsAndBeansAndRetrieveIds() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      CountryMapper mapper = sqlSession.getMapper(CountryMapper.class);
+      Map<String, Object> japan = new HashMap<String, Object>();
+      japan.put("countryname", "Japan");
+      japan.put("countrycode", "JP");
+      Country france = new Country("France", "FR");
+      List<Object> countries = new ArrayList<Object>();
+      countries.add(new Country("China", "CN"));
+      countries.add(japan);
+      countries.add(france);
+      mapper.insertMixedList(countries);
+      Integer id = ((Country) countries.get(0)).getId();
+      assertNotNull(id);
+      assertEquals(id + 1, ((Number) japan.get("id")).intValue());
+      assertEquals(id + 2, france.getId().intValue());
+    } finally {
+      sqlSession.rollback();
+      sqlSession.close();
+    }
+  }
+
   @Test
   public void shouldErrorUndefineProperty()  {
     SqlSession sqlSession = sqlSessionFactory.openSession();
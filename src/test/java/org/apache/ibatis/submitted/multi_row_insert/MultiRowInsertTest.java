@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MultiRowInsertTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multi_row_insert/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multi_row_insert/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldRepeatTheValuesRow() {
+    MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement("insertItems");
+    String sql = ms.getBoundSql(items(2)).getSql();
+    assertEquals("insert into item (name, price) values (?, coalesce(?, 0)), (?, coalesce(?, 0))", sql);
+    assertSame(sql, ms.getBoundSql(items(2)).getSql());
+    assertEquals(6, ms.getBoundSql(items(5)).getParameterMappings().size());
+  }
+
+  @Test
+  public void shouldInsertAllRowsInChunks() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Item> items = items(7);
+      items.get(6).setPrice(null);
+      assertEquals(7, sqlSession.insert("insertItems", items));
+      assertEquals(Integer.valueOf(7), sqlSession.<Integer>selectOne("countItems"));
+      for (int i = 0; i < 7; i++) {
+        assertNotNull(items.get(i).getId());
+        Item item = sqlSession.selectOne("getItem", items.get(i).getId());
+        assertEquals("item" + i, item.getName());
+      }
+      assertEquals(Integer.valueOf(0), sqlSession.<Item>selectOne("getItem", items.get(6).getId()).getPrice());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldInsertWithMapperMethods() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertEquals(5, sqlSession.getMapper(AnnotatedItemMapper.class).insertAll(items(5)));
+      assertEquals(0, sqlSession.getMapper(AnnotatedItemMapper.class).insertAll(new ArrayList<Item>()));
+      assertEquals(Integer.valueOf(5), sqlSession.<Integer>selectOne("countItems"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldBatchChunksOfTheSameSize() {
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      List<Item> items = items(7);
+      sqlSession.insert("insertItems", items);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      assertEquals(1, results.get(1).getUpdateCounts().length);
+      assertEquals(Integer.valueOf(7), sqlSession.<Integer>selectOne("countItems"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldKeepBatchedChunksWhenTheListIsClearedBeforeFlush() {
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH);
+    try {
+      List<Item> items = items(5);
+      List<Item> buffer = new ArrayList<Item>(items);
+      sqlSession.insert("insertItems", buffer);
+      buffer.clear();
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      for (Item item : items) {
+        assertNotNull(item.getId());
+      }
+      assertEquals(Integer.valueOf(5), sqlSession.<Integer>selectOne("countItems"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test(expected = BuilderException.class)
+  public void shouldRejectDynamicSql() {
+    sqlSessionFactory.getConfiguration().addMapper(DynamicItemMapper.class);
+  }
+
+  public interface DynamicItemMapper {
+    @Insert("insert into item (name) values ('${name}')")
+    @Options(multiRowSize = 10)
+    int insertItems(List<Item> items);
+  }
+
+  private static List<Item> items(int count) {
+    List<Item> items = new ArrayList<Item>();
+    for (int i = 0; i < count; i++) {
+      items.add(new Item("item" + i, i));
+    }
+    return items;
+  }
+
+}
@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_result_keys;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class NestedResultKeysTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_result_keys/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_result_keys/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldMapNestedResultsWithCompactKeys() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Parent> parents = sqlSession.getMapper(Mapper.class).getParents();
+      assertEquals("[1:p1[1:a, 2:b], 2:p2[3:c, 4:null], 3:p3[]]", parents.toString());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldMapTheSameResultsWithCacheKeys() {
+    sqlSessionFactory.getConfiguration().setCompactNestedResultKeys(false);
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Parent> parents = sqlSession.getMapper(Mapper.class).getParents();
+      assertEquals("[1:p1[1:a, 2:b], 2:p2[3:c, 4:null], 3:p3[]]", parents.toString());
+    } finally {
+      sqlSession.close();
+      sqlSessionFactory.getConfiguration().setCompactNestedResultKeys(true);
+    }
+  }
+
+  @Test
+  public void shouldHandleCompletedParentsWithDefaultResultOrdered() {
+    assertTrue(sqlSessionFactory.getConfiguration().getMappedStatement("getParents").isResultOrdered());
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      final List<String> handled = new ArrayList<String>();
+      sqlSession.getMapper(Mapper.class).getParents(new ResultHandler<Parent>() {
+        @Override
+        public void handleResult(ResultContext<? extends Parent> resultContext) {
+          // each parent is handed over once all its children have been read
+          handled.add(resultContext.getResultObject().toString());
+        }
+      });
+      assertEquals("[1:p1[1:a, 2:b], 2:p2[3:c, 4:null], 3:p3[]]", handled.toString());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldKeepExplicitResultOrderedAttribute() {
+    assertFalse(sqlSessionFactory.getConfiguration().getMappedStatement("getParentsUnordered").isResultOrdered());
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getParentsUnordered(new ResultHandler<Parent>() {
+        @Override
+        public void handleResult(ResultContext<? extends Parent> resultContext) {
+        }
+      });
+      fail();
+    } catch (PersistenceException e) {
+      assertTrue(e.getCause() instanceof ExecutorException);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_queries;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.ParallelQueries;
+import org.apache.ibatis.annotations.ParallelQuery;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  @Select("select id, name from users where id > #{minId} order by id")
+  List<User> getUsersAfter(@Param("minId") Integer minId);
+
+  @Select("select id, name from users where id = #{id}")
+  User getUser(@Param("id") Integer id);
+
+  @Select("select count(*) from users")
+  int countUsers();
+
+  @Select("select id, name from missing_table")
+  List<User> getMissingUsers();
+
+  @ParallelQueries({
+      @ParallelQuery(property = "users", select = "getUsersAfter"),
+      @ParallelQuery(property = "user", select = "org.apache.ibatis.submitted.parallel_queries.Mapper.getUser"),
+      @ParallelQuery(property = "userCount", select = "countUsers")
+  })
+  Dashboard getDashboard(@Param("minId") Integer minId, @Param("id") Integer id);
+
+  @ParallelQueries({
+      @ParallelQuery(property = "users", select = "getMissingUsers"),
+      @ParallelQuery(property = "userCount", select = "countUsers")
+  })
+  Dashboard getBrokenDashboard();
+
+}
@@ -0,0 +1,79 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_queries;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelQueriesTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_queries/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_queries/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldJoinTheResultsOfAllQueries() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Dashboard dashboard = sqlSession.getMapper(Mapper.class).getDashboard(1, 2);
+      assertEquals(2, dashboard.getUsers().size());
+      assertEquals("User3", dashboard.getUsers().get(1).getName());
+      assertEquals("User2", dashboard.getUser().getName());
+      assertEquals(3, dashboard.getUserCount());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldThrowTheErrorOfAFailedQuery() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getBrokenDashboard();
+      fail();
+    } catch (PersistenceException e) {
+      assertTrue(e.getMessage().contains("missing_table") || e.getMessage().contains("MISSING_TABLE"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
@@ -0,0 +1,37 @@
+--
+--    Copyright 2009-2016 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop procedure rename_person if exists;
+drop table pet if exists;
+drop table person if exists;
+
+create table person (
+  id int,
+  name varchar(20)
+);
+
+create table pet (
+  id int,
+  owner_id int,
+  name varchar(20)
+);
+
+insert into person (id, name) values (1, 'Jane');
+insert into pet (id, owner_id, name) values (1, 1, 'Rex');
+
+create procedure rename_person(in p_id int, in p_name varchar(20))
+modifies sql data
+update person set name = p_name where id = p_id;
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache_invalidation;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@CacheNamespace(readWrite = false)
+public interface PersonMapper {
+
+  @Select("select id, name from person where id = #{id}")
+  Person getPerson(Integer id);
+
+  @Update("update person set name = #{name} where id = #{id}")
+  int renamePerson(@Param("id") Integer id, @Param("name") String name);
+
+  @Update("call rename_person(#{id}, #{name})")
+  @Options(tables = "PUBLIC.PERSON")
+  int renamePersonWithProcedure(@Param("id") Integer id, @Param("name") String name);
+
+}
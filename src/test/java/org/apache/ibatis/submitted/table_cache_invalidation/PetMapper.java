@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache_invalidation;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.One;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@CacheNamespace(readWrite = false)
+public interface PetMapper {
+
+  @Select("select id, name from pet where id = #{id}")
+  Pet getPet(Integer id);
+
+  @Select("select p.id, p.name from pet p join person o on p.owner_id = o.id where o.name = #{name}")
+  Pet getPetOfOwner(String name);
+
+  @Select("select id, name, owner_id from pet where id = #{id}")
+  @Results({
+      @Result(property = "id", column = "id"),
+      @Result(property = "name", column = "name"),
+      @Result(property = "owner", column = "owner_id",
+          one = @One(select = "org.apache.ibatis.submitted.table_cache_invalidation.PersonMapper.getPerson"))
+  })
+  Pet getPetWithOwner(Integer id);
+
+  @Update("update pet set name = #{name} where id = #{id}")
+  int renamePet(@Param("id") Integer id, @Param("name") String name);
+
+}
@@ -0,0 +1,179 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache_invalidation;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TableCacheInvalidationTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/table_cache_invalidation/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/table_cache_invalidation/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldOnlyEvictEntriesThatReadTheWrittenTable() {
+    Person person = getPerson();
+    Pet pet = getPet();
+    Pet petOfJane = getPetOfOwner("Jane");
+
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(PetMapper.class).renamePet(1, "Max");
+      sqlSession.commit();
+    } finally {
+      sqlSession.close();
+    }
+
+    assertSame(person, getPerson());
+    assertNotSame(pet, getPet());
+    assertEquals("Max", getPet().getName());
+    assertEquals("Max", getPetOfOwner("Jane").getName());
+    assertNotSame(petOfJane, getPetOfOwner("Jane"));
+  }
+
+  @Test
+  public void shouldEvictEntriesOfOtherNamespacesThatReadTheWrittenTable() {
+    Pet pet = getPet();
+    assertNotNull(getPetOfOwner("Jane"));
+
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(PersonMapper.class).renamePerson(1, "Janet");
+      sqlSession.commit();
+    } finally {
+      sqlSession.close();
+    }
+
+    assertSame(pet, getPet());
+    assertNull(getPetOfOwner("Jane"));
+    assertNotNull(getPetOfOwner("Janet"));
+  }
+
+  @Test
+  public void shouldEvictEntriesWhoseNestedSelectsReadTheWrittenTable() {
+    Pet pet = getPetWithOwner();
+    assertEquals("Jane", pet.getOwner().getName());
+
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(PersonMapper.class).renamePerson(1, "Janet");
+      sqlSession.commit();
+    } finally {
+      sqlSession.close();
+    }
+
+    assertNotSame(pet, getPetWithOwner());
+    assertEquals("Janet", getPetWithOwner().getOwner().getName());
+  }
+
+  @Test
+  public void shouldUseDeclaredTables() {
+    Person person = getPerson();
+    Pet pet = getPet();
+
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(PersonMapper.class).renamePersonWithProcedure(1, "Janet");
+      sqlSession.commit();
+    } finally {
+      sqlSession.close();
+    }
+
+    assertSame(pet, getPet());
+    assertNotSame(person, getPerson());
+    assertEquals("Janet", getPerson().getName());
+  }
+
+  @Test
+  public void shouldNotReadOrCacheUncommittedChanges() {
+    Pet pet = getPet();
+
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      PetMapper mapper = sqlSession.getMapper(PetMapper.class);
+      mapper.renamePet(1, "Max");
+      assertEquals("Max", mapper.getPet(1).getName());
+      sqlSession.rollback();
+    } finally {
+      sqlSession.close();
+    }
+
+    assertSame(pet, getPet());
+    assertEquals("Rex", getPet().getName());
+  }
+
+  private Person getPerson() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      return sqlSession.getMapper(PersonMapper.class).getPerson(1);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private Pet getPet() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      return sqlSession.getMapper(PetMapper.class).getPet(1);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private Pet getPetWithOwner() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      return sqlSession.getMapper(PetMapper.class).getPetWithOwner(1);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private Pet getPetOfOwner(String name) {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      return sqlSession.getMapper(PetMapper.class).getPetOfOwner(name);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}